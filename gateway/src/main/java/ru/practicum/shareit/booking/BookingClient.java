@@ -5,32 +5,67 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.WireFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    /** Holds one upstream connection per open event stream, so it bypasses the pooled client. */
+    private final RestTemplate events;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-server.wire-format:json}") WireFormat wireFormat,
+                         @Value("${shareit-server.timeout:10s}") Duration timeout,
+                         RestTemplateBuilder builder) {
         super(
             builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                 .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
+                .readTimeout(timeout)
+                .build(),
+            wireFormat,
+            timeout
         );
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.events = builder
+            .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+            .requestFactory(() -> new JdkClientHttpRequestFactory(httpClient))
+            .build();
+    }
+
+    public void streamEvents(long userId, HttpServletResponse response) throws IOException {
+        streamEvents(events, "/stream", userId, response);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public void getBookings(long userId, BookingState state, Integer from, Integer size,
+                            HttpServletResponse response) throws IOException {
         Map<String, Object> parameters = Map.of(
             "state", state.name(),
             "from", from,
             "size", size
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        stream("?state={state}&from={from}&size={size}", userId, parameters, response);
+    }
+
+    public void exportOwnerBookings(long userId, String format, HttpServletResponse response) throws IOException {
+        streamExport("/export?format={format}", userId, Map.of("format", format), response);
     }
 
     public ResponseEntity<Object> bookItem(long userId, BookingCreateDto requestDto) {
@@ -45,12 +80,34 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
     
-    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size) {
+    public void getOwnerBookings(long userId, BookingState state, Integer from, Integer size,
+                                 HttpServletResponse response) throws IOException {
          Map<String, Object> parameters = Map.of(
             "state", state.name(),
             "from", from,
             "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        stream("/owner?state={state}&from={from}&size={size}", userId, parameters, response);
+    }
+
+    public ResponseEntity<Object> bookItemRecurring(long userId, RecurringBookingCreateDto requestDto) {
+        return post("/recurring", userId, requestDto);
+    }
+
+    public ResponseEntity<Object> getRecurringBooking(long userId, Long recurringBookingId) {
+        return get("/recurring/" + recurringBookingId, userId);
+    }
+
+    public ResponseEntity<Object> approveRecurringBooking(long userId, Long recurringBookingId, boolean approved) {
+        return patch("/recurring/" + recurringBookingId + "?approved=" + approved, userId);
+    }
+
+    public ResponseEntity<Object> getOccurrences(long userId, boolean owner, LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = Map.of(
+            "start", start,
+            "end", end
+        );
+        return get((owner ? "/recurring/owner" : "/recurring") + "/occurrences?start={start}&end={end}",
+            userId, parameters);
     }
 }
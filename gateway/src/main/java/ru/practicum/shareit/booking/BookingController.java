@@ -2,12 +2,17 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -19,14 +24,15 @@ public class BookingController {
 	private final BookingClient bookingClient;
 
 	@GetMapping
-	public ResponseEntity<Object> getBookings(@RequestHeader(USER_HEADER) long userId,
+	public void getBookings(@RequestHeader(USER_HEADER) long userId,
 			@RequestParam(name = "state", defaultValue = "ALL") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+			HttpServletResponse response) throws IOException {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
 		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookings(userId, state, from, size);
+		bookingClient.getBookings(userId, state, from, size, response);
 	}
 
 	@PostMapping
@@ -36,6 +42,21 @@ public class BookingController {
 		return bookingClient.bookItem(userId, requestDto);
 	}
 
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public void streamBookingEvents(@RequestHeader(USER_HEADER) long userId,
+			HttpServletResponse response) throws IOException {
+		log.info("Open booking event stream, userId={}", userId);
+		bookingClient.streamEvents(userId, response);
+	}
+
+	@GetMapping("/export")
+	public void exportOwnerBookings(@RequestHeader(USER_HEADER) long userId,
+			@RequestParam(name = "format", defaultValue = "csv") String format,
+			HttpServletResponse response) throws IOException {
+		log.info("Export owner bookings as {}, userId={}", format, userId);
+		bookingClient.exportOwnerBookings(userId, format, response);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader(USER_HEADER) long userId,
 			@PathVariable Long bookingId) {
@@ -52,13 +73,52 @@ public class BookingController {
     }
     
     @GetMapping("/owner")
-	public ResponseEntity<Object> getOwnerBookings(@RequestHeader(USER_HEADER) long userId,
+	public void getOwnerBookings(@RequestHeader(USER_HEADER) long userId,
             @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            HttpServletResponse response) throws IOException {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get owner bookings with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getOwnerBookings(userId, state, from, size);
+        bookingClient.getOwnerBookings(userId, state, from, size, response);
     }
+
+	@PostMapping("/recurring")
+	public ResponseEntity<Object> bookItemRecurring(@RequestHeader(USER_HEADER) long userId,
+			@RequestBody @Valid RecurringBookingCreateDto requestDto) {
+		log.info("Creating recurring booking {}, userId={}", requestDto, userId);
+		return bookingClient.bookItemRecurring(userId, requestDto);
+	}
+
+	@GetMapping("/recurring/occurrences")
+	public ResponseEntity<Object> getOccurrences(@RequestHeader(USER_HEADER) long userId,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+		log.info("Get recurring booking occurrences from {} to {}, userId={}", start, end, userId);
+		return bookingClient.getOccurrences(userId, false, start, end);
+	}
+
+	@GetMapping("/recurring/owner/occurrences")
+	public ResponseEntity<Object> getOwnerOccurrences(@RequestHeader(USER_HEADER) long userId,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+		log.info("Get owner recurring booking occurrences from {} to {}, userId={}", start, end, userId);
+		return bookingClient.getOccurrences(userId, true, start, end);
+	}
+
+	@GetMapping("/recurring/{recurringBookingId}")
+	public ResponseEntity<Object> getRecurringBooking(@RequestHeader(USER_HEADER) long userId,
+			@PathVariable Long recurringBookingId) {
+		log.info("Get recurring booking {}, userId={}", recurringBookingId, userId);
+		return bookingClient.getRecurringBooking(userId, recurringBookingId);
+	}
+
+	@PatchMapping("/recurring/{recurringBookingId}")
+	public ResponseEntity<Object> approveRecurringBooking(@RequestHeader(USER_HEADER) long userId,
+			@PathVariable Long recurringBookingId,
+			@RequestParam boolean approved) {
+		log.info("Approve recurring booking {}, userId={}, approved={}", recurringBookingId, userId, approved);
+		return bookingClient.approveRecurringBooking(userId, recurringBookingId, approved);
+	}
 }
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingCreateDto {
+  @NotNull(message = "Item id must be provided.")
+  private Long itemId;
+
+  @NotNull(message = "Start date must be provided.")
+  @FutureOrPresent(message = "Start date must be in the future.")
+  private LocalDateTime start;
+
+  @NotNull(message = "End date must be provided.")
+  @Future(message = "End date must be in the future.")
+  private LocalDateTime end;
+
+  @NotNull(message = "Frequency must be provided.")
+  private RecurrenceFrequency frequency;
+
+  @NotNull(message = "Parameter 'every' must be provided.")
+  @Positive(message = "Parameter 'every' must be positive.")
+  private Integer every;
+
+  @NotNull(message = "Until date must be provided.")
+  @FutureOrPresent(message = "Until date must be in the future.")
+  private LocalDateTime until;
+}
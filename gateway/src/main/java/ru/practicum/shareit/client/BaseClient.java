@@ -1,22 +1,69 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 public class BaseClient {
+    /**
+     * Request attribute set on calls that last as long as their payload does (uploads, exports and
+     * event streams), so that their duration is not taken for the server's latency.
+     */
+    public static final String LONG_RUNNING = BaseClient.class.getName() + ".longRunning";
+    /**
+     * Upstream headers worth relaying when a response body is streamed through unchanged.
+     */
+    private static final List<String> STREAMED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.RETRY_AFTER, HttpHeaders.ETAG);
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    /**
+     * Time the gateway is still willing to wait for the answer, so the server can stop working on
+     * a request nobody waits for any more.
+     */
+    private static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
     protected final RestTemplate rest;
+    private final WireFormat wireFormat;
+    @Nullable
+    private final Duration timeout;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, WireFormat.JSON);
+    }
+
+    public BaseClient(RestTemplate rest, WireFormat wireFormat) {
+        this(rest, wireFormat, null);
+    }
+
+    /**
+     * @param timeout how long the client waits for the server; passed on with every request except
+     *                exports, or {@code null} for no limit
+     */
+    public BaseClient(RestTemplate rest, WireFormat wireFormat, @Nullable Duration timeout) {
         this.rest = rest;
+        this.wireFormat = wireFormat;
+        this.timeout = timeout;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -79,8 +126,152 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Relays a GET response to the client byte for byte instead of decoding and re-encoding it, so
+     * large lists start reaching the client while the server is still writing them. JSON is
+     * requested here regardless of the wire format because the bytes go straight to the edge.
+     */
+    protected void stream(String path, Long userId, @Nullable Map<String, Object> parameters,
+                          HttpServletResponse response) throws IOException {
+        stream(path, userId, parameters, response, true);
+    }
+
+    /**
+     * Relays an export like {@link #stream}, but without a deadline: an export runs for as long as
+     * it keeps writing.
+     */
+    protected void streamExport(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                HttpServletResponse response) throws IOException {
+        stream(path, userId, parameters, response, false);
+    }
+
+    private void stream(String path, Long userId, @Nullable Map<String, Object> parameters,
+                        HttpServletResponse response, boolean bounded) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET,
+                    request -> {
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        if (userId != null) {
+                            request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        }
+                        forwardClientHeader(request.getHeaders(), HttpHeaders.IF_NONE_MATCH);
+                        if (bounded) {
+                            setTimeout(request.getHeaders());
+                        } else {
+                            request.getAttributes().put(LONG_RUNNING, true);
+                        }
+                    },
+                    upstream -> {
+                        relay(upstream, response);
+                        return null;
+                    },
+                    parameters != null ? parameters : Map.of());
+        } catch (HttpStatusCodeException e) {
+            relayError(e, response);
+        }
+    }
+
+    /**
+     * Forwards an upload to the server as it is read and relays the server's answer unchanged, so
+     * neither side holds the whole body in memory. The body is only streamed when the client's
+     * RestTemplate has no interceptors: an intercepted request is buffered in full.
+     */
+    protected void upload(String path, MediaType contentType, InputStream body, HttpServletResponse response)
+            throws IOException {
+        try {
+            rest.execute(path, HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(contentType);
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        request.getAttributes().put(LONG_RUNNING, true);
+                        if (request instanceof StreamingHttpOutputMessage streaming) {
+                            streaming.setBody(body::transferTo);
+                        } else {
+                            body.transferTo(request.getBody());
+                        }
+                    },
+                    upstream -> {
+                        relay(upstream, response);
+                        return null;
+                    });
+        } catch (HttpStatusCodeException e) {
+            relayError(e, response);
+        }
+    }
+
+    /**
+     * Relays a server-sent event stream, flushing after every read so that events reach the client
+     * as soon as the server emits them. Blocks until either side closes the connection, so it is
+     * meant for a client whose connections are not drawn from the shared pool.
+     */
+    protected void streamEvents(RestTemplate client, String path, long userId, HttpServletResponse response)
+            throws IOException {
+        try {
+            client.execute(path, HttpMethod.GET,
+                    request -> {
+                        // JSON is accepted too so that errors are still readable.
+                        request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON));
+                        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        request.getAttributes().put(LONG_RUNNING, true);
+                    },
+                    upstream -> {
+                        relayHeaders(upstream, response);
+                        try (InputStream in = upstream.getBody()) {
+                            OutputStream out = response.getOutputStream();
+                            byte[] buffer = new byte[8192];
+                            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                                out.write(buffer, 0, read);
+                                out.flush();
+                            }
+                        }
+                        return null;
+                    });
+        } catch (HttpStatusCodeException e) {
+            relayError(e, response);
+        } catch (ResourceAccessException e) {
+            // Client or server went away mid-stream; there is nobody left to answer.
+            if (!response.isCommitted()) {
+                throw e;
+            }
+        }
+    }
+
+    private static void relay(ClientHttpResponse upstream, HttpServletResponse response) throws IOException {
+        relayHeaders(upstream, response);
+        try (InputStream in = upstream.getBody()) {
+            OutputStream out = response.getOutputStream();
+            in.transferTo(out);
+            out.flush();
+        }
+    }
+
+    private static void relayHeaders(ClientHttpResponse upstream, HttpServletResponse response) throws IOException {
+        response.setStatus(upstream.getStatusCode().value());
+        for (String header : STREAMED_HEADERS) {
+            String value = upstream.getHeaders().getFirst(header);
+            if (value != null) {
+                response.setHeader(header, value);
+            }
+        }
+    }
+
+    private static void relayError(HttpStatusCodeException e, HttpServletResponse response) throws IOException {
+        response.setStatus(e.getStatusCode().value());
+        if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+            response.setContentType(e.getResponseHeaders().getContentType().toString());
+        }
+        response.getOutputStream().write(e.getResponseBodyAsByteArray());
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        HttpHeaders headers = defaultHeaders(userId);
+        setTimeout(headers);
+        if (method == HttpMethod.GET) {
+            forwardClientHeader(headers, HttpHeaders.IF_NONE_MATCH);
+        } else if (method == HttpMethod.POST) {
+            forwardClientHeader(headers, IDEMPOTENCY_KEY);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -90,28 +281,77 @@ public class BaseClient {
                 shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode()).body(errorBody(e));
         }
         return prepareGatewayResponse(shareitServerResponse);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setContentType(wireFormat.contentType());
+        headers.setAccept(wireFormat.accept());
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
         return headers;
     }
 
+    private void setTimeout(HttpHeaders headers) {
+        if (timeout != null) {
+            headers.set(TIMEOUT_HEADER, String.valueOf(timeout.toMillis()));
+        }
+    }
+
+    /**
+     * Passes a header of the client's request on: If-None-Match, so the server can answer an
+     * unchanged list with 304 without running its queries, and Idempotency-Key, so a retried
+     * create returns the original result instead of a duplicate.
+     */
+    private static void forwardClientHeader(HttpHeaders headers, String name) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            String value = attributes.getRequest().getHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+    }
+
+    private Object errorBody(HttpStatusCodeException e) {
+        byte[] body = e.getResponseBodyAsByteArray();
+        MediaType contentType = e.getResponseHeaders() != null ? e.getResponseHeaders().getContentType() : null;
+        if (body.length == 0 || contentType == null || !WireFormat.SMILE.contentType().isCompatibleWith(contentType)) {
+            return body;
+        }
+        // Smile error bodies are decoded so the client still receives JSON.
+        for (var converter : rest.getMessageConverters()) {
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter smile) {
+                try {
+                    return smile.getObjectMapper().readValue(body, Object.class);
+                } catch (IOException ignored) {
+                    return body;
+                }
+            }
+        }
+        return body;
+    }
+
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+            // The body is re-serialized for the client, so the upstream representation headers no longer apply.
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            return ResponseEntity.status(response.getStatusCode()).headers(headers).body(response.getBody());
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return responseBuilder.eTag(response.getHeaders().getETag()).build();
+        }
+
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
         }
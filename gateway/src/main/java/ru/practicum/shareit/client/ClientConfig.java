@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class ClientConfig {
+
+    @Bean
+    public RestTemplateCustomizer smileConverterCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        MappingJackson2SmileHttpMessageConverter smile = new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build());
+        // Replaces the default Smile converter, whose bare mapper would write dates as arrays.
+        return restTemplate -> {
+            restTemplate.getMessageConverters().removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+            restTemplate.getMessageConverters().add(smile);
+        };
+    }
+
+    @Bean
+    public ClientRequestObservationConvention upstreamObservationConvention() {
+        return new UpstreamObservationConvention();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.common.KeyValue;
+import java.util.regex.Pattern;
+import org.springframework.http.client.observation.ClientHttpObservationDocumentation.LowCardinalityKeyNames;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+/**
+ * The clients build paths by concatenating ids ({@code "/" + bookingId}), so the default
+ * {@code uri} tag of {@code http.client.requests} would get one value per entity. The tag is
+ * taken from the full request path instead, with numeric segments collapsed to {@code {id}}.
+ */
+public class UpstreamObservationConvention extends DefaultClientRequestObservationConvention {
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @Override
+    protected KeyValue uri(ClientRequestObservationContext context) {
+        if (context.getCarrier() == null) {
+            return super.uri(context);
+        }
+        return KeyValue.of(LowCardinalityKeyNames.URI, normalize(context.getCarrier().getURI().getPath()));
+    }
+
+    static String normalize(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
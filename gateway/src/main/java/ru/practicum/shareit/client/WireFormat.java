@@ -0,0 +1,33 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+
+/**
+ * Body encoding used on the gateway-to-server hop. The public edge always speaks JSON.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType contentType;
+    private final List<MediaType> accept;
+
+    WireFormat(MediaType contentType) {
+        this.contentType = contentType;
+        this.accept = MediaType.APPLICATION_JSON.equals(contentType)
+                ? List.of(contentType)
+                : List.of(contentType, MediaType.APPLICATION_JSON);
+    }
+
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    /**
+     * Preferred response types; JSON stays acceptable so an older server can still answer.
+     */
+    public List<MediaType> accept() {
+        return accept;
+    }
+}
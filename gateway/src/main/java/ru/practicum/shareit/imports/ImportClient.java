@@ -0,0 +1,42 @@
+package ru.practicum.shareit.imports;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
+@Service
+public class ImportClient extends BaseClient {
+    private static final String API_PREFIX = "/imports";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    public ImportClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        super(withoutInterceptors(
+            builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                .build()
+        ));
+    }
+
+    /**
+     * Any interceptor would make the RestTemplate buffer the whole upload before sending it.
+     */
+    private static RestTemplate withoutInterceptors(RestTemplate rest) {
+        rest.getInterceptors().clear();
+        return rest;
+    }
+
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        upload("", NDJSON, body, response);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.imports;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportController {
+    private final ImportClient importClient;
+
+    @PostMapping(consumes = "application/x-ndjson")
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        log.info("Bulk import upload");
+        importClient.importNdjson(body, response);
+    }
+}
@@ -8,6 +8,10 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.WireFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 
 @Service
@@ -15,17 +19,27 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      @Value("${shareit-server.wire-format:json}") WireFormat wireFormat,
+                      @Value("${shareit-server.timeout:10s}") Duration timeout,
+                      RestTemplateBuilder builder) {
         super(
             builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                 .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
+                .readTimeout(timeout)
+                .build(),
+            wireFormat,
+            timeout
         );
     }
 
-    public ResponseEntity<Object> getItems(long userId) {
-        return get("", userId);
+    public void getItems(long userId, HttpServletResponse response) throws IOException {
+        stream("", userId, null, response);
+    }
+
+    public void exportItems(long userId, String format, HttpServletResponse response) throws IOException {
+        streamExport("/export?format={format}", userId, Map.of("format", format), response);
     }
 
     public ResponseEntity<Object> getItem(long userId, long itemId) {
@@ -44,8 +58,8 @@ public class ItemClient extends BaseClient {
         return delete("/" + itemId, userId);
     }
     
-    public ResponseEntity<Object> searchItems(long userId, String text) {
-        return get("/search?text={text}", userId, Map.of("text", text));
+    public void searchItems(long userId, String text, HttpServletResponse response) throws IOException {
+        stream("/search?text={text}", userId, Map.of("text", text), response);
     }
     
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
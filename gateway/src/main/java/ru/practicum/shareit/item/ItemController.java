@@ -6,7 +6,9 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/items")
@@ -16,8 +18,16 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemClient.getItems(userId);
+    public void getItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                         HttpServletResponse response) throws IOException {
+        itemClient.getItems(userId, response);
+    }
+
+    @GetMapping("/export")
+    public void exportItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                            @RequestParam(name = "format", defaultValue = "csv") String format,
+                            HttpServletResponse response) throws IOException {
+        itemClient.exportItems(userId, format, response);
     }
 
     @GetMapping("/{itemId}")
@@ -46,9 +56,10 @@ public class ItemController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam String text) {
-        return itemClient.searchItems(userId, text);
+    public void searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                            @RequestParam String text,
+                            HttpServletResponse response) throws IOException {
+        itemClient.searchItems(userId, text, response);
     }
     
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control by priority: low-priority reads are refused as soon as the server looks
+ * degraded or the gateway is moderately busy, normal reads at a higher watermark, writes only at
+ * the hard in-flight limit.
+ */
+@Component
+public class LoadShedder {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final UpstreamHealth upstreamHealth;
+    private final int lowPriorityMaxInFlight;
+    private final int normalPriorityMaxInFlight;
+    private final int maxInFlight;
+
+    public LoadShedder(UpstreamHealth upstreamHealth,
+                       @Value("${gateway.load-shedding.low-priority-max-in-flight:64}") int lowPriorityMaxInFlight,
+                       @Value("${gateway.load-shedding.normal-priority-max-in-flight:128}") int normalPriorityMaxInFlight,
+                       @Value("${gateway.load-shedding.max-in-flight:256}") int maxInFlight) {
+        this.upstreamHealth = upstreamHealth;
+        this.lowPriorityMaxInFlight = lowPriorityMaxInFlight;
+        this.normalPriorityMaxInFlight = normalPriorityMaxInFlight;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Admits the request and counts it as in flight, or returns false when it must be shed.
+     * Every successful call has to be paired with {@link #release()}.
+     */
+    public boolean tryAdmit(RequestPriority priority) {
+        if (priority == RequestPriority.LOW && upstreamHealth.isDegraded()) {
+            return false;
+        }
+        int limit = switch (priority) {
+            case LOW -> lowPriorityMaxInFlight;
+            case NORMAL -> normalPriorityMaxInFlight;
+            case HIGH -> maxInFlight;
+        };
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
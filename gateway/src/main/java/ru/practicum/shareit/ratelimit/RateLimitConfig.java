@@ -0,0 +1,55 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(
+            @Value("${gateway.rate-limit.requests-per-second:20}") double requestsPerSecond,
+            @Value("${gateway.rate-limit.burst:40}") int burst,
+            @Value("${gateway.rate-limit.max-buckets:100000}") int maxBuckets,
+            @Value("${gateway.rate-limit.stripes:16}") int stripes) {
+        return new TokenBucketRateLimiter(requestsPerSecond, burst, maxBuckets, stripes, System::nanoTime);
+    }
+
+    @Bean
+    public UpstreamHealth upstreamHealth(
+            @Value("${gateway.load-shedding.degraded-latency-ms:1000}") long degradedLatencyMillis,
+            @Value("${gateway.load-shedding.degraded-error-rate:0.5}") double degradedErrorRate,
+            @Value("${gateway.load-shedding.health-half-life:10s}") Duration halfLife) {
+        return new UpstreamHealth(degradedLatencyMillis, degradedErrorRate, halfLife, System::nanoTime);
+    }
+
+    @Bean
+    public RestTemplateCustomizer upstreamHealthCustomizer(UpstreamHealth upstreamHealth) {
+        return restTemplate -> restTemplate.getInterceptors().add(upstreamHealth);
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(TokenBucketRateLimiter rateLimiter, LoadShedder loadShedder,
+                                        UpstreamHealth upstreamHealth) {
+        return registry -> {
+            Gauge.builder("gateway.requests.in.flight", loadShedder, LoadShedder::inFlight)
+                    .description("Requests admitted by the load shedder and not yet completed")
+                    .register(registry);
+            Gauge.builder("gateway.rate.limit.buckets", rateLimiter, TokenBucketRateLimiter::size)
+                    .description("Per-user token buckets currently held in memory")
+                    .register(registry);
+            Gauge.builder("gateway.upstream.latency", upstreamHealth, UpstreamHealth::latencyMillis)
+                    .description("Exponentially weighted latency of calls to the server")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("gateway.upstream.error.rate", upstreamHealth, UpstreamHealth::errorRate)
+                    .description("Exponentially weighted share of failed calls to the server")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+/**
+ * Applies the per-user rate limit and priority-aware load shedding before a request reaches the
+ * controllers; refused requests get 429 with a Retry-After hint.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    static final String USER_HEADER = "X-Sharer-User-Id";
+    /** Long-lived streams are rate limited on connect but would hold an in-flight slot for hours. */
+    private static final Set<String> STREAM_PATHS = Set.of("/bookings/stream");
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long shedRetryAfterSeconds;
+    private final Map<RequestPriority, Counter> rateLimited = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> shed = new EnumMap<>(RequestPriority.class);
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter,
+                           LoadShedder loadShedder,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${gateway.load-shedding.retry-after-seconds:2}") long shedRetryAfterSeconds) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.shedRetryAfterSeconds = shedRetryAfterSeconds;
+        for (RequestPriority priority : RequestPriority.values()) {
+            rateLimited.put(priority, rejections(meterRegistry, "rate_limited", priority));
+            shed.put(priority, rejections(meterRegistry, "shed", priority));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RequestPriority priority = RequestPriority.of(request);
+        Long userId = userId(request);
+        if (userId != null) {
+            long waitNanos = rateLimiter.tryAcquire(userId);
+            if (waitNanos > 0) {
+                log.debug("Rate limit exceeded for userId={}", userId);
+                rateLimited.get(priority).increment();
+                reject(response, toRetryAfterSeconds(waitNanos), "Too many requests for user " + userId + ".");
+                return;
+            }
+        }
+        if (STREAM_PATHS.contains(RequestPriority.path(request))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!loadShedder.tryAdmit(priority)) {
+            log.warn("Shedding {} priority request {} {}", priority, request.getMethod(), request.getRequestURI());
+            shed.get(priority).increment();
+            reject(response, shedRetryAfterSeconds, "Service is overloaded, please retry later.");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            loadShedder.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason, RequestPriority priority) {
+        return Counter.builder("gateway.requests.rejected")
+                .description("Requests refused with 429 before reaching the server")
+                .tag("reason", reason)
+                .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
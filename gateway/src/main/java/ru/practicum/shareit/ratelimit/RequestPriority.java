@@ -0,0 +1,32 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Set;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Shedding priority of an incoming request: list and search reads go first, writes last.
+ */
+public enum RequestPriority {
+    LOW, NORMAL, HIGH;
+
+    private static final Set<String> LIST_PATHS = Set.of(
+        "/items", "/items/search", "/bookings", "/bookings/owner", "/requests", "/requests/all", "/users"
+    );
+
+    public static RequestPriority of(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return HIGH;
+        }
+        return LIST_PATHS.contains(path(request)) ? LOW : NORMAL;
+    }
+
+    /** Request path without the context path and trailing slash, as the controllers map it. */
+    static String path(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+}
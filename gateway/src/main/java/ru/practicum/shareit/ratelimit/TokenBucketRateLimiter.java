@@ -0,0 +1,111 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token bucket implemented as GCRA: each bucket is a single "theoretical arrival time"
+ * updated with CAS, so admission is lock-free. Buckets live in independent stripes; a bucket whose
+ * arrival time is in the past is full and can be dropped without changing behaviour, which keeps
+ * memory bounded by the number of recently active keys.
+ */
+public class TokenBucketRateLimiter {
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final Stripe[] stripes;
+    private final int maxBucketsPerStripe;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxBuckets, int stripeCount,
+                                  LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxBuckets <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("Rate limiter settings must be positive");
+        }
+        int stripesPow2 = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[Math.max(1, stripesPow2)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / stripes.length);
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1L);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Tries to take one permit for the key; returns 0 when admitted, otherwise the nanoseconds
+     * until the next permit becomes available.
+     */
+    public long tryAcquire(long key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucketFor(key, now);
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            long allowAt = base - burstToleranceNanos;
+            if (allowAt > now) {
+                return allowAt - now;
+            }
+            if (bucket.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Number of buckets currently held, across all stripes.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucketFor(long key, long now) {
+        Stripe stripe = stripes[spread(key) & (stripes.length - 1)];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.buckets.size() >= maxBucketsPerStripe) {
+            evict(stripe, now);
+        }
+        return stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void evict(Stripe stripe, long now) {
+        stripe.buckets.entrySet().removeIf(e -> e.getValue().get() <= now);
+        if (stripe.buckets.size() < maxBucketsPerStripe) {
+            return;
+        }
+        // Every bucket is still refilling: drop the one closest to full among a small sample.
+        Map.Entry<Long, AtomicLong> victim = null;
+        Iterator<Map.Entry<Long, AtomicLong>> it = stripe.buckets.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+            Map.Entry<Long, AtomicLong> candidate = it.next();
+            if (victim == null || candidate.getValue().get() < victim.getValue().get()) {
+                victim = candidate;
+            }
+        }
+        if (victim != null) {
+            stripe.buckets.remove(victim.getKey(), victim.getValue());
+        }
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+    }
+}
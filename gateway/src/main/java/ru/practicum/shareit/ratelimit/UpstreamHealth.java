@@ -0,0 +1,104 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.client.BaseClient;
+
+/**
+ * Tracks exponentially weighted latency and error rate of calls to the ShareIt server and
+ * reports the server as degraded when either crosses its threshold. Calls marked
+ * {@link BaseClient#LONG_RUNNING} are left out: an import or an export takes as long as its data.
+ *
+ * <p>Both averages also decay towards zero, halving every half-life without calls. Shedding
+ * low-priority requests while degraded removes calls that would show a recovery, so silence
+ * counts as recovery instead; if the server is still struggling, the next calls say so.
+ */
+public class UpstreamHealth implements ClientHttpRequestInterceptor {
+    private static final double ALPHA = 0.2;
+
+    private final AtomicReference<Average> latencyMillis = new AtomicReference<>(new Average(0.0, 0L));
+    private final AtomicReference<Average> errorRate = new AtomicReference<>(new Average(0.0, 0L));
+    private final long degradedLatencyMillis;
+    private final double degradedErrorRate;
+    private final double halfLifeNanos;
+    private final LongSupplier nanoClock;
+
+    public UpstreamHealth(long degradedLatencyMillis, double degradedErrorRate, Duration halfLife,
+                          LongSupplier nanoClock) {
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        this.degradedLatencyMillis = degradedLatencyMillis;
+        this.degradedErrorRate = degradedErrorRate;
+        this.halfLifeNanos = halfLife.toNanos();
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        latencyMillis.set(new Average(0.0, now));
+        errorRate.set(new Average(0.0, now));
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttributes().get(BaseClient.LONG_RUNNING))) {
+            return execution.execute(request, body);
+        }
+        long started = nanoClock.getAsLong();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            record(started, response.getStatusCode().is5xxServerError());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            record(started, true);
+            throw e;
+        }
+    }
+
+    public boolean isDegraded() {
+        return latencyMillis() > degradedLatencyMillis || errorRate() > degradedErrorRate;
+    }
+
+    public double latencyMillis() {
+        return decayed(latencyMillis.get(), nanoClock.getAsLong());
+    }
+
+    public double errorRate() {
+        return decayed(errorRate.get(), nanoClock.getAsLong());
+    }
+
+    void record(long startedNanos, boolean failed) {
+        long now = nanoClock.getAsLong();
+        double millis = TimeUnit.NANOSECONDS.toMicros(now - startedNanos) / 1000.0;
+        update(latencyMillis, millis, now);
+        update(errorRate, failed ? 1.0 : 0.0, now);
+    }
+
+    private void update(AtomicReference<Average> average, double sample, long now) {
+        while (true) {
+            Average current = average.get();
+            Average next = new Average(decayed(current, now) * (1 - ALPHA) + sample * ALPHA,
+                    Math.max(now, current.atNanos()));
+            if (average.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private double decayed(Average average, long now) {
+        long elapsed = now - average.atNanos();
+        if (elapsed <= 0) {
+            return average.value();
+        }
+        return average.value() * Math.pow(0.5, elapsed / halfLifeNanos);
+    }
+
+    private record Average(double value, long atNanos) {
+    }
+}
@@ -8,6 +8,10 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.WireFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 
 @Service
@@ -15,12 +19,18 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             @Value("${shareit-server.wire-format:json}") WireFormat wireFormat,
+                             @Value("${shareit-server.timeout:10s}") Duration timeout,
+                             RestTemplateBuilder builder) {
         super(
             builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                 .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
+                .readTimeout(timeout)
+                .build(),
+            wireFormat,
+            timeout
         );
     }
 
@@ -32,12 +42,13 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(long userId, Integer from, Integer size) {
+    public void getAllRequests(long userId, Integer from, Integer size,
+                               HttpServletResponse response) throws IOException {
         Map<String, Object> parameters = Map.of(
             "from", from,
             "size", size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        stream("/all?from={from}&size={size}", userId, parameters, response);
     }
 
     public ResponseEntity<Object> getRequestById(long userId, Long requestId) {
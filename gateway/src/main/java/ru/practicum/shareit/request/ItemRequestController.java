@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 @RestController
 @RequestMapping(path = "/requests")
@@ -27,10 +29,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                 @Positive @RequestParam(defaultValue = "10") int size) {
-        return requestClient.getAllRequests(userId, from, size);
+    public void getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                               @Positive @RequestParam(defaultValue = "10") int size,
+                               HttpServletResponse response) throws IOException {
+        requestClient.getAllRequests(userId, from, size, response);
     }
 
     @GetMapping("/{requestId}")
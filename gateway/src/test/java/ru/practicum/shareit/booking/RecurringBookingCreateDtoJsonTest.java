@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JsonTest
+class RecurringBookingCreateDtoJsonTest {
+
+    @Autowired
+    private JacksonTester<RecurringBookingCreateDto> json;
+
+    @Test
+    void testRecurringBookingCreateDtoDeserialization() throws Exception {
+        String jsonContent = "{\"itemId\":1,\"start\":\"2026-01-10T12:00:00\",\"end\":\"2026-01-10T14:00:00\","
+                + "\"frequency\":\"WEEKLY\",\"every\":2,\"until\":\"2026-06-01T00:00:00\"}";
+
+        RecurringBookingCreateDto dto = json.parseObject(jsonContent);
+
+        assertThat(dto.getItemId()).isEqualTo(1L);
+        assertThat(dto.getStart()).isEqualTo(LocalDateTime.of(2026, 1, 10, 12, 0, 0));
+        assertThat(dto.getEnd()).isEqualTo(LocalDateTime.of(2026, 1, 10, 14, 0, 0));
+        assertThat(dto.getFrequency()).isEqualTo(RecurrenceFrequency.WEEKLY);
+        assertThat(dto.getEvery()).isEqualTo(2);
+        assertThat(dto.getUntil()).isEqualTo(LocalDateTime.of(2026, 6, 1, 0, 0, 0));
+    }
+}
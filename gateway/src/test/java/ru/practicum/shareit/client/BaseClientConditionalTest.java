@@ -0,0 +1,78 @@
+package ru.practicum.shareit.client;
+
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientConditionalTest {
+
+    private static final String TAG = "W/\"3.0.1700000000000\"";
+
+    private final RestTemplate rest = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+    private final TestClient client = new TestClient(rest);
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/requests");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, TAG);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void relaysNotModifiedWithTag() {
+        server.expect(requestTo("/requests"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, TAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, TAG));
+
+        ResponseEntity<Object> response = client.get("/requests", 1L);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(TAG);
+        assertThat(response.hasBody()).isFalse();
+        server.verify();
+    }
+
+    @Test
+    void streamsTagOfChangedList() throws IOException {
+        server.expect(requestTo("/bookings"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, TAG))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).header(HttpHeaders.ETAG, "W/\"4.0.1700000000000\""));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.stream("/bookings", 1L, null, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"4.0.1700000000000\"");
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+    }
+}
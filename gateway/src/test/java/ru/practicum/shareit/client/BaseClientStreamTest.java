@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientStreamTest {
+
+    private final RestTemplate rest = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+    private final TestClient client = new TestClient(rest);
+
+    @Test
+    void relaysListBytesStatusAndHeadersUnchanged() throws IOException {
+        // Odd spacing and key order would not survive decoding and re-encoding.
+        byte[] body = "[ {\"id\":2,  \"name\":\"Дрель\"},{\"name\":\"Пила\",\"id\":1} ]".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v42\"");
+        headers.setCacheControl("no-cache");
+        headers.set("X-Internal", "not relayed");
+        server.expect(requestTo("/items/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header("X-Sharer-User-Id", "7"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.stream("/items/search?text={text}", 7L, Map.of("text", "дрель"), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v42\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(response.getHeader("X-Internal")).isNull();
+        server.verify();
+    }
+
+    @Test
+    void relaysNotModifiedWithItsETag() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v42\"");
+        server.expect(requestTo("/bookings")).andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.stream("/bookings", 1L, null, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v42\"");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void relaysUpstreamClientErrorThroughRelayError() throws IOException {
+        byte[] error = "{\"error\":\"Unknown state: LATER\"}".getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo("/bookings?state=LATER"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(error));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.stream("/bookings?state={state}", 1L, Map.of("state", "LATER"), response);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentAsByteArray()).isEqualTo(error);
+        server.verify();
+    }
+
+    @Test
+    void relaysUpstreamServerErrorThroughRelayError() throws IOException {
+        byte[] error = "{\"error\":\"Request timed out\"}".getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo("/items"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON).body(error));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.stream("/items", 1L, null, response);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentAsByteArray()).isEqualTo(error);
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+    }
+}
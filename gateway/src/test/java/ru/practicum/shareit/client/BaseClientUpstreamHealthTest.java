@@ -0,0 +1,54 @@
+package ru.practicum.shareit.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.ratelimit.UpstreamHealth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+class BaseClientUpstreamHealthTest {
+
+    private final UpstreamHealth upstreamHealth = new UpstreamHealth(1000, 0.5, Duration.ofSeconds(10), System::nanoTime);
+    private final RestTemplate rest = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+    private final TestClient client = new TestClient(rest);
+
+    BaseClientUpstreamHealthTest() {
+        rest.getInterceptors().add(upstreamHealth);
+    }
+
+    @Test
+    void leavesExportsAndEventStreamsOutOfUpstreamHealth() throws IOException {
+        server.expect(requestTo("/items/export")).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+        server.expect(requestTo("/bookings/stream")).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        client.streamExport("/items/export", 1L, null, new MockHttpServletResponse());
+        client.streamEvents(rest, "/bookings/stream", 1L, new MockHttpServletResponse());
+
+        assertThat(upstreamHealth.errorRate()).isZero();
+        server.verify();
+    }
+
+    @Test
+    void countsBoundedCalls() throws IOException {
+        server.expect(requestTo("/items")).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        client.stream("/items", 1L, null, new MockHttpServletResponse());
+
+        assertThat(upstreamHealth.errorRate()).isPositive();
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.imports;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.ratelimit.UpstreamHealth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportClientTest {
+
+    private static final int BODY_SIZE = 4 * 1024 * 1024;
+
+    private final UpstreamHealth upstreamHealth = new UpstreamHealth(1000, 0.5, Duration.ofSeconds(10), System::nanoTime);
+    private final AtomicReference<String> transferEncoding = new AtomicReference<>();
+    private final AtomicLong received = new AtomicLong();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/imports", exchange -> {
+            transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+            try (InputStream in = exchange.getRequestBody()) {
+                received.set(in.transferTo(OutputStream.nullOutputStream()));
+            }
+            sleep(200);
+            byte[] report = "{\"rows\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, report.length);
+            exchange.getResponseBody().write(report);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsUploadAndLeavesUpstreamHealthAlone() throws IOException {
+        RestTemplateBuilder builder = new RestTemplateBuilder(rest -> rest.getInterceptors().add(upstreamHealth));
+        ImportClient client = new ImportClient("http://localhost:" + server.getAddress().getPort(), builder);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.importNdjson(new ByteArrayInputStream(new byte[BODY_SIZE]), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("{\"rows\":1}");
+        assertThat(received.get()).isEqualTo(BODY_SIZE);
+        // A buffered body would have been sent with its Content-Length instead.
+        assertThat(transferEncoding.get()).isEqualToIgnoringCase("chunked");
+        assertThat(upstreamHealth.latencyMillis()).isZero();
+        assertThat(upstreamHealth.isDegraded()).isFalse();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.client.WireFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemClientCompressionTest {
+
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private final String items = "[" + String.join(",", Collections.nCopies(200,
+            "{\"id\":1,\"name\":\"Дрель\",\"description\":\"Аккумуляторная\",\"available\":true}")) + "]";
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(items.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            exchange.getResponseHeaders().set(HttpHeaders.ETAG, "\"v1\"");
+            exchange.sendResponseHeaders(200, gzipped.size());
+            exchange.getResponseBody().write(gzipped.toByteArray());
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void decodesCompressedListFromServerBeforeRelaying() throws IOException {
+        ItemClient client = new ItemClient("http://localhost:" + server.getAddress().getPort(), WireFormat.JSON,
+                Duration.ofSeconds(5), new RestTemplateBuilder());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.getItems(1L, response);
+
+        assertThat(acceptEncoding.get()).contains("gzip");
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(items);
+        // The relayed bytes are plain; the gateway compresses them again for its own client.
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void gatewayCompressesStreamedAndExportedBodies() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        assertThat(properties.getProperty("server.compression.enabled")).isEqualTo("true");
+        assertThat(List.of(properties.getProperty("server.compression.mime-types").split(",")))
+                .contains("application/json", "application/x-jackson-smile", "text/csv", "application/x-ndjson");
+    }
+}
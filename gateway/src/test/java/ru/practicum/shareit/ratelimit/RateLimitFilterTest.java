@@ -0,0 +1,116 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final UpstreamHealth upstreamHealth = new UpstreamHealth(1000, 0.5, Duration.ofSeconds(10), System::nanoTime);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsUserOverLimitWith429AndRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(new TokenBucketRateLimiter(1, 1, 100, 1, System::nanoTime),
+                new LoadShedder(upstreamHealth, 10, 10, 10));
+
+        MockHttpServletResponse first = perform(filter, request("GET", "/items/1", 7L));
+        MockHttpServletResponse second = perform(filter, request("GET", "/items/1", 7L));
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(second.getContentAsString()).contains("Too many requests");
+        assertThat(rejected("rate_limited", "normal")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shedsLowPriorityReadsBeforeWrites() throws Exception {
+        LoadShedder shedder = new LoadShedder(upstreamHealth, 1, 2, 3);
+        RateLimitFilter filter = filter(new TokenBucketRateLimiter(1000, 1000, 100, 1, System::nanoTime), shedder);
+        assertThat(shedder.tryAdmit(RequestPriority.HIGH)).isTrue();
+
+        assertThat(perform(filter, request("GET", "/items/search", 1L)).getStatus()).isEqualTo(429);
+        assertThat(perform(filter, request("GET", "/items/5", 1L)).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, request("POST", "/bookings", 1L)).getStatus()).isEqualTo(200);
+        assertThat(shedder.inFlight()).isEqualTo(1);
+        assertThat(rejected("shed", "low")).isEqualTo(1.0);
+        assertThat(rejected("shed", "normal")).isZero();
+    }
+
+    @Test
+    void shedsLowPriorityReadsWhenUpstreamIsDegraded() throws Exception {
+        UpstreamHealth degraded = new UpstreamHealth(1000, 0.1, Duration.ofSeconds(10), System::nanoTime);
+        for (int i = 0; i < 10; i++) {
+            degraded.record(System.nanoTime(), true);
+        }
+        RateLimitFilter filter = filter(new TokenBucketRateLimiter(1000, 1000, 100, 1, System::nanoTime),
+                new LoadShedder(degraded, 10, 10, 10));
+
+        assertThat(perform(filter, request("GET", "/bookings/owner", 1L)).getStatus()).isEqualTo(429);
+        assertThat(perform(filter, request("PATCH", "/bookings/1", 1L)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void eventStreamsDoNotHoldInFlightSlots() throws Exception {
+        LoadShedder shedder = new LoadShedder(upstreamHealth, 1, 1, 1);
+        RateLimitFilter filter = filter(new TokenBucketRateLimiter(1000, 1000, 100, 1, System::nanoTime), shedder);
+        assertThat(shedder.tryAdmit(RequestPriority.HIGH)).isTrue();
+
+        assertThat(perform(filter, request("GET", "/bookings/stream", 1L)).getStatus()).isEqualTo(200);
+        assertThat(shedder.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void eventStreamsUnderContextPathDoNotHoldInFlightSlots() throws Exception {
+        LoadShedder shedder = new LoadShedder(upstreamHealth, 1, 1, 1);
+        RateLimitFilter filter = filter(new TokenBucketRateLimiter(1000, 1000, 100, 1, System::nanoTime), shedder);
+        assertThat(shedder.tryAdmit(RequestPriority.HIGH)).isTrue();
+        MockHttpServletRequest stream = request("GET", "/api/bookings/stream/", 1L);
+        stream.setContextPath("/api");
+
+        assertThat(perform(filter, stream).getStatus()).isEqualTo(200);
+        assertThat(shedder.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void classifiesRequestPriority() {
+        assertThat(RequestPriority.of(request("GET", "/items", 1L))).isEqualTo(RequestPriority.LOW);
+        assertThat(RequestPriority.of(request("GET", "/requests/all", 1L))).isEqualTo(RequestPriority.LOW);
+        assertThat(RequestPriority.of(request("GET", "/bookings/3", 1L))).isEqualTo(RequestPriority.NORMAL);
+        assertThat(RequestPriority.of(request("POST", "/items", 1L))).isEqualTo(RequestPriority.HIGH);
+    }
+
+    private RateLimitFilter filter(TokenBucketRateLimiter limiter, LoadShedder shedder) {
+        return new RateLimitFilter(limiter, shedder, new ObjectMapper(), meterRegistry, true, 2);
+    }
+
+    private double rejected(String reason, String priority) {
+        return meterRegistry.get("gateway.requests.rejected")
+                .tag("reason", reason)
+                .tag("priority", priority)
+                .counter()
+                .count();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (userId != null) {
+            request.addHeader(RateLimitFilter.USER_HEADER, userId);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void allowsBurstThenRejectsWithRetryHint() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 100, 4, clock::get);
+
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isZero();
+
+        long wait = limiter.tryAcquire(1L);
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void refillsOverTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 100, 4, clock::get);
+
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isPositive();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire(1L)).isZero();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, 4, clock::get);
+
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isPositive();
+        assertThat(limiter.tryAcquire(2L)).isZero();
+    }
+
+    @Test
+    void evictsIdleBucketsToStayBounded() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1000, 1, 16, 1, clock::get);
+
+        for (long key = 0; key < 1_000; key++) {
+            limiter.tryAcquire(key);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void staysBoundedWhenAllBucketsAreBusy() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 16, 1, clock::get);
+
+        for (long key = 0; key < 1_000; key++) {
+            limiter.tryAcquire(key);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(16);
+    }
+}
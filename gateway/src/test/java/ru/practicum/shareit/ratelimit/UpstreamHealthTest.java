@@ -0,0 +1,61 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamHealthTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final UpstreamHealth upstreamHealth =
+            new UpstreamHealth(1000, 0.5, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void degradationClearsWhileLowPriorityRequestsAreShed() {
+        LoadShedder loadShedder = new LoadShedder(upstreamHealth, 64, 128, 256);
+        for (int i = 0; i < 10; i++) {
+            upstreamHealth.record(clock.get(), true);
+        }
+        assertThat(upstreamHealth.isDegraded()).isTrue();
+        assertThat(loadShedder.tryAdmit(RequestPriority.LOW)).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(upstreamHealth.errorRate()).isBetween(0.4, 0.5);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(upstreamHealth.isDegraded()).isFalse();
+        assertThat(loadShedder.tryAdmit(RequestPriority.LOW)).isTrue();
+    }
+
+    @Test
+    void slowCallsDegradeAndDecayLikeFailures() {
+        for (int i = 0; i < 10; i++) {
+            long started = clock.get();
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+            upstreamHealth.record(started, false);
+        }
+        assertThat(upstreamHealth.latencyMillis()).isGreaterThan(1000);
+        assertThat(upstreamHealth.isDegraded()).isTrue();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(upstreamHealth.isDegraded()).isFalse();
+    }
+
+    @Test
+    void failuresAfterRecoveryDegradeAgain() {
+        for (int i = 0; i < 10; i++) {
+            upstreamHealth.record(clock.get(), true);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertThat(upstreamHealth.isDegraded()).isFalse();
+
+        for (int i = 0; i < 5; i++) {
+            upstreamHealth.record(clock.get(), true);
+        }
+        assertThat(upstreamHealth.isDegraded()).isTrue();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+/**
+ * Mapping cost of a booking page with one nested item/booker DTO per row versus one per distinct
+ * item/booker, alone and followed by JSON encoding into a discarding stream (as into a response
+ * buffer, so the output bytes are not counted). An owner's page names few distinct items.
+ *
+ * <p>Run with {@code mvn -pl server -Pbenchmark test-compile exec:exec
+ * -Djmh.args="BookingMapping -prof gc"}; compare {@code gc.alloc.rate.norm} (bytes per page).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingMappingBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  @Param({"1", "10"})
+  private int distinctItems;
+
+  private ObjectMapper json;
+  private List<Booking> bookings;
+
+  @Setup
+  public void setUp() {
+    json = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    User owner = new User(1L, "Owner", "owner@email.com");
+    List<Item> items = new ArrayList<>(distinctItems);
+    List<User> bookers = new ArrayList<>(distinctItems);
+    for (long i = 0; i < distinctItems; i++) {
+      items.add(new Item(i, "Item " + i, "Cordless drill with two batteries #" + i, true, owner, null));
+      bookers.add(new User(i + 2, "Booker " + i, "booker" + i + "@email.com"));
+    }
+    bookings = new ArrayList<>(size);
+    LocalDateTime base = LocalDateTime.of(2026, 1, 10, 12, 0);
+    for (int i = 0; i < size; i++) {
+      bookings.add(new Booking((long) i, base.plusHours(i), base.plusHours(i + 2), items.get(i % distinctItems),
+          bookers.get(i % distinctItems), BookingStatus.APPROVED));
+    }
+  }
+
+  @Benchmark
+  public List<BookingDto> mapPerRow() {
+    return bookings.stream().map(BookingMapper::toBookingDto).toList();
+  }
+
+  @Benchmark
+  public List<BookingDto> mapShared() {
+    return BookingMapper.toBookingDtos(bookings);
+  }
+
+  @Benchmark
+  public void encodePerRow() throws Exception {
+    json.writeValue(OutputStream.nullOutputStream(), mapPerRow());
+  }
+
+  @Benchmark
+  public void encodeShared() throws Exception {
+    json.writeValue(OutputStream.nullOutputStream(), mapShared());
+  }
+}
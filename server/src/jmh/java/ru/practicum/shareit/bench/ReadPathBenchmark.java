@@ -0,0 +1,106 @@
+package ru.practicum.shareit.bench;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareitApplication;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+
+/**
+ * Owner list endpoints served through the JPA read path versus the JDBC one, at the service
+ * boundary (transaction, SQL, mapping) against the in-memory H2 database of the {@code h2}
+ * profile. Each trial boots the application with the given {@code shareit.read-path}.
+ *
+ * <p>Run with {@code mvn -pl server -Pbenchmark test-compile exec:exec
+ * -Djmh.args="ReadPathBenchmark -prof gc"}; compare the score and {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadPathBenchmark {
+
+  private static final int ITEMS = 50;
+  private static final int BOOKINGS = 1_000;
+
+  @Param({"jpa", "jdbc"})
+  private String readPath;
+
+  @Param({"20", "200"})
+  private int size;
+
+  private ConfigurableApplicationContext context;
+  private BookingService bookingService;
+  private ItemService itemService;
+  private long ownerId;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(ShareitApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("h2")
+        .run("--shareit.read-path=" + readPath,
+            "--spring.jpa.show-sql=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--management.tracing.sampling.probability=0.0",
+            "--shareit.outbox.dispatcher.enabled=false",
+            "--shareit.booking-archive.enabled=false");
+    bookingService = context.getBean(BookingService.class);
+    itemService = context.getBean(ItemService.class);
+
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    jdbc.update("INSERT INTO users (name, email) VALUES ('Owner', 'owner@email.com')");
+    ownerId = jdbc.queryForObject("SELECT id FROM users WHERE email = 'owner@email.com'", Long.class);
+    List<Object[]> users = new ArrayList<>();
+    List<Object[]> items = new ArrayList<>();
+    for (int i = 0; i < ITEMS; i++) {
+      users.add(new Object[] {"Booker " + i, "booker" + i + "@email.com"});
+      items.add(new Object[] {"Item " + i, "Cordless drill with two batteries #" + i, ownerId});
+    }
+    jdbc.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+    jdbc.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, TRUE, ?)", items);
+    List<Long> bookerIds = jdbc.queryForList("SELECT id FROM users WHERE id <> ? ORDER BY id", Long.class, ownerId);
+    List<Long> itemIds = jdbc.queryForList("SELECT id FROM items ORDER BY id", Long.class);
+    List<Object[]> bookings = new ArrayList<>(BOOKINGS);
+    LocalDateTime base = LocalDateTime.now().minusDays(BOOKINGS / 2);
+    for (int i = 0; i < BOOKINGS; i++) {
+      bookings.add(new Object[] {base.plusDays(i), base.plusDays(i).plusHours(2), itemIds.get(i % ITEMS),
+          bookerIds.get(i % ITEMS)});
+    }
+    jdbc.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+        + "VALUES (?, ?, ?, ?, 'APPROVED')", bookings);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<BookingDto> ownerBookings() {
+    return bookingService.getAllByOwner(ownerId, BookingState.ALL, 0, size);
+  }
+
+  @Benchmark
+  public List<ItemDto> ownerItems() {
+    return itemService.getOwnerItems(ownerId);
+  }
+}
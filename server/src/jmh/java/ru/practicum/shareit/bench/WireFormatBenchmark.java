@@ -0,0 +1,126 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingShortDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+/**
+ * Encode/decode cost of JSON versus Smile for booking and item pages as exchanged between gateway
+ * and server. Bytes on the wire are printed once per trial.
+ *
+ * <p>Run with {@code mvn -pl server -Pbenchmark test-compile exec:exec -Djmh.args=WireFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+  private static final TypeReference<List<BookingDto>> BOOKINGS = new TypeReference<>() {
+  };
+  private static final TypeReference<List<ItemDto>> ITEMS = new TypeReference<>() {
+  };
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  private ObjectMapper json;
+  private ObjectMapper smile;
+  private List<BookingDto> bookings;
+  private List<ItemDto> items;
+  private byte[] bookingsJson;
+  private byte[] bookingsSmile;
+  private byte[] itemsJson;
+  private byte[] itemsSmile;
+
+  @Setup
+  public void setUp() throws Exception {
+    json = builder().build();
+    smile = builder().factory(new SmileFactory()).build();
+    bookings = new ArrayList<>(size);
+    items = new ArrayList<>(size);
+    LocalDateTime base = LocalDateTime.of(2026, 1, 10, 12, 0);
+    for (long i = 0; i < size; i++) {
+      ItemDto item = new ItemDto(i, "Item " + i, "Cordless drill with two batteries #" + i, true, null);
+      item.setOwnerId(1L);
+      item.setLastBooking(new BookingShortDto(i, 2L, base.minusDays(3), base.minusDays(2)));
+      item.setNextBooking(new BookingShortDto(i + 1, 3L, base.plusDays(2), base.plusDays(3)));
+      item.setComments(List.of(new CommentDto(i, "Worked fine", "Booker", base.minusDays(1))));
+      items.add(item);
+      bookings.add(new BookingDto(i, base.plusHours(i), base.plusHours(i + 2),
+          new ItemDto(i, "Item " + i, "Cordless drill with two batteries #" + i, true, null),
+          new UserDto(2L, "Booker", "booker@email.com"), BookingStatus.APPROVED));
+    }
+    bookingsJson = json.writeValueAsBytes(bookings);
+    bookingsSmile = smile.writeValueAsBytes(bookings);
+    itemsJson = json.writeValueAsBytes(items);
+    itemsSmile = smile.writeValueAsBytes(items);
+    System.out.printf("%nsize=%d bookings: json=%dB smile=%dB; items: json=%dB smile=%dB%n",
+        size, bookingsJson.length, bookingsSmile.length, itemsJson.length, itemsSmile.length);
+  }
+
+  @Benchmark
+  public byte[] encodeBookingsJson() throws Exception {
+    return json.writeValueAsBytes(bookings);
+  }
+
+  @Benchmark
+  public byte[] encodeBookingsSmile() throws Exception {
+    return smile.writeValueAsBytes(bookings);
+  }
+
+  @Benchmark
+  public List<BookingDto> decodeBookingsJson() throws Exception {
+    return json.readValue(bookingsJson, BOOKINGS);
+  }
+
+  @Benchmark
+  public List<BookingDto> decodeBookingsSmile() throws Exception {
+    return smile.readValue(bookingsSmile, BOOKINGS);
+  }
+
+  @Benchmark
+  public byte[] encodeItemsJson() throws Exception {
+    return json.writeValueAsBytes(items);
+  }
+
+  @Benchmark
+  public byte[] encodeItemsSmile() throws Exception {
+    return smile.writeValueAsBytes(items);
+  }
+
+  @Benchmark
+  public List<ItemDto> decodeItemsJson() throws Exception {
+    return json.readValue(itemsJson, ITEMS);
+  }
+
+  @Benchmark
+  public List<ItemDto> decodeItemsSmile() throws Exception {
+    return smile.readValue(itemsSmile, ITEMS);
+  }
+
+  private static Jackson2ObjectMapperBuilder builder() {
+    // Mirrors the Spring Boot defaults used by both services.
+    return Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Bootstrap class for the ShareIt application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ShareitApplication {
 
   /**
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+/**
+ * Booking that ended long ago, moved out of {@code bookings} by {@link BookingArchiver}. Keeps
+ * its original id, so ids stay unique across both tables.
+ */
+@Entity
+@Immutable
+@Table(name = "bookings_archive")
+@Getter
+@ToString(exclude = {"item", "booker"})
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class ArchivedBooking {
+  @Id
+  private Long id;
+
+  @Column(name = "start_date", nullable = false)
+  private LocalDateTime start;
+
+  @Column(name = "end_date", nullable = false)
+  private LocalDateTime end;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "item_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private Item item;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "booker_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private User booker;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 50)
+  private BookingStatus status;
+
+  /**
+   * Detached copy for the mappers and read paths that work on {@link Booking}; never persisted.
+   */
+  public Booking toBooking() {
+    return new Booking(id, start, end, item, booker, status);
+  }
+}
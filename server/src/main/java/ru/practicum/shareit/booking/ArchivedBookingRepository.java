@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * JPA repository for archived bookings.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+  /**
+   * Finds archived bookings together with their item and booker.
+   */
+  @EntityGraph(attributePaths = {"item", "booker"})
+  List<ArchivedBooking> findAllByIdIn(Collection<Long> ids);
+
+  /**
+   * Latest approved archived booking of each given item.
+   */
+  @Query("SELECT a FROM ArchivedBooking a WHERE a.item.id IN :itemIds AND a.status = 'APPROVED' " +
+         "AND a.end = (SELECT MAX(l.end) FROM ArchivedBooking l " +
+         "WHERE l.item.id = a.item.id AND l.status = 'APPROVED')")
+  List<ArchivedBooking> findLastApprovedByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+  /**
+   * Checks if user has completed an archived booking for an item.
+   */
+  @Query("SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END FROM ArchivedBooking a " +
+         "WHERE a.item.id = :itemId AND a.booker.id = :bookerId " +
+         "AND a.status = 'APPROVED' AND a.end < :now")
+  boolean existsCompletedBooking(@Param("itemId") Long itemId,
+                                 @Param("bookerId") Long bookerId,
+                                 @Param("now") LocalDateTime now);
+
+  /**
+   * Streams every archived booking of the owner's items for export, in id order.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT new ru.practicum.shareit.booking.BookingExportRow(a.id, a.start, a.end, a.status, i.id, i.name, " +
+         "a.booker.id) FROM ArchivedBooking a JOIN a.item i WHERE i.owner.id = :ownerId ORDER BY a.id")
+  Stream<BookingExportRow> streamExportByItemOwnerId(@Param("ownerId") Long ownerId);
+
+  /**
+   * Copies the given live bookings into the archive.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+                 "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings WHERE id IN :ids",
+         nativeQuery = true)
+  int copyFromBookings(@Param("ids") Collection<Long> ids);
+}
@@ -11,18 +11,20 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
 /**
- * Domain model describing a reservation of an item.
+ * Domain model describing a reservation of an item. Versioned, so concurrent read-modify-write
+ * updates fail instead of overwriting each other.
  */
 @Entity
 @Table(name = "bookings")
@@ -30,7 +32,6 @@ import ru.practicum.shareit.user.User;
 @Setter
 @ToString(exclude = {"item", "booker"})
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class Booking {
   @Id
@@ -54,4 +55,18 @@ public class Booking {
   @Enumerated(EnumType.STRING)
   @Column(name = "status", nullable = false, length = 50)
   private BookingStatus status;
+
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+    this.id = id;
+    this.start = start;
+    this.end = end;
+    this.item = item;
+    this.booker = booker;
+    this.status = status;
+  }
 }
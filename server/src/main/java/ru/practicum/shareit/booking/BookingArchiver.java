@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves bookings that ended longer ago than {@code shareit.booking-archive.after} from
+ * {@code bookings} to {@code bookings_archive}, keeping the live table (and its indexes) sized by
+ * recent activity. Each batch is copied and deleted in its own transaction, so a booking is always
+ * in exactly one of the tables for any reader.
+ *
+ * <p>Every instance runs the job at the same time. A batch is selected with {@code FOR UPDATE SKIP
+ * LOCKED}, so instances move disjoint batches and one that finds everything taken simply stops.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+  private final BookingRepository bookingRepository;
+  private final ArchivedBookingRepository archivedBookingRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration after;
+  private final int batchSize;
+  private final boolean enabled;
+  private final Counter archived;
+
+  public BookingArchiver(BookingRepository bookingRepository,
+                         ArchivedBookingRepository archivedBookingRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${shareit.booking-archive.after:90d}") Duration after,
+                         @Value("${shareit.booking-archive.batch-size:1000}") int batchSize,
+                         @Value("${shareit.booking-archive.enabled:true}") boolean enabled) {
+    this.bookingRepository = bookingRepository;
+    this.archivedBookingRepository = archivedBookingRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.after = after;
+    this.batchSize = batchSize;
+    this.enabled = enabled;
+    this.archived = Counter.builder("shareit.booking.archived")
+        .description("Bookings moved to the archive table")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(cron = "${shareit.booking-archive.cron:0 30 3 * * *}")
+  public void run() {
+    if (enabled) {
+      archive(LocalDateTime.now().minus(after));
+    }
+  }
+
+  /**
+   * Archives every booking that ended before the cutoff and returns how many were moved.
+   */
+  public int archive(LocalDateTime endedBefore) {
+    int total = 0;
+    int moved;
+    do {
+      moved = transactionTemplate.execute(status -> {
+        List<Long> ids = bookingRepository.lockIdsEndedBefore(endedBefore, batchSize);
+        if (ids.isEmpty()) {
+          return 0;
+        }
+        archivedBookingRepository.copyFromBookings(ids);
+        bookingRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+      });
+      total += moved;
+      archived.increment(moved);
+    } while (moved == batchSize);
+    if (total > 0) {
+      log.info("Archived {} bookings that ended before {}", total, endedBefore);
+    }
+    return total;
+  }
+}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,6 +14,13 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.common.ConditionalGet;
+import ru.practicum.shareit.common.IdempotentOperation;
+import ru.practicum.shareit.common.IdempotentRequests;
+import ru.practicum.shareit.diagnostics.StatementBudget;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
 
 /**
  * REST controller for booking operations.
@@ -21,26 +32,35 @@ public class BookingController {
   private static final String USER_HEADER = "X-Sharer-User-Id";
 
   private final BookingService bookingService;
+  private final BookingEventStream bookingEventStream;
+  private final IdempotentRequests idempotentRequests;
 
-  public BookingController(BookingService bookingService) {
+  public BookingController(BookingService bookingService, BookingEventStream bookingEventStream,
+                           IdempotentRequests idempotentRequests) {
     this.bookingService = bookingService;
+    this.bookingEventStream = bookingEventStream;
+    this.idempotentRequests = idempotentRequests;
   }
 
   /**
-   * Creates a new booking request.
+   * Creates a new booking request; a retry with the same idempotency key gets the original booking.
    */
   @PostMapping
+  @StatementBudget(8)
   public BookingDto create(
       @RequestHeader(USER_HEADER) long userId,
+      @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
       @RequestBody BookingCreateDto bookingCreateDto
   ) {
-    return bookingService.create(userId, bookingCreateDto);
+    return idempotentRequests.execute(userId, IdempotentOperation.CREATE_BOOKING, idempotencyKey,
+        bookingCreateDto, BookingDto.class, () -> bookingService.create(userId, bookingCreateDto));
   }
 
   /**
    * Approves or rejects a booking request by item owner.
    */
   @PatchMapping("/{bookingId}")
+  @StatementBudget(4)
   public BookingDto approve(
       @RequestHeader(USER_HEADER) long userId,
       @PathVariable long bookingId,
@@ -49,10 +69,33 @@ public class BookingController {
     return bookingService.approve(userId, bookingId, approved);
   }
 
+  /**
+   * Streams booking status changes relevant to the user as server-sent events.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @StatementBudget(1)
+  public SseEmitter stream(@RequestHeader(USER_HEADER) long userId) {
+    return bookingEventStream.subscribe(userId);
+  }
+
+  /**
+   * Streams the full booking history of the user's items as CSV or NDJSON.
+   */
+  @GetMapping("/export")
+  @StatementBudget(3)
+  public void export(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestParam(value = "format", defaultValue = "csv") String format,
+      HttpServletResponse response
+  ) {
+    bookingService.exportByOwner(userId, ExportFormat.from(format), ExportTarget.of(response, "bookings"));
+  }
+
   /**
    * Gets booking details by id.
    */
   @GetMapping("/{bookingId}")
+  @StatementBudget(2)
   public BookingDto getById(
       @RequestHeader(USER_HEADER) long userId,
       @PathVariable long bookingId
@@ -61,28 +104,36 @@ public class BookingController {
   }
 
   /**
-   * Gets all bookings for current user filtered by state.
+   * Gets all bookings for current user filtered by state; answers 304 while the
+   * client's tag is current.
    */
   @GetMapping
-  public List<BookingDto> getAllByBooker(
+  @StatementBudget(6)
+  public ResponseEntity<List<BookingDto>> getAllByBooker(
       @RequestHeader(USER_HEADER) long userId,
       @RequestParam(value = "state", defaultValue = "ALL") BookingState state,
       @RequestParam(value = "from", defaultValue = "0") int from,
-      @RequestParam(value = "size", defaultValue = "10") int size
+      @RequestParam(value = "size", defaultValue = "10") int size,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
   ) {
-    return bookingService.getAllByBooker(userId, state, from, size);
+    return ConditionalGet.respond(bookingService.getTagByBooker(userId, state), ifNoneMatch,
+        () -> bookingService.getAllByBooker(userId, state, from, size));
   }
 
   /**
-   * Gets all bookings for items owned by current user filtered by state.
+   * Gets all bookings for items owned by current user filtered by state; answers 304 while the
+   * client's tag is current.
    */
   @GetMapping("/owner")
-  public List<BookingDto> getAllByOwner(
+  @StatementBudget(6)
+  public ResponseEntity<List<BookingDto>> getAllByOwner(
       @RequestHeader(USER_HEADER) long userId,
       @RequestParam(value = "state", defaultValue = "ALL") BookingState state,
       @RequestParam(value = "from", defaultValue = "0") int from,
-      @RequestParam(value = "size", defaultValue = "10") int size
+      @RequestParam(value = "size", defaultValue = "10") int size,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
   ) {
-    return bookingService.getAllByOwner(userId, state, from, size);
+    return ConditionalGet.respond(bookingService.getTagByOwner(userId, state), ifNoneMatch,
+        () -> bookingService.getAllByOwner(userId, state, from, size));
   }
 }
@@ -0,0 +1,219 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxSubscriber;
+import ru.practicum.shareit.user.UserRepository;
+
+/**
+ * Pushes booking events from the outbox to connected clients over server-sent events: new
+ * WAITING bookings to the item owner, approvals and rejections to the booker.
+ *
+ * <p>Every connection gets a bounded buffer drained by its own virtual thread, so the outbox
+ * dispatcher never waits on a slow client and idle connections cost no platform thread. A
+ * connection whose buffer overflows is closed; the client reconnects and re-reads its bookings.
+ * The connections of a deleted user are closed on every instance.
+ */
+@Slf4j
+@Component
+public class BookingEventStream implements OutboxSubscriber {
+
+  private final UserRepository userRepository;
+  private final ObjectMapper objectMapper;
+  private final int bufferSize;
+  private final long timeoutMillis;
+  private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+  private final AtomicInteger open = new AtomicInteger();
+  private final Counter overflows;
+
+  public BookingEventStream(UserRepository userRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking-stream.buffer-size:64}") int bufferSize,
+                            @Value("${shareit.booking-stream.timeout:30m}") Duration timeout) {
+    this.userRepository = userRepository;
+    this.objectMapper = objectMapper;
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeout.toMillis();
+    Gauge.builder("shareit.booking.stream.connections", open, AtomicInteger::get)
+        .description("Open booking event streams")
+        .register(meterRegistry);
+    this.overflows = Counter.builder("shareit.booking.stream.overflows")
+        .description("Booking event streams closed because the client did not keep up")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Opens an event stream for the user.
+   */
+  public SseEmitter subscribe(long userId) {
+    if (!userRepository.existsById(userId)) {
+      throw new NotFoundException("User with id=" + userId + " not found.");
+    }
+    Connection connection = new Connection(userId, new SseEmitter(timeoutMillis));
+    connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+    open.incrementAndGet();
+    connection.emitter.onCompletion(connection::close);
+    connection.emitter.onTimeout(connection::close);
+    connection.emitter.onError(e -> connection.close());
+    // Sent right away so the response is committed and the client knows the stream is live.
+    connection.offer(StreamEvent.comment("connected"));
+    Thread.ofVirtual().name("booking-stream-" + userId).start(connection);
+    return connection.emitter;
+  }
+
+  @Override
+  public String name() {
+    return "booking-stream";
+  }
+
+  @Override
+  public boolean durable() {
+    return false;
+  }
+
+  @Override
+  public void onEvents(List<OutboxEvent> events) {
+    for (OutboxEvent event : events) {
+      if (event.getEventType() == DomainEventType.USER_DELETED) {
+        Set<Connection> deleted = connections.get(event.getAggregateId());
+        if (deleted != null) {
+          deleted.forEach(Connection::close);
+        }
+        continue;
+      }
+      String recipientPath = switch (event.getEventType()) {
+        case BOOKING_CREATED, RECURRING_BOOKING_CREATED -> "/item/ownerId";
+        case BOOKING_APPROVED, BOOKING_REJECTED, BOOKING_EXPIRED, RECURRING_BOOKING_APPROVED,
+             RECURRING_BOOKING_REJECTED -> "/booker/id";
+        default -> null;
+      };
+      if (recipientPath == null) {
+        continue;
+      }
+      Set<Connection> recipients = connections.get(recipient(event, recipientPath));
+      if (recipients == null) {
+        continue;
+      }
+      StreamEvent streamEvent = new StreamEvent(String.valueOf(event.getId()), event.getEventType().name(),
+          event.getPayload());
+      recipients.forEach(connection -> connection.offer(streamEvent));
+    }
+  }
+
+  /**
+   * Keeps idle connections open through proxies and detects clients that went away.
+   */
+  @Scheduled(fixedDelayString = "${shareit.booking-stream.heartbeat-ms:15000}")
+  public void heartbeat() {
+    StreamEvent heartbeat = StreamEvent.comment("heartbeat");
+    connections.values().forEach(set -> set.forEach(connection -> connection.offer(heartbeat)));
+  }
+
+  @PreDestroy
+  public void closeAll() {
+    connections.values().forEach(set -> set.forEach(Connection::close));
+  }
+
+  private long recipient(OutboxEvent event, String path) {
+    try {
+      JsonNode payload = objectMapper.readTree(event.getPayload());
+      return payload.at(path).asLong(-1);
+    } catch (JsonProcessingException e) {
+      log.warn("Unreadable payload of outbox event {}: {}", event.getId(), e.getMessage());
+      return -1;
+    }
+  }
+
+  private record StreamEvent(String id, String name, String data) {
+
+    static StreamEvent comment(String text) {
+      return new StreamEvent(null, null, text);
+    }
+
+    SseEmitter.SseEventBuilder toSse() {
+      if (name == null) {
+        return SseEmitter.event().comment(data);
+      }
+      return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+  }
+
+  private final class Connection implements Runnable {
+
+    private final long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<StreamEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Thread sender;
+
+    private Connection(long userId, SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    void offer(StreamEvent event) {
+      if (!buffer.offer(event)) {
+        log.debug("Booking stream of user {} overflowed, closing it", userId);
+        overflows.increment();
+        close();
+      }
+    }
+
+    @Override
+    public void run() {
+      sender = Thread.currentThread();
+      try {
+        while (!closed.get()) {
+          emitter.send(buffer.take().toSse());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Booking stream of user {} closed by client: {}", userId, e.getMessage());
+      } finally {
+        close();
+      }
+    }
+
+    void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      connections.computeIfPresent(userId, (id, set) -> {
+        set.remove(this);
+        return set.isEmpty() ? null : set;
+      });
+      open.decrementAndGet();
+      Thread thread = sender;
+      if (thread != null && thread != Thread.currentThread()) {
+        thread.interrupt();
+      }
+      emitter.complete();
+    }
+  }
+}
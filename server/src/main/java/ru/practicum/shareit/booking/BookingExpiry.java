@@ -0,0 +1,205 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.common.TimingWheel;
+import ru.practicum.shareit.common.VersionedCollection;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+
+/**
+ * Expires waiting bookings that nobody decided on before they started: each gets a timer on a
+ * {@link TimingWheel} when it is created, a decision cancels it, and on expiry the booking moves
+ * to {@link BookingStatus#EXPIRED}. Due bookings are expired in batches, each in one transaction
+ * with one batched conditional update, so a decision racing the timer either wins or sees the
+ * booking as already decided.
+ *
+ * <p>The wheel lives in memory; on startup it is rebuilt from the waiting bookings in the table,
+ * and those already started expire on the first tick. Every instance times the bookings it
+ * created or found at startup; the conditional update makes a booking expired by two instances
+ * count once.
+ */
+@Slf4j
+@Component
+public class BookingExpiry {
+
+  private static final int REBUILD_PAGE_SIZE = 10_000;
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final BookingRepository bookingRepository;
+  private final OutboxPublisher outboxPublisher;
+  private final BookingListCache bookingListCache;
+  private final CollectionVersions collectionVersions;
+  private final TransactionTemplate transactionTemplate;
+  private final TimingWheel<Long> wheel;
+  private final int batchSize;
+  private final boolean enabled;
+  private final Counter expired;
+
+  public BookingExpiry(NamedParameterJdbcTemplate jdbc,
+                       BookingRepository bookingRepository,
+                       OutboxPublisher outboxPublisher,
+                       BookingListCache bookingListCache,
+                       CollectionVersions collectionVersions,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.booking-expiry.tick-ms:1000}") long tickMillis,
+                       @Value("${shareit.booking-expiry.wheel-size:8192}") int wheelSize,
+                       @Value("${shareit.booking-expiry.batch-size:500}") int batchSize,
+                       @Value("${shareit.booking-expiry.enabled:true}") boolean enabled) {
+    this.jdbc = jdbc;
+    this.bookingRepository = bookingRepository;
+    this.outboxPublisher = outboxPublisher;
+    this.bookingListCache = bookingListCache;
+    this.collectionVersions = collectionVersions;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    this.batchSize = batchSize;
+    this.enabled = enabled;
+    this.expired = Counter.builder("shareit.booking.expired")
+        .description("Waiting bookings expired at their start")
+        .register(meterRegistry);
+    Gauge.builder("shareit.booking.expiry.pending", wheel, TimingWheel::size)
+        .description("Waiting bookings with an expiry timer")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts the expiry timer of a new waiting booking.
+   */
+  public void schedule(long bookingId, LocalDateTime start) {
+    if (enabled) {
+      wheel.schedule(bookingId, toMillis(start));
+    }
+  }
+
+  /**
+   * Stops the expiry timer of a booking that has been decided, once the decision commits.
+   */
+  public void decided(long bookingId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      wheel.cancel(bookingId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        wheel.cancel(bookingId);
+      }
+    });
+  }
+
+  /**
+   * Schedules every waiting booking in the table, reading it in pages of ids.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    long afterId = 0;
+    int scheduled = 0;
+    List<Long> page;
+    do {
+      page = new ArrayList<>();
+      List<Long> ids = page;
+      jdbc.query("SELECT id, start_date FROM bookings WHERE status = :status AND id > :afterId "
+              + "ORDER BY id LIMIT :limit",
+          Map.of("status", BookingStatus.WAITING.name(), "afterId", afterId, "limit", REBUILD_PAGE_SIZE),
+          rs -> {
+            long id = rs.getLong("id");
+            wheel.schedule(id, toMillis(rs.getTimestamp("start_date").toLocalDateTime()));
+            ids.add(id);
+          });
+      if (!page.isEmpty()) {
+        afterId = page.getLast();
+        scheduled += page.size();
+      }
+    } while (page.size() == REBUILD_PAGE_SIZE);
+    log.info("Scheduled expiry of {} waiting bookings", scheduled);
+  }
+
+  /**
+   * Advances the wheel and expires the bookings that fell due. Bookings of a batch that failed
+   * are tried again on the next tick.
+   */
+  @Scheduled(fixedDelayString = "${shareit.booking-expiry.tick-ms:1000}")
+  public void tick() {
+    if (!enabled) {
+      return;
+    }
+    List<Long> due = wheel.advance(System.currentTimeMillis());
+    for (int from = 0; from < due.size(); from += batchSize) {
+      List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+      try {
+        expired.increment(expire(batch));
+      } catch (RuntimeException e) {
+        log.warn("Could not expire {} bookings, retrying on the next tick", batch.size(), e);
+        long now = System.currentTimeMillis();
+        batch.forEach(id -> wheel.schedule(id, now));
+      }
+    }
+  }
+
+  /**
+   * Expires those of the given bookings that are still waiting and returns how many were.
+   */
+  int expire(List<Long> bookingIds) {
+    Integer count = transactionTemplate.execute(status -> {
+      Map<String, ?>[] rows = bookingIds.stream()
+          .map(id -> Map.of("id", id, "expected", BookingStatus.WAITING.name(),
+              "status", BookingStatus.EXPIRED.name()))
+          .toArray(Map[]::new);
+      int[] updated = jdbc.batchUpdate("UPDATE bookings SET status = :status, version = version + 1 "
+          + "WHERE id = :id AND status = :expected", rows);
+      List<Long> expiredIds = new ArrayList<>();
+      for (int i = 0; i < updated.length; i++) {
+        if (updated[i] > 0) {
+          expiredIds.add(bookingIds.get(i));
+        }
+      }
+      if (expiredIds.isEmpty()) {
+        return 0;
+      }
+      Set<Long> bookers = new HashSet<>();
+      Set<Long> owners = new HashSet<>();
+      for (Booking booking : bookingRepository.findAllByIdIn(expiredIds)) {
+        bookers.add(booking.getBooker().getId());
+        owners.add(booking.getItem().getOwner().getId());
+        outboxPublisher.publish(DomainEventType.BOOKING_EXPIRED, booking.getId(),
+            BookingMapper.toBookingDto(booking));
+      }
+      Set<Long> users = new HashSet<>(bookers);
+      users.addAll(owners);
+      bookingListCache.bookingsWritten(users);
+      collectionVersions.bump(Map.of(VersionedCollection.BOOKINGS, bookers,
+          VersionedCollection.OWNER_BOOKINGS, owners));
+      return expiredIds.size();
+    });
+    return count != null ? count : 0;
+  }
+
+  private static long toMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
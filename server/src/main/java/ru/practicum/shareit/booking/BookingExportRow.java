@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a booking export; read straight from the query, without entities.
+ */
+public record BookingExportRow(Long id,
+                               LocalDateTime start,
+                               LocalDateTime end,
+                               BookingStatus status,
+                               Long itemId,
+                               String itemName,
+                               Long bookerId) {
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+/**
+ * JDBC read path for booking lists: one statement selects a page across the live and archive
+ * tables together with item and booker columns, and rows map straight into {@link BookingDto}
+ * without entities, proxies or persistence-context snapshots. Pages are ordered like the JPA path
+ * (start date descending, then id descending) and share nested DTOs like
+ * {@link BookingMapper#toBookingDtos}.
+ */
+@Repository
+class BookingJdbcRepository {
+
+  private static final String COLUMNS = "b.id, b.start_date, b.end_date, b.item_id, b.booker_id, b.status";
+
+  private static final String PAGE = "SELECT b.id, b.start_date, b.end_date, b.status, "
+      + "i.id AS item_id, i.name AS item_name, i.description AS item_description, "
+      + "i.available AS item_available, i.request_id AS item_request_id, i.owner_id AS item_owner_id, "
+      + "u.id AS booker_id, u.name AS booker_name, u.email AS booker_email "
+      + "FROM (%s) b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id "
+      + "ORDER BY b.start_date DESC, b.id DESC LIMIT :limit OFFSET :offset";
+
+  private final NamedParameterJdbcTemplate namedJdbc;
+
+  BookingJdbcRepository(NamedParameterJdbcTemplate namedJdbc) {
+    this.namedJdbc = namedJdbc;
+  }
+
+  List<BookingDto> findByBooker(long bookerId, BookingState state, LocalDateTime now, int limit, long offset) {
+    return findPage("SELECT " + COLUMNS + " FROM %s b WHERE b.booker_id = :userId",
+        bookerId, state, now, limit, offset);
+  }
+
+  List<BookingDto> findByItemOwner(long ownerId, BookingState state, LocalDateTime now, int limit, long offset) {
+    return findPage("SELECT " + COLUMNS + " FROM %s b JOIN items o ON o.id = b.item_id WHERE o.owner_id = :userId",
+        ownerId, state, now, limit, offset);
+  }
+
+  /**
+   * Builds the live branch and, for states that reach into the past, the archive branch of the
+   * page from one per-user select, so each branch keeps its own index-friendly filter.
+   */
+  private List<BookingDto> findPage(String select, long userId, BookingState state, LocalDateTime now,
+                                    int limit, long offset) {
+    String live = String.format(select, "bookings");
+    String archive = String.format(select, "bookings_archive");
+    String source = switch (state) {
+      case CURRENT -> live + " AND b.start_date <= :now AND b.end_date > :now";
+      case FUTURE -> live + " AND b.start_date > :now";
+      case PAST -> live + " AND b.end_date < :now UNION ALL " + archive;
+      case WAITING, REJECTED -> live + " AND b.status = :status UNION ALL " + archive + " AND b.status = :status";
+      default -> live + " UNION ALL " + archive;
+    };
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("now", now)
+        .addValue("status", state.name())
+        .addValue("limit", limit)
+        .addValue("offset", offset);
+
+    Map<Long, ItemDto> items = new HashMap<>();
+    Map<Long, UserDto> bookers = new HashMap<>();
+    List<BookingDto> bookings = new ArrayList<>();
+    namedJdbc.query(String.format(PAGE, source), params, rs -> {
+      long itemId = rs.getLong("item_id");
+      ItemDto item = items.get(itemId);
+      if (item == null) {
+        item = new ItemDto(itemId, rs.getString("item_name"), rs.getString("item_description"),
+            rs.getBoolean("item_available"), rs.getObject("item_request_id", Long.class));
+        item.setOwnerId(rs.getLong("item_owner_id"));
+        items.put(itemId, item);
+      }
+      long bookerId = rs.getLong("booker_id");
+      UserDto booker = bookers.get(bookerId);
+      if (booker == null) {
+        booker = new UserDto(bookerId, rs.getString("booker_name"), rs.getString("booker_email"));
+        bookers.put(bookerId, booker);
+      }
+      bookings.add(new BookingDto(
+          rs.getLong("id"),
+          rs.getObject("start_date", LocalDateTime.class),
+          rs.getObject("end_date", LocalDateTime.class),
+          item,
+          booker,
+          BookingStatus.valueOf(rs.getString("status"))
+      ));
+    });
+    return bookings;
+  }
+}
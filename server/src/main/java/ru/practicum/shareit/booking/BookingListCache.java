@@ -0,0 +1,298 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.config.ReplicaLagMonitor;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxSubscriber;
+
+/**
+ * Per-user cache of booking list pages, so a user polling the same list is served from memory.
+ *
+ * <p>A page filtered by time (CURRENT, PAST, FUTURE) is only valid until {@code now} reaches the
+ * nearest start or end of one of the user's bookings, and expires then; other pages expire after
+ * {@code shareit.booking-list-cache.ttl}. A booking write drops the pages of its booker and item
+ * owner when it happens and again after the transaction completes; edits of items and users drop
+ * the pages of the users whose bookings show them. Loads that overlap a write are returned but
+ * not cached. The boundaries themselves are cached per user as well, for the pages and for the
+ * tags of conditional requests.
+ *
+ * <p>Only what was read from the primary is cached: a read-only transaction may be served by a
+ * replica that lags behind writes already reflected in the stamps. Writes made by other instances
+ * arrive through the outbox and drop the same pages as local ones.
+ */
+@Slf4j
+@Component
+public class BookingListCache implements OutboxSubscriber {
+
+  private final BookingRepository bookingRepository;
+  private final ObjectMapper objectMapper;
+  private final ReplicaLagMonitor replicaLagMonitor;
+  private final Cache<Key, Entry> cache;
+  private final Cache<BoundaryKey, Boundary> boundaries;
+  // Clock value of the last write per user, kept longer than any entry that could predate it.
+  private final Cache<Long, Long> writes;
+  private final AtomicLong clock = new AtomicLong();
+  private volatile long flushedAt;
+
+  public BookingListCache(BookingRepository bookingRepository,
+                          ObjectMapper objectMapper,
+                          ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                          MeterRegistry meterRegistry,
+                          @Value("${shareit.booking-list-cache.max-size:10000}") long maxSize,
+                          @Value("${shareit.booking-list-cache.ttl:30s}") Duration ttl) {
+    this.bookingRepository = bookingRepository;
+    this.objectMapper = objectMapper;
+    this.replicaLagMonitor = replicaLagMonitor.getIfAvailable();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new UntilBoundary(ttl))
+        .recordStats()
+        .build();
+    this.boundaries = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .build();
+    this.writes = Caffeine.newBuilder()
+        .expireAfterWrite(ttl.multipliedBy(2))
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "booking.list");
+  }
+
+  /**
+   * Returns the cached page, or {@code null} when it is missing or no longer valid at {@code now}.
+   */
+  List<BookingDto> get(Key key, LocalDateTime now) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null || !isCurrent(key.userId(), entry.stamp())
+        || (entry.validUntil() != null && !now.isBefore(entry.validUntil()))) {
+      return null;
+    }
+    return entry.bookings();
+  }
+
+  /**
+   * Returns the next instant after {@code now} at which a booking of the user (as booker or as
+   * item owner) starts or ends, or {@code null} if none lies ahead.
+   */
+  LocalDateTime nextBoundary(Role role, long userId, LocalDateTime now) {
+    BoundaryKey key = new BoundaryKey(role, userId);
+    Boundary cached = boundaries.getIfPresent(key);
+    if (cached != null && isCurrent(userId, cached.stamp()) && (cached.at() == null || now.isBefore(cached.at()))) {
+      return cached.at();
+    }
+    long stamp = stamp();
+    LocalDateTime at = role == Role.BOOKER
+        ? bookingRepository.findNextBoundaryByBookerId(userId, now)
+        : bookingRepository.findNextBoundaryByItemOwnerId(userId, now);
+    if (!mayReadReplica()) {
+      Boundary loaded = new Boundary(at, stamp);
+      boundaries.asMap().compute(key, (k, current) -> isCurrent(userId, stamp) ? loaded : current);
+    }
+    return at;
+  }
+
+  /**
+   * Next instant the last and next bookings shown with the owner's items may change.
+   */
+  public LocalDateTime nextOwnerBoundary(long ownerId, LocalDateTime now) {
+    return nextBoundary(Role.OWNER, ownerId, now);
+  }
+
+  /**
+   * Marks the start of a load; pass the result to {@link #put}.
+   */
+  long stamp() {
+    return clock.get();
+  }
+
+  /**
+   * Caches a loaded page unless one of its user's bookings was written since {@code stamp} or the
+   * page may have been read from the replica.
+   *
+   * @param validUntil the instant the page may change by itself, or {@code null} if only writes change it
+   */
+  void put(Key key, long stamp, List<BookingDto> bookings, LocalDateTime validUntil) {
+    if (mayReadReplica()) {
+      return;
+    }
+    Entry loaded = new Entry(List.copyOf(bookings), validUntil, stamp);
+    cache.asMap().compute(key, (k, current) -> isCurrent(key.userId(), stamp) ? loaded : current);
+  }
+
+  /**
+   * Records that bookings of these users (as bookers or item owners) have been written.
+   */
+  public void bookingsWritten(Collection<Long> userIds) {
+    bump(userIds);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        bump(userIds);
+      }
+    });
+  }
+
+  /**
+   * Drops every cached page, for writes to items and users that bookings show.
+   */
+  public void invalidateAll() {
+    flush();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        flush();
+      }
+    });
+  }
+
+  @Override
+  public String name() {
+    return "booking-list-cache";
+  }
+
+  @Override
+  public boolean durable() {
+    return false;
+  }
+
+  /**
+   * Drops the pages that writes described by the events make stale, whichever instance made them.
+   * Events of this instance drop pages it has already dropped, which costs a reload at most.
+   */
+  @Override
+  public void onEvents(List<OutboxEvent> events) {
+    Set<Long> userIds = new HashSet<>();
+    for (OutboxEvent event : events) {
+      switch (event.getEventType()) {
+        case BOOKING_CREATED, BOOKING_APPROVED, BOOKING_REJECTED, BOOKING_EXPIRED -> {
+          JsonNode payload = payload(event);
+          if (payload != null) {
+            userIds.add(payload.at("/booker/id").asLong(-1));
+            userIds.add(payload.at("/item/ownerId").asLong(-1));
+          }
+        }
+        case ITEM_UPDATED -> {
+          JsonNode payload = payload(event);
+          if (payload != null) {
+            userIds.add(payload.at("/ownerId").asLong(-1));
+          }
+          userIds.addAll(bookingRepository.findBookerIdsByItemId(event.getAggregateId()));
+        }
+        case USER_UPDATED -> {
+          userIds.add(event.getAggregateId());
+          userIds.addAll(bookingRepository.findItemOwnerIdsByBookerId(event.getAggregateId()));
+        }
+        case USER_DELETED, BULK_IMPORTED -> {
+          JsonNode payload = payload(event);
+          if (payload != null) {
+            payload.path("userIds").forEach(id -> userIds.add(id.asLong()));
+          }
+        }
+        default -> {
+        }
+      }
+    }
+    userIds.remove(-1L);
+    bump(userIds);
+  }
+
+  private JsonNode payload(OutboxEvent event) {
+    try {
+      return objectMapper.readTree(event.getPayload());
+    } catch (JsonProcessingException e) {
+      log.warn("Unreadable payload of outbox event {}: {}", event.getId(), e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Whether the current transaction may be served by the replica.
+   */
+  private boolean mayReadReplica() {
+    return replicaLagMonitor != null && replicaLagMonitor.isReplicaUsable()
+        && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private boolean isCurrent(long userId, long stamp) {
+    Long written = writes.getIfPresent(userId);
+    return stamp >= flushedAt && (written == null || stamp >= written);
+  }
+
+  private void bump(Collection<Long> userIds) {
+    for (Long userId : userIds) {
+      writes.put(userId, clock.incrementAndGet());
+    }
+  }
+
+  private void flush() {
+    flushedAt = clock.incrementAndGet();
+    cache.invalidateAll();
+    boundaries.invalidateAll();
+  }
+
+  enum Role {
+    BOOKER,
+    OWNER
+  }
+
+  record Key(Role role, long userId, BookingState state, int from, int size) {
+  }
+
+  private record BoundaryKey(Role role, long userId) {
+  }
+
+  private record Boundary(LocalDateTime at, long stamp) {
+  }
+
+  private record Entry(List<BookingDto> bookings, LocalDateTime validUntil, long stamp) {
+  }
+
+  private record UntilBoundary(Duration ttl) implements Expiry<Key, Entry> {
+
+    @Override
+    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+      long ttlNanos = ttl.toNanos();
+      if (entry.validUntil() == null) {
+        return ttlNanos;
+      }
+      long untilBoundary = Duration.between(LocalDateTime.now(), entry.validUntil()).toNanos();
+      return Math.max(0, Math.min(ttlNanos, untilBoundary));
+    }
+
+    @Override
+    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, entry, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
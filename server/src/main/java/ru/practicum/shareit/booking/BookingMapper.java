@@ -1,9 +1,17 @@
 package ru.practicum.shareit.booking;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 
 /**
@@ -29,6 +37,29 @@ public class BookingMapper {
     );
   }
 
+  /**
+   * Maps a page of bookings. Bookings of the same item or by the same booker share one
+   * {@link ItemDto} / {@link UserDto} instance, so an owner's page that keeps naming the same few
+   * items costs one nested DTO per distinct item rather than per row. The DTOs are only read
+   * (serialized) afterwards, so sharing them is safe.
+   */
+  public static List<BookingDto> toBookingDtos(List<Booking> bookings) {
+    Map<Long, ItemDto> items = new HashMap<>();
+    Map<Long, UserDto> bookers = new HashMap<>();
+    List<BookingDto> dtos = new ArrayList<>(bookings.size());
+    for (Booking booking : bookings) {
+      dtos.add(new BookingDto(
+          booking.getId(),
+          booking.getStart(),
+          booking.getEnd(),
+          items.computeIfAbsent(booking.getItem().getId(), id -> ItemMapper.toItemDto(booking.getItem())),
+          bookers.computeIfAbsent(booking.getBooker().getId(), id -> UserMapper.toUserDto(booking.getBooker())),
+          booking.getStatus()
+      ));
+    }
+    return dtos;
+  }
+
   /**
    * Maps domain Booking to short DTO for item details.
    */
@@ -60,4 +91,60 @@ public class BookingMapper {
     booking.setStatus(BookingStatus.WAITING);
     return booking;
   }
+
+  /**
+   * Builds a waiting recurring booking from create DTO plus resolved associations.
+   */
+  public static RecurringBooking toRecurringBooking(RecurringBookingCreateDto dto, Item item, User booker) {
+    RecurringBooking rule = new RecurringBooking();
+    rule.setStart(dto.getStart());
+    rule.setEnd(dto.getEnd());
+    rule.setFrequency(dto.getFrequency());
+    rule.setEvery(dto.getEvery());
+    rule.setUntil(dto.getUntil());
+    rule.setLastEnd(Recurrence.of(rule).lastEnd());
+    rule.setItem(item);
+    rule.setBooker(booker);
+    rule.setStatus(BookingStatus.WAITING);
+    return rule;
+  }
+
+  /**
+   * Maps a recurring booking rule to full DTO.
+   */
+  public static RecurringBookingDto toRecurringBookingDto(RecurringBooking rule) {
+    return new RecurringBookingDto(
+        rule.getId(),
+        rule.getStart(),
+        rule.getEnd(),
+        rule.getFrequency(),
+        rule.getEvery(),
+        rule.getUntil(),
+        Recurrence.of(rule).count(),
+        ItemMapper.toItemDto(rule.getItem()),
+        UserMapper.toUserDto(rule.getBooker()),
+        rule.getStatus()
+    );
+  }
+
+  /**
+   * Expands the occurrences of the rules that overlap {@code [from, to)}, ordered by start. Like
+   * {@link #toBookingDtos}, occurrences of one rule share its item and booker DTOs.
+   */
+  public static List<BookingOccurrenceDto> toOccurrenceDtos(List<RecurringBooking> rules, LocalDateTime from,
+                                                            LocalDateTime to) {
+    List<BookingOccurrenceDto> occurrences = new ArrayList<>();
+    for (RecurringBooking rule : rules) {
+      Recurrence recurrence = Recurrence.of(rule);
+      ItemDto item = ItemMapper.toItemDto(rule.getItem());
+      UserDto booker = UserMapper.toUserDto(rule.getBooker());
+      for (LocalDateTime start : recurrence.startsBetween(from, to)) {
+        occurrences.add(new BookingOccurrenceDto(rule.getId(), start, start.plus(recurrence.length()), item,
+            booker, rule.getStatus()));
+      }
+    }
+    occurrences.sort(Comparator.comparing(BookingOccurrenceDto::getStart)
+        .thenComparing(BookingOccurrenceDto::getRecurringBookingId));
+    return occurrences;
+  }
 }
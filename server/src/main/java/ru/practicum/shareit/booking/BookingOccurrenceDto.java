@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+/**
+ * One occurrence of a recurring booking, expanded for a queried window.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingOccurrenceDto {
+  private Long recurringBookingId;
+  private LocalDateTime start;
+  private LocalDateTime end;
+  private ItemDto item;
+  private UserDto booker;
+  private BookingStatus status;
+}
@@ -1,28 +1,90 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.common.QueryTimeouts;
 
 /**
  * JPA repository for Booking entities.
  */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+  /**
+   * Finds a booking together with its item and booker, which every booking DTO includes.
+   */
+  @Override
+  @EntityGraph(attributePaths = {"item", "booker"})
+  Optional<Booking> findById(Long id);
+
+  /**
+   * Sets the status of a booking only if it still has the expected one, bumping its version. Of
+   * concurrent decisions on a waiting booking exactly one changes a row; the others see 0. Clears
+   * the persistence context, so a booking loaded before is detached rather than written back.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+         "WHERE b.id = :id AND b.status = :expected")
+  int updateStatusIf(@Param("id") long id,
+                     @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+  /**
+   * Finds bookings together with their item and booker.
+   */
+  @EntityGraph(attributePaths = {"item", "booker"})
+  List<Booking> findAllByIdIn(Collection<Long> ids);
+
+  /**
+   * Locks and returns the ids of bookings that ended before the cutoff, oldest id first, for
+   * archival. Rows another transaction has locked are skipped, so concurrent archivers take
+   * disjoint batches.
+   */
+  @Query(value = "SELECT id FROM bookings WHERE end_date < :cutoff ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+         nativeQuery = true)
+  List<Long> lockIdsEndedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+  /**
+   * Streams every live booking of the owner's items for export, in id order.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT new ru.practicum.shareit.booking.BookingExportRow(b.id, b.start, b.end, b.status, i.id, i.name, " +
+         "b.booker.id) FROM Booking b JOIN b.item i WHERE i.owner.id = :ownerId ORDER BY b.id")
+  Stream<BookingExportRow> streamExportByItemOwnerId(@Param("ownerId") Long ownerId);
+
   // ========== Bookings by Booker ==========
+  // States that reach into the past read live and archived bookings; a page of ids is selected
+  // across both tables (start date descending) and the bookings are loaded afterwards.
 
   /**
-   * Finds all bookings by booker, ordered by start date descending.
+   * Finds ids of all bookings by booker.
    */
-       Page<Booking> findByBookerId(Long bookerId, Pageable pageable);
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT id, start_date FROM bookings WHERE booker_id = :bookerId " +
+                 "UNION ALL SELECT id, start_date FROM bookings_archive WHERE booker_id = :bookerId" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findIdsByBookerId(@Param("bookerId") Long bookerId,
+                               @Param("limit") int limit,
+                               @Param("offset") long offset);
 
   /**
    * Finds current bookings for a booker (start <= now < end).
    */
+  @EntityGraph(attributePaths = {"item", "booker"})
   @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId " +
          "AND b.start <= :now AND b.end > :now")
   Page<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId,
@@ -30,17 +92,22 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                       Pageable pageable);
 
   /**
-   * Finds past bookings for a booker (end < now).
+   * Finds ids of past bookings for a booker (end < now).
    */
-  @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId " +
-         "AND b.end < :now")
-  Page<Booking> findPastByBookerId(@Param("bookerId") Long bookerId,
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT id, start_date FROM bookings WHERE booker_id = :bookerId AND end_date < :now " +
+                 "UNION ALL SELECT id, start_date FROM bookings_archive WHERE booker_id = :bookerId" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findPastIdsByBookerId(@Param("bookerId") Long bookerId,
                                    @Param("now") LocalDateTime now,
-                                   Pageable pageable);
+                                   @Param("limit") int limit,
+                                   @Param("offset") long offset);
 
   /**
    * Finds future bookings for a booker (start > now).
    */
+  @EntityGraph(attributePaths = {"item", "booker"})
   @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId " +
          "AND b.start > :now")
   Page<Booking> findFutureByBookerId(@Param("bookerId") Long bookerId,
@@ -48,21 +115,49 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                      Pageable pageable);
 
   /**
-   * Finds bookings by booker with specific status.
+   * Finds ids of bookings by booker with specific status.
+   */
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT id, start_date FROM bookings WHERE booker_id = :bookerId AND status = :status " +
+                 "UNION ALL SELECT id, start_date FROM bookings_archive " +
+                 "WHERE booker_id = :bookerId AND status = :status" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findIdsByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                        @Param("status") String status,
+                                        @Param("limit") int limit,
+                                        @Param("offset") long offset);
+
+  /**
+   * Finds the next instant after {@code now} at which a booking of the booker starts or ends,
+   * i.e. when its CURRENT, PAST and FUTURE lists may change; {@code null} if there is none.
    */
-       Page<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+  @Query("SELECT MIN(CASE WHEN b.start > :now THEN b.start ELSE b.end END) FROM Booking b " +
+         "WHERE b.booker.id = :bookerId AND b.end >= :now")
+  LocalDateTime findNextBoundaryByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
 
   // ========== Bookings by Owner ==========
 
   /**
-   * Finds all bookings for items owned by a user.
+   * Finds ids of all bookings for items owned by a user.
    */
-       @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId")
-       Page<Booking> findByItemOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.BOOKING_LIST))
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT b.id, b.start_date FROM bookings b JOIN items i ON i.id = b.item_id " +
+                 "WHERE i.owner_id = :ownerId " +
+                 "UNION ALL SELECT a.id, a.start_date FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE i.owner_id = :ownerId" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findIdsByItemOwnerId(@Param("ownerId") Long ownerId,
+                                  @Param("limit") int limit,
+                                  @Param("offset") long offset);
 
   /**
    * Finds current bookings for items owned by a user.
    */
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.BOOKING_LIST))
+  @EntityGraph(attributePaths = {"item", "booker"})
   @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
          "AND b.start <= :now AND b.end > :now")
   Page<Booking> findCurrentByItemOwnerId(@Param("ownerId") Long ownerId,
@@ -70,17 +165,26 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                          Pageable pageable);
 
   /**
-   * Finds past bookings for items owned by a user.
+   * Finds ids of past bookings for items owned by a user.
    */
-  @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
-         "AND b.end < :now")
-  Page<Booking> findPastByItemOwnerId(@Param("ownerId") Long ownerId,
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.BOOKING_LIST))
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT b.id, b.start_date FROM bookings b JOIN items i ON i.id = b.item_id " +
+                 "WHERE i.owner_id = :ownerId AND b.end_date < :now " +
+                 "UNION ALL SELECT a.id, a.start_date FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE i.owner_id = :ownerId" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findPastIdsByItemOwnerId(@Param("ownerId") Long ownerId,
                                       @Param("now") LocalDateTime now,
-                                      Pageable pageable);
+                                      @Param("limit") int limit,
+                                      @Param("offset") long offset);
 
   /**
    * Finds future bookings for items owned by a user.
    */
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.BOOKING_LIST))
+  @EntityGraph(attributePaths = {"item", "booker"})
   @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
          "AND b.start > :now")
   Page<Booking> findFutureByItemOwnerId(@Param("ownerId") Long ownerId,
@@ -88,16 +192,61 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                         Pageable pageable);
 
   /**
-   * Finds bookings for items owned by a user with specific status.
+   * Finds ids of bookings for items owned by a user with specific status.
    */
-  @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
-         "AND b.status = :status")
-  Page<Booking> findByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
-                                           @Param("status") BookingStatus status,
-                                           Pageable pageable);
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.BOOKING_LIST))
+  @Query(value = "SELECT id FROM (" +
+                 "SELECT b.id, b.start_date FROM bookings b JOIN items i ON i.id = b.item_id " +
+                 "WHERE i.owner_id = :ownerId AND b.status = :status " +
+                 "UNION ALL SELECT a.id, a.start_date FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE i.owner_id = :ownerId AND a.status = :status" +
+                 ") b ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset",
+         nativeQuery = true)
+  List<Long> findIdsByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                           @Param("status") String status,
+                                           @Param("limit") int limit,
+                                           @Param("offset") long offset);
+
+  /**
+   * Finds the next instant after {@code now} at which a booking of the owner's items starts or
+   * ends; {@code null} if there is none.
+   */
+  @Query("SELECT MIN(CASE WHEN b.start > :now THEN b.start ELSE b.end END) FROM Booking b " +
+         "WHERE b.item.owner.id = :ownerId AND b.end >= :now")
+  LocalDateTime findNextBoundaryByItemOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
 
   // ========== Bookings for Item ==========
 
+  /**
+   * Finds the users who booked the item, archived bookings included.
+   */
+  @Query(value = "SELECT booker_id FROM bookings WHERE item_id = :itemId " +
+                 "UNION SELECT booker_id FROM bookings_archive WHERE item_id = :itemId",
+         nativeQuery = true)
+  List<Long> findBookerIdsByItemId(@Param("itemId") Long itemId);
+
+  /**
+   * Finds the owners of the items the user booked, archived bookings included.
+   */
+  @Query(value = "SELECT i.owner_id FROM bookings b JOIN items i ON i.id = b.item_id WHERE b.booker_id = :bookerId " +
+                 "UNION SELECT i.owner_id FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE a.booker_id = :bookerId",
+         nativeQuery = true)
+  List<Long> findItemOwnerIdsByBookerId(@Param("bookerId") Long bookerId);
+
+  /**
+   * Finds the users who share bookings with the user: owners of the items the user booked and
+   * bookers of the user's items, archived bookings included.
+   */
+  @Query(value = "SELECT i.owner_id FROM bookings b JOIN items i ON i.id = b.item_id WHERE b.booker_id = :userId " +
+                 "UNION SELECT i.owner_id FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE a.booker_id = :userId " +
+                 "UNION SELECT b.booker_id FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.owner_id = :userId " +
+                 "UNION SELECT a.booker_id FROM bookings_archive a JOIN items i ON i.id = a.item_id " +
+                 "WHERE i.owner_id = :userId",
+         nativeQuery = true)
+  List<Long> findCounterpartIdsByUserId(@Param("userId") Long userId);
+
   /**
    * Finds the last booking for an item (end < now, sorted by end desc).
    */
@@ -129,10 +278,19 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                   @Param("now") LocalDateTime now);
 
   /**
-   * Checks for overlapping bookings.
+   * Finds the approved or waiting bookings of an item overlapping {@code [from, to)}.
+   */
+  @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId AND b.status IN ('WAITING', 'APPROVED') " +
+         "AND b.start < :to AND b.end > :from")
+  List<Booking> findActiveByItemIdBetween(@Param("itemId") long itemId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+  /**
+   * Checks for overlapping bookings that are approved or still waiting for a decision.
    */
   @Query("SELECT CASE WHEN COUNT(b) > 0 THEN TRUE ELSE FALSE END FROM Booking b " +
-         "WHERE b.item.id = :itemId AND b.status != 'REJECTED' " +
+         "WHERE b.item.id = :itemId AND b.status IN ('WAITING', 'APPROVED') " +
          "AND ((b.start < :end AND b.end > :start))")
   boolean existsOverlappingBooking(@Param("itemId") Long itemId,
                                     @Param("start") LocalDateTime start,
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.booking;
 
 import java.util.List;
+import ru.practicum.shareit.common.CollectionTag;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
 
 /**
  * Service contract for booking operations.
@@ -31,4 +34,19 @@ public interface BookingService {
    * Gets all bookings for items owned by user filtered by state.
    */
   List<BookingDto> getAllByOwner(long userId, BookingState state, int from, int size);
+
+  /**
+   * Gets the tag of the user's bookings in the given state, or {@code null} if the user has none.
+   */
+  CollectionTag getTagByBooker(long userId, BookingState state);
+
+  /**
+   * Gets the tag of the bookings of the user's items in the given state, or {@code null} if the user has none.
+   */
+  CollectionTag getTagByOwner(long userId, BookingState state);
+
+  /**
+   * Writes the full booking history of the user's items, archived bookings first, to the target.
+   */
+  void exportByOwner(long userId, ExportFormat format, ExportTarget target);
 }
@@ -1,46 +1,124 @@
 package ru.practicum.shareit.booking;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.common.CollectionTag;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.common.FanOut;
+import ru.practicum.shareit.common.ReadPath;
+import ru.practicum.shareit.common.VersionedCollection;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
+import ru.practicum.shareit.export.ExportWriter;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSummaries;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 /**
  * Service implementation for booking operations.
  */
+@Observed(name = "shareit.service")
 @Service
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
   private final BookingRepository bookingRepository;
+  private final ArchivedBookingRepository archivedBookingRepository;
   private final UserRepository userRepository;
   private final ItemRepository itemRepository;
+  private final ItemSummaries itemSummaries;
+  private final OutboxPublisher outboxPublisher;
+  private final ExportWriter exportWriter;
+  private final BookingJdbcRepository bookingJdbcRepository;
+  private final ReadPath readPath;
+  private final FanOut fanOut;
+  private final TransactionTemplate writeTransaction;
+  private final BookingListCache bookingListCache;
+  private final CollectionVersions collectionVersions;
+  private final BookingExpiry bookingExpiry;
+  private final RecurringBookingRepository recurringBookingRepository;
 
   public BookingServiceImpl(BookingRepository bookingRepository,
+                            ArchivedBookingRepository archivedBookingRepository,
                             UserRepository userRepository,
-                            ItemRepository itemRepository) {
+                            ItemRepository itemRepository,
+                            ItemSummaries itemSummaries,
+                            OutboxPublisher outboxPublisher,
+                            ExportWriter exportWriter,
+                            BookingJdbcRepository bookingJdbcRepository,
+                            @Value("${shareit.read-path:jpa}") ReadPath readPath,
+                            FanOut fanOut,
+                            PlatformTransactionManager transactionManager,
+                            BookingListCache bookingListCache,
+                            CollectionVersions collectionVersions,
+                            BookingExpiry bookingExpiry,
+                            RecurringBookingRepository recurringBookingRepository) {
     this.bookingRepository = bookingRepository;
+    this.archivedBookingRepository = archivedBookingRepository;
     this.userRepository = userRepository;
     this.itemRepository = itemRepository;
+    this.itemSummaries = itemSummaries;
+    this.outboxPublisher = outboxPublisher;
+    this.exportWriter = exportWriter;
+    this.bookingJdbcRepository = bookingJdbcRepository;
+    this.readPath = readPath;
+    this.fanOut = fanOut;
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.bookingListCache = bookingListCache;
+    this.collectionVersions = collectionVersions;
+    this.bookingExpiry = bookingExpiry;
+    this.recurringBookingRepository = recurringBookingRepository;
   }
 
+  /**
+   * Looks up the booker, the item and the item's recurring bookings around the new one
+   * concurrently, then writes the booking in its own transaction.
+   */
   @Override
-  @Transactional
+  @Transactional(propagation = Propagation.SUPPORTS)
   public BookingDto create(long userId, BookingCreateDto dto) {
     validateBookingCreate(dto);
 
-    User booker = userRepository.findById(userId)
+    FanOut.Task<Optional<User>> foundBooker;
+    FanOut.Task<Optional<Item>> foundItem;
+    FanOut.Task<List<RecurringBooking>> foundRules;
+    try (FanOut.Scope scope = fanOut.openOnPrimary()) {
+      foundBooker = scope.fork(() -> userRepository.findById(userId));
+      foundItem = scope.fork(() -> itemRepository.findById(dto.getItemId()));
+      foundRules = scope.fork(() -> recurringBookingRepository.findActiveByItemIdBetween(dto.getItemId(),
+          dto.getStart(), dto.getEnd(), LocalDateTime.now()));
+      scope.join();
+    }
+
+    User booker = foundBooker.get()
         .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found."));
 
-    Item item = itemRepository.findById(dto.getItemId())
+    Item item = foundItem.get()
         .orElseThrow(() -> new NotFoundException("Item with id=" + dto.getItemId() + " not found."));
 
     if (!item.isAvailable()) {
@@ -51,16 +129,34 @@ public class BookingServiceImpl implements BookingService {
       throw new NotFoundException("Owner cannot book their own item.");
     }
 
-    Booking booking = BookingMapper.toBooking(dto, item, booker);
-    Booking saved = bookingRepository.save(booking);
-    return BookingMapper.toBookingDto(saved);
+    if (foundRules.get().stream().anyMatch(rule -> Recurrence.of(rule).overlaps(dto.getStart(), dto.getEnd()))) {
+      throw new ConflictException("Item with id=" + dto.getItemId() + " is already booked for this time.");
+    }
+
+    BookingDto result = writeTransaction.execute(status -> {
+      Booking saved = bookingRepository.save(BookingMapper.toBooking(dto, item, booker));
+      BookingDto created = BookingMapper.toBookingDto(saved);
+      outboxPublisher.publish(DomainEventType.BOOKING_CREATED, saved.getId(), created);
+      bookingListCache.bookingsWritten(List.of(userId, item.getOwner().getId()));
+      collectionVersions.bump(Map.of(VersionedCollection.BOOKINGS, List.of(userId),
+          VersionedCollection.OWNER_BOOKINGS, List.of(item.getOwner().getId())));
+      return created;
+    });
+    // A timer of a booking that is rolled back by an enclosing transaction finds nothing to expire.
+    bookingExpiry.schedule(result.getId(), result.getStart());
+    return result;
   }
 
   @Override
   @Transactional
   public BookingDto approve(long userId, long bookingId, boolean approved) {
-    Booking booking = bookingRepository.findById(bookingId)
-        .orElseThrow(() -> new NotFoundException("Booking with id=" + bookingId + " not found."));
+    Booking booking = bookingRepository.findById(bookingId).orElse(null);
+    if (booking == null) {
+      if (archivedBookingRepository.existsById(bookingId)) {
+        throw new ValidationException("Booking with id=" + bookingId + " is archived and cannot be changed.");
+      }
+      throw new NotFoundException("Booking with id=" + bookingId + " not found.");
+    }
 
     if (!booking.getItem().getOwner().getId().equals(userId)) {
       throw new NotFoundException("User with id=" + userId + " is not the owner of the item.");
@@ -70,14 +166,34 @@ public class BookingServiceImpl implements BookingService {
       throw new ValidationException("Booking status is already set.");
     }
 
-    booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-    Booking updated = bookingRepository.save(booking);
-    return BookingMapper.toBookingDto(updated);
+    // Decided by a conditional update rather than by the check above, so that of concurrent
+    // decisions only one goes through.
+    BookingStatus decided = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+    if (bookingRepository.updateStatusIf(bookingId, BookingStatus.WAITING, decided) == 0) {
+      throw new ValidationException("Booking status is already set.");
+    }
+    bookingExpiry.decided(bookingId);
+    // The update detached the booking; it now only carries the result.
+    booking.setStatus(decided);
+    booking.setVersion(booking.getVersion() + 1);
+    bookingListCache.bookingsWritten(List.of(booking.getBooker().getId(), userId));
+    // Only approved bookings show up as last or next booking of the owner's items.
+    collectionVersions.bump(Map.of(VersionedCollection.BOOKINGS, List.of(booking.getBooker().getId()),
+        VersionedCollection.OWNER_BOOKINGS, List.of(userId),
+        VersionedCollection.ITEMS, approved ? List.of(userId) : List.of()));
+    if (approved) {
+      itemSummaries.bookingApproved(booking);
+    }
+    BookingDto result = BookingMapper.toBookingDto(booking);
+    outboxPublisher.publish(approved ? DomainEventType.BOOKING_APPROVED : DomainEventType.BOOKING_REJECTED,
+        booking.getId(), result);
+    return result;
   }
 
   @Override
   public BookingDto getById(long userId, long bookingId) {
     Booking booking = bookingRepository.findById(bookingId)
+        .or(() -> archivedBookingRepository.findById(bookingId).map(ArchivedBooking::toBooking))
         .orElseThrow(() -> new NotFoundException("Booking with id=" + bookingId + " not found."));
 
     boolean isBooker = booking.getBooker().getId().equals(userId);
@@ -90,52 +206,145 @@ public class BookingServiceImpl implements BookingService {
     return BookingMapper.toBookingDto(booking);
   }
 
+  /**
+   * Serves repeated polling from {@link BookingListCache}; a page filtered by time is cached until
+   * the next start or end of one of the user's bookings. Pages read from the replica are served
+   * but not cached.
+   */
   @Override
   public List<BookingDto> getAllByBooker(long userId, BookingState state, int from, int size) {
+    LocalDateTime now = LocalDateTime.now();
+    BookingListCache.Key key = new BookingListCache.Key(BookingListCache.Role.BOOKER, userId, state, from, size);
+    List<BookingDto> cached = bookingListCache.get(key, now);
+    if (cached != null) {
+      return cached;
+    }
+    long stamp = bookingListCache.stamp();
+
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("User with id=" + userId + " not found.");
     }
 
     validatePagination(from, size);
-    PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("start").descending());
+    List<BookingDto> bookings = loadByBooker(userId, state, now, from, size);
+    LocalDateTime validUntil = state.isTimeBound()
+        ? bookingListCache.nextBoundary(BookingListCache.Role.BOOKER, userId, now) : null;
+    bookingListCache.put(key, stamp, bookings, validUntil);
+    return bookings;
+  }
 
+  @Override
+  public List<BookingDto> getAllByOwner(long userId, BookingState state, int from, int size) {
     LocalDateTime now = LocalDateTime.now();
-    List<Booking> bookings = switch (state) {
-      case CURRENT -> bookingRepository.findCurrentByBookerId(userId, now, pageRequest).getContent();
-      case PAST -> bookingRepository.findPastByBookerId(userId, now, pageRequest).getContent();
-      case FUTURE -> bookingRepository.findFutureByBookerId(userId, now, pageRequest).getContent();
-      case WAITING -> bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.WAITING, pageRequest)
-          .getContent();
-      case REJECTED -> bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.REJECTED, pageRequest)
-          .getContent();
-      default -> bookingRepository.findByBookerId(userId, pageRequest).getContent();
-    };
+    BookingListCache.Key key = new BookingListCache.Key(BookingListCache.Role.OWNER, userId, state, from, size);
+    List<BookingDto> cached = bookingListCache.get(key, now);
+    if (cached != null) {
+      return cached;
+    }
+    long stamp = bookingListCache.stamp();
+
+    if (!userRepository.existsById(userId)) {
+      throw new NotFoundException("User with id=" + userId + " not found.");
+    }
 
-    return bookings.stream().map(BookingMapper::toBookingDto).toList();
+    validatePagination(from, size);
+    List<BookingDto> bookings = loadByOwner(userId, state, now, from, size);
+    LocalDateTime validUntil = state.isTimeBound()
+        ? bookingListCache.nextBoundary(BookingListCache.Role.OWNER, userId, now) : null;
+    bookingListCache.put(key, stamp, bookings, validUntil);
+    return bookings;
   }
 
   @Override
-  public List<BookingDto> getAllByOwner(long userId, BookingState state, int from, int size) {
+  public CollectionTag getTagByBooker(long userId, BookingState state) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime changesAt = state.isTimeBound()
+        ? bookingListCache.nextBoundary(BookingListCache.Role.BOOKER, userId, now) : null;
+    return collectionVersions.tag(userId, VersionedCollection.BOOKINGS, changesAt, now);
+  }
+
+  @Override
+  public CollectionTag getTagByOwner(long userId, BookingState state) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime changesAt = state.isTimeBound()
+        ? bookingListCache.nextBoundary(BookingListCache.Role.OWNER, userId, now) : null;
+    return collectionVersions.tag(userId, VersionedCollection.OWNER_BOOKINGS, changesAt, now);
+  }
+
+  @Override
+  public void exportByOwner(long userId, ExportFormat format, ExportTarget target) {
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("User with id=" + userId + " not found.");
     }
+    try (Stream<BookingExportRow> archived = archivedBookingRepository.streamExportByItemOwnerId(userId);
+         Stream<BookingExportRow> live = bookingRepository.streamExportByItemOwnerId(userId)) {
+      exportWriter.write(Stream.concat(archived, live), BookingExportRow.class, format, target);
+    }
+  }
 
-    validatePagination(from, size);
+  private List<BookingDto> loadByBooker(long userId, BookingState state, LocalDateTime now, int from, int size) {
     PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("start").descending());
+    long offset = pageRequest.getOffset();
+    if (readPath == ReadPath.JDBC) {
+      return bookingJdbcRepository.findByBooker(userId, state, now, size, offset);
+    }
+    List<Booking> bookings = switch (state) {
+      case CURRENT -> bookingRepository.findCurrentByBookerId(userId, now, pageRequest).getContent();
+      case PAST -> loadInOrder(bookingRepository.findPastIdsByBookerId(userId, now, size, offset));
+      case FUTURE -> bookingRepository.findFutureByBookerId(userId, now, pageRequest).getContent();
+      case WAITING -> loadInOrder(bookingRepository.findIdsByBookerIdAndStatus(userId,
+          BookingStatus.WAITING.name(), size, offset));
+      case REJECTED -> loadInOrder(bookingRepository.findIdsByBookerIdAndStatus(userId,
+          BookingStatus.REJECTED.name(), size, offset));
+      default -> loadInOrder(bookingRepository.findIdsByBookerId(userId, size, offset));
+    };
+    return BookingMapper.toBookingDtos(bookings);
+  }
 
-    LocalDateTime now = LocalDateTime.now();
+  private List<BookingDto> loadByOwner(long userId, BookingState state, LocalDateTime now, int from, int size) {
+    PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("start").descending());
+    long offset = pageRequest.getOffset();
+    if (readPath == ReadPath.JDBC) {
+      return bookingJdbcRepository.findByItemOwner(userId, state, now, size, offset);
+    }
     List<Booking> bookings = switch (state) {
       case CURRENT -> bookingRepository.findCurrentByItemOwnerId(userId, now, pageRequest).getContent();
-      case PAST -> bookingRepository.findPastByItemOwnerId(userId, now, pageRequest).getContent();
+      case PAST -> loadInOrder(bookingRepository.findPastIdsByItemOwnerId(userId, now, size, offset));
       case FUTURE -> bookingRepository.findFutureByItemOwnerId(userId, now, pageRequest).getContent();
-      case WAITING -> bookingRepository.findByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, pageRequest)
-          .getContent();
-      case REJECTED -> bookingRepository.findByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, pageRequest)
-          .getContent();
-      default -> bookingRepository.findByItemOwnerId(userId, pageRequest).getContent();
+      case WAITING -> loadInOrder(bookingRepository.findIdsByItemOwnerIdAndStatus(userId,
+          BookingStatus.WAITING.name(), size, offset));
+      case REJECTED -> loadInOrder(bookingRepository.findIdsByItemOwnerIdAndStatus(userId,
+          BookingStatus.REJECTED.name(), size, offset));
+      default -> loadInOrder(bookingRepository.findIdsByItemOwnerId(userId, size, offset));
     };
+    return BookingMapper.toBookingDtos(bookings);
+  }
 
-    return bookings.stream().map(BookingMapper::toBookingDto).toList();
+  /**
+   * Loads a page of bookings selected across the live and archive tables, keeping the id order.
+   * The archive is only queried for ids the live table no longer has.
+   */
+  private List<Booking> loadInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, Booking> byId = BatchLookup.findAll(ids, bookingRepository::findAllByIdIn).stream()
+        .collect(Collectors.toMap(Booking::getId, Function.identity()));
+    Set<Long> archived = new HashSet<>(ids);
+    archived.removeAll(byId.keySet());
+    if (!archived.isEmpty()) {
+      BatchLookup.findAll(archived, archivedBookingRepository::findAllByIdIn)
+          .forEach(booking -> byId.put(booking.getId(), booking.toBooking()));
+    }
+    List<Booking> bookings = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      Booking booking = byId.get(id);
+      // Gone since the ids were selected (its item or booker was deleted).
+      if (booking != null) {
+        bookings.add(booking);
+      }
+    }
+    return bookings;
   }
 
   private void validateBookingCreate(BookingCreateDto dto) {
@@ -9,5 +9,12 @@ public enum BookingState {
   PAST,
   FUTURE,
   WAITING,
-  REJECTED
+  REJECTED;
+
+  /**
+   * Whether the bookings in this state change as time passes, not only on writes.
+   */
+  public boolean isTimeBound() {
+    return this == CURRENT || this == PAST || this == FUTURE;
+  }
 }
@@ -7,5 +7,9 @@ public enum BookingStatus {
   WAITING,
   APPROVED,
   REJECTED,
-  CANCELED
+  CANCELED,
+  /**
+   * Still waiting when it was due to start; set by {@link BookingExpiry}.
+   */
+  EXPIRED
 }
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Occurrence arithmetic of a recurring booking. Occurrence {@code k} starts at
+ * {@code firstStart + k * period} and lasts {@code length}, so the occurrences touching a window
+ * and whether any of them overlaps an interval are found by division, without expanding the
+ * series.
+ *
+ * @param count number of occurrences, at least one
+ */
+record Recurrence(LocalDateTime firstStart, Duration length, Duration period, long count) {
+
+  static Recurrence of(RecurringBooking rule) {
+    return of(rule.getStart(), rule.getEnd(), rule.getFrequency(), rule.getEvery(), rule.getUntil());
+  }
+
+  static Recurrence of(LocalDateTime start, LocalDateTime end, RecurrenceFrequency frequency, int every,
+                       LocalDateTime until) {
+    Duration period = frequency.getPeriod().multipliedBy(every);
+    return new Recurrence(start, Duration.between(start, end), period,
+        floorDiv(Duration.between(start, until), period) + 1);
+  }
+
+  LocalDateTime startOf(long index) {
+    return firstStart.plus(period.multipliedBy(index));
+  }
+
+  LocalDateTime lastEnd() {
+    return startOf(count - 1).plus(length);
+  }
+
+  /**
+   * Whether any occurrence overlaps {@code [start, end)}.
+   */
+  boolean overlaps(LocalDateTime start, LocalDateTime end) {
+    return firstEndingAfter(start) <= lastStartingBefore(end);
+  }
+
+  /**
+   * Whether any occurrence overlaps one of {@code other}'s. Walks the occurrences of whichever
+   * series has fewer of them in the span both cover, checking each against the other in constant
+   * time.
+   */
+  boolean overlaps(Recurrence other) {
+    LocalDateTime from = max(firstStart, other.firstStart);
+    LocalDateTime to = min(lastEnd(), other.lastEnd());
+    if (!from.isBefore(to)) {
+      return false;
+    }
+    long mine = lastStartingBefore(to) - firstEndingAfter(from);
+    long theirs = other.lastStartingBefore(to) - other.firstEndingAfter(from);
+    Recurrence walked = mine <= theirs ? this : other;
+    Recurrence checked = walked == this ? other : this;
+    for (long k = walked.firstEndingAfter(from), last = walked.lastStartingBefore(to); k <= last; k++) {
+      LocalDateTime start = walked.startOf(k);
+      if (checked.overlaps(start, start.plus(walked.length))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Start times of the occurrences overlapping {@code [from, to)}, in order.
+   */
+  List<LocalDateTime> startsBetween(LocalDateTime from, LocalDateTime to) {
+    List<LocalDateTime> starts = new ArrayList<>();
+    for (long k = firstEndingAfter(from), last = lastStartingBefore(to); k <= last; k++) {
+      starts.add(startOf(k));
+    }
+    return starts;
+  }
+
+  /**
+   * Index of the first occurrence ending after {@code time}: the least {@code k} with
+   * {@code k * period > time - length - firstStart}.
+   */
+  private long firstEndingAfter(LocalDateTime time) {
+    return Math.max(0, floorDiv(Duration.between(firstStart, time).minus(length), period) + 1);
+  }
+
+  /**
+   * Index of the last occurrence starting before {@code time}: the greatest {@code k} with
+   * {@code k * period < time - firstStart}.
+   */
+  private long lastStartingBefore(LocalDateTime time) {
+    return Math.min(count - 1, ceilDiv(Duration.between(firstStart, time), period) - 1);
+  }
+
+  private static long floorDiv(Duration dividend, Duration divisor) {
+    long quotient = dividend.dividedBy(divisor);
+    return dividend.isNegative() && !divisor.multipliedBy(quotient).equals(dividend) ? quotient - 1 : quotient;
+  }
+
+  private static long ceilDiv(Duration dividend, Duration divisor) {
+    long quotient = dividend.dividedBy(divisor);
+    return !dividend.isNegative() && !divisor.multipliedBy(quotient).equals(dividend) ? quotient + 1 : quotient;
+  }
+
+  private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+    return a.isBefore(b) ? a : b;
+  }
+}
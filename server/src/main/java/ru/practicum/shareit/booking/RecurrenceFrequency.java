@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import java.time.Duration;
+
+/**
+ * How often a recurring booking repeats, before its {@code every} multiplier.
+ */
+public enum RecurrenceFrequency {
+  DAILY(Duration.ofDays(1)),
+  WEEKLY(Duration.ofDays(7));
+
+  private final Duration period;
+
+  RecurrenceFrequency(Duration period) {
+    this.period = period;
+  }
+
+  public Duration getPeriod() {
+    return period;
+  }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+/**
+ * A series of equal bookings of an item, stored as a rule instead of one row per occurrence: the
+ * first occurrence ({@code start} to {@code end}), then one every {@code every} days or weeks for
+ * as long as an occurrence starts no later than {@code until}. Approved or rejected as a whole.
+ * {@code lastEnd}, the end of the last occurrence, lets queries find the rules reaching into a
+ * window without expanding them.
+ */
+@Entity
+@Table(name = "recurring_bookings")
+@Getter
+@Setter
+@ToString(exclude = {"item", "booker"})
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class RecurringBooking {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "start_date", nullable = false)
+  private LocalDateTime start;
+
+  @Column(name = "end_date", nullable = false)
+  private LocalDateTime end;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "frequency", nullable = false, length = 20)
+  private RecurrenceFrequency frequency;
+
+  @Column(name = "repeat_every", nullable = false)
+  private int every;
+
+  @Column(name = "until_date", nullable = false)
+  private LocalDateTime until;
+
+  @Column(name = "last_end_date", nullable = false)
+  private LocalDateTime lastEnd;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "item_id", nullable = false)
+  private Item item;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "booker_id", nullable = false)
+  private User booker;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 50)
+  private BookingStatus status;
+}
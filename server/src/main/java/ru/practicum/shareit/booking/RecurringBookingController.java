@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.common.IdempotentOperation;
+import ru.practicum.shareit.common.IdempotentRequests;
+import ru.practicum.shareit.diagnostics.StatementBudget;
+
+/**
+ * REST controller for recurring bookings.
+ */
+@RestController
+@RequestMapping("/bookings/recurring")
+public class RecurringBookingController {
+
+  private static final String USER_HEADER = "X-Sharer-User-Id";
+
+  private final RecurringBookingService recurringBookingService;
+  private final IdempotentRequests idempotentRequests;
+
+  public RecurringBookingController(RecurringBookingService recurringBookingService,
+                                    IdempotentRequests idempotentRequests) {
+    this.recurringBookingService = recurringBookingService;
+    this.idempotentRequests = idempotentRequests;
+  }
+
+  /**
+   * Creates a recurring booking request; a retry with the same idempotency key gets the original.
+   */
+  @PostMapping
+  @StatementBudget(8)
+  public RecurringBookingDto create(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+      @RequestBody RecurringBookingCreateDto dto
+  ) {
+    return idempotentRequests.execute(userId, IdempotentOperation.CREATE_RECURRING_BOOKING, idempotencyKey,
+        dto, RecurringBookingDto.class, () -> recurringBookingService.create(userId, dto));
+  }
+
+  /**
+   * Approves or rejects all occurrences of a recurring booking by item owner.
+   */
+  @PatchMapping("/{recurringBookingId}")
+  @StatementBudget(3)
+  public RecurringBookingDto approve(
+      @RequestHeader(USER_HEADER) long userId,
+      @PathVariable long recurringBookingId,
+      @RequestParam("approved") boolean approved
+  ) {
+    return recurringBookingService.approve(userId, recurringBookingId, approved);
+  }
+
+  /**
+   * Gets a recurring booking by id.
+   */
+  @GetMapping("/{recurringBookingId}")
+  @StatementBudget(1)
+  public RecurringBookingDto getById(
+      @RequestHeader(USER_HEADER) long userId,
+      @PathVariable long recurringBookingId
+  ) {
+    return recurringBookingService.getById(userId, recurringBookingId);
+  }
+
+  /**
+   * Gets the occurrences of the user's recurring bookings in the window {@code [start, end)}.
+   */
+  @GetMapping("/occurrences")
+  @StatementBudget(2)
+  public List<BookingOccurrenceDto> getOccurrencesByBooker(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+      @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+  ) {
+    return recurringBookingService.getOccurrencesByBooker(userId, start, end);
+  }
+
+  /**
+   * Gets the occurrences of recurring bookings of the user's items in the window {@code [start, end)}.
+   */
+  @GetMapping("/owner/occurrences")
+  @StatementBudget(2)
+  public List<BookingOccurrenceDto> getOccurrencesByOwner(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+      @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+  ) {
+    return recurringBookingService.getOccurrencesByOwner(userId, start, end);
+  }
+}
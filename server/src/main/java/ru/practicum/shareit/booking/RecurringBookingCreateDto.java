@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * DTO for creating a recurring booking: the first occurrence and how it repeats.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingCreateDto {
+  private Long itemId;
+
+  private LocalDateTime start;
+
+  private LocalDateTime end;
+
+  private RecurrenceFrequency frequency;
+
+  private Integer every;
+
+  private LocalDateTime until;
+}
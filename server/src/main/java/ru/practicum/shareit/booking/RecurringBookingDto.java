@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+/**
+ * DTO for transferring a recurring booking rule in API responses.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class RecurringBookingDto {
+  private Long id;
+  private LocalDateTime start;
+  private LocalDateTime end;
+  private RecurrenceFrequency frequency;
+  private int every;
+  private LocalDateTime until;
+  private long occurrences;
+  private ItemDto item;
+  private UserDto booker;
+  private BookingStatus status;
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for recurring booking rules. Window queries select the rules whose span, from the
+ * first start to the last end, overlaps the window; the occurrences inside it are expanded by the
+ * caller.
+ */
+public interface RecurringBookingRepository extends JpaRepository<RecurringBooking, Long> {
+
+  /**
+   * Finds a rule together with its item and booker.
+   */
+  @Override
+  @EntityGraph(attributePaths = {"item", "booker"})
+  Optional<RecurringBooking> findById(Long id);
+
+  /**
+   * Sets the status of a rule only if it still has the expected one; returns 0 if it has not.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE RecurringBooking r SET r.status = :status WHERE r.id = :id AND r.status = :expected")
+  int updateStatusIf(@Param("id") long id,
+                     @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+  /**
+   * Finds the rules of an item spanning into {@code [from, to)} that hold it: approved ones, and
+   * waiting ones whose first occurrence has not started by {@code now}. A rule nobody decided on
+   * before it started can no longer be approved, like an expired booking.
+   */
+  @Query("SELECT r FROM RecurringBooking r WHERE r.item.id = :itemId " +
+         "AND (r.status = 'APPROVED' OR (r.status = 'WAITING' AND r.start > :now)) " +
+         "AND r.start < :to AND r.lastEnd > :from")
+  List<RecurringBooking> findActiveByItemIdBetween(@Param("itemId") long itemId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("now") LocalDateTime now);
+
+  /**
+   * Finds the rules of a booker spanning into {@code [from, to)}.
+   */
+  @EntityGraph(attributePaths = {"item", "booker"})
+  @Query("SELECT r FROM RecurringBooking r WHERE r.booker.id = :bookerId " +
+         "AND r.start < :to AND r.lastEnd > :from")
+  List<RecurringBooking> findByBookerIdBetween(@Param("bookerId") long bookerId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+  /**
+   * Finds the rules on items of an owner spanning into {@code [from, to)}.
+   */
+  @EntityGraph(attributePaths = {"item", "booker"})
+  @Query("SELECT r FROM RecurringBooking r WHERE r.item.owner.id = :ownerId " +
+         "AND r.start < :to AND r.lastEnd > :from")
+  List<RecurringBooking> findByItemOwnerIdBetween(@Param("ownerId") long ownerId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service contract for recurring bookings.
+ */
+public interface RecurringBookingService {
+
+  /**
+   * Creates a recurring booking request, unless one of its occurrences overlaps an active booking
+   * of the item.
+   */
+  RecurringBookingDto create(long userId, RecurringBookingCreateDto dto);
+
+  /**
+   * Approves or rejects all occurrences of a recurring booking by item owner.
+   */
+  RecurringBookingDto approve(long userId, long recurringBookingId, boolean approved);
+
+  /**
+   * Gets a recurring booking by id for its booker or item owner.
+   */
+  RecurringBookingDto getById(long userId, long recurringBookingId);
+
+  /**
+   * Gets the occurrences of the user's recurring bookings overlapping {@code [from, to)}.
+   */
+  List<BookingOccurrenceDto> getOccurrencesByBooker(long userId, LocalDateTime from, LocalDateTime to);
+
+  /**
+   * Gets the occurrences of recurring bookings of the user's items overlapping {@code [from, to)}.
+   */
+  List<BookingOccurrenceDto> getOccurrencesByOwner(long userId, LocalDateTime from, LocalDateTime to);
+}
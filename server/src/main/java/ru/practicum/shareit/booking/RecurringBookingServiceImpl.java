@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+/**
+ * Service implementation for recurring bookings. A rule is stored as one row and its occurrences
+ * are only expanded for the window a caller asks for; overlap checks against bookings and other
+ * rules of the item use {@link Recurrence} arithmetic on the rows spanning the new rule.
+ */
+@Observed(name = "shareit.service")
+@Service
+@Transactional(readOnly = true)
+public class RecurringBookingServiceImpl implements RecurringBookingService {
+
+  private final RecurringBookingRepository recurringBookingRepository;
+  private final BookingRepository bookingRepository;
+  private final UserRepository userRepository;
+  private final ItemRepository itemRepository;
+  private final OutboxPublisher outboxPublisher;
+  private final int maxOccurrences;
+  private final Duration maxWindow;
+
+  public RecurringBookingServiceImpl(RecurringBookingRepository recurringBookingRepository,
+                                     BookingRepository bookingRepository,
+                                     UserRepository userRepository,
+                                     ItemRepository itemRepository,
+                                     OutboxPublisher outboxPublisher,
+                                     @Value("${shareit.recurring-booking.max-occurrences:366}") int maxOccurrences,
+                                     @Value("${shareit.recurring-booking.max-window:366d}") Duration maxWindow) {
+    this.recurringBookingRepository = recurringBookingRepository;
+    this.bookingRepository = bookingRepository;
+    this.userRepository = userRepository;
+    this.itemRepository = itemRepository;
+    this.outboxPublisher = outboxPublisher;
+    this.maxOccurrences = maxOccurrences;
+    this.maxWindow = maxWindow;
+  }
+
+  @Override
+  @Transactional
+  public RecurringBookingDto create(long userId, RecurringBookingCreateDto dto) {
+    validateCreate(dto);
+
+    User booker = userRepository.findById(userId)
+        .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found."));
+
+    Item item = itemRepository.findById(dto.getItemId())
+        .orElseThrow(() -> new NotFoundException("Item with id=" + dto.getItemId() + " not found."));
+
+    if (!item.isAvailable()) {
+      throw new ValidationException("Item with id=" + dto.getItemId() + " is not available for booking.");
+    }
+
+    if (item.getOwner().getId().equals(userId)) {
+      throw new NotFoundException("Owner cannot book their own item.");
+    }
+
+    RecurringBooking rule = BookingMapper.toRecurringBooking(dto, item, booker);
+    Recurrence recurrence = Recurrence.of(rule);
+    boolean taken = bookingRepository.findActiveByItemIdBetween(item.getId(), rule.getStart(), rule.getLastEnd())
+        .stream()
+        .anyMatch(booking -> recurrence.overlaps(booking.getStart(), booking.getEnd()))
+        || recurringBookingRepository.findActiveByItemIdBetween(item.getId(), rule.getStart(), rule.getLastEnd(),
+            LocalDateTime.now())
+        .stream()
+        .anyMatch(other -> recurrence.overlaps(Recurrence.of(other)));
+    if (taken) {
+      throw new ConflictException("Item with id=" + item.getId() + " is already booked for some of these times.");
+    }
+
+    RecurringBookingDto created = BookingMapper.toRecurringBookingDto(recurringBookingRepository.save(rule));
+    outboxPublisher.publish(DomainEventType.RECURRING_BOOKING_CREATED, created.getId(), created);
+    return created;
+  }
+
+  @Override
+  @Transactional
+  public RecurringBookingDto approve(long userId, long recurringBookingId, boolean approved) {
+    RecurringBooking rule = recurringBookingRepository.findById(recurringBookingId)
+        .orElseThrow(() -> new NotFoundException("Recurring booking with id=" + recurringBookingId + " not found."));
+
+    if (!rule.getItem().getOwner().getId().equals(userId)) {
+      throw new NotFoundException("User with id=" + userId + " is not the owner of the item.");
+    }
+
+    // Once it has started, an undecided rule no longer holds the item and others may have taken it.
+    if (approved && rule.getStatus() == BookingStatus.WAITING && !rule.getStart().isAfter(LocalDateTime.now())) {
+      throw new ValidationException("Recurring booking with id=" + recurringBookingId
+          + " started before it was approved and has expired.");
+    }
+    BookingStatus decided = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+    if (rule.getStatus() != BookingStatus.WAITING
+        || recurringBookingRepository.updateStatusIf(recurringBookingId, BookingStatus.WAITING, decided) == 0) {
+      throw new ValidationException("Booking status is already set.");
+    }
+    // The update detached the rule; it now only carries the result.
+    rule.setStatus(decided);
+    RecurringBookingDto result = BookingMapper.toRecurringBookingDto(rule);
+    outboxPublisher.publish(approved ? DomainEventType.RECURRING_BOOKING_APPROVED
+        : DomainEventType.RECURRING_BOOKING_REJECTED, rule.getId(), result);
+    return result;
+  }
+
+  @Override
+  public RecurringBookingDto getById(long userId, long recurringBookingId) {
+    RecurringBooking rule = recurringBookingRepository.findById(recurringBookingId)
+        .orElseThrow(() -> new NotFoundException("Recurring booking with id=" + recurringBookingId + " not found."));
+
+    boolean isBooker = rule.getBooker().getId().equals(userId);
+    boolean isOwner = rule.getItem().getOwner().getId().equals(userId);
+
+    if (!isBooker && !isOwner) {
+      throw new NotFoundException("Recurring booking with id=" + recurringBookingId
+          + " not found for user id=" + userId + ".");
+    }
+
+    return BookingMapper.toRecurringBookingDto(rule);
+  }
+
+  @Override
+  public List<BookingOccurrenceDto> getOccurrencesByBooker(long userId, LocalDateTime from, LocalDateTime to) {
+    validateWindow(userId, from, to);
+    return BookingMapper.toOccurrenceDtos(recurringBookingRepository.findByBookerIdBetween(userId, from, to),
+        from, to);
+  }
+
+  @Override
+  public List<BookingOccurrenceDto> getOccurrencesByOwner(long userId, LocalDateTime from, LocalDateTime to) {
+    validateWindow(userId, from, to);
+    return BookingMapper.toOccurrenceDtos(recurringBookingRepository.findByItemOwnerIdBetween(userId, from, to),
+        from, to);
+  }
+
+  private void validateCreate(RecurringBookingCreateDto dto) {
+    if (dto == null) {
+      throw new ValidationException("Booking body must not be null.");
+    }
+    if (dto.getItemId() == null) {
+      throw new ValidationException("Item id must be provided.");
+    }
+    if (dto.getStart() == null || dto.getEnd() == null || dto.getUntil() == null) {
+      throw new ValidationException("Start, end and until dates must be provided.");
+    }
+    if (dto.getFrequency() == null) {
+      throw new ValidationException("Frequency must be provided.");
+    }
+    if (dto.getEvery() == null || dto.getEvery() <= 0) {
+      throw new ValidationException("Parameter 'every' must be positive.");
+    }
+    if (dto.getStart().isBefore(LocalDateTime.now())) {
+      throw new ValidationException("Start date must be in the future.");
+    }
+    if (!dto.getEnd().isAfter(dto.getStart())) {
+      throw new ValidationException("End date must be after start date.");
+    }
+    if (dto.getUntil().isBefore(dto.getStart())) {
+      throw new ValidationException("Until date must not be before start date.");
+    }
+    Recurrence recurrence = Recurrence.of(dto.getStart(), dto.getEnd(), dto.getFrequency(), dto.getEvery(),
+        dto.getUntil());
+    if (recurrence.length().compareTo(recurrence.period()) > 0) {
+      throw new ValidationException("Occurrences must not be longer than the time between them.");
+    }
+    if (recurrence.count() > maxOccurrences) {
+      throw new ValidationException("A recurring booking may have at most " + maxOccurrences + " occurrences.");
+    }
+  }
+
+  private void validateWindow(long userId, LocalDateTime from, LocalDateTime to) {
+    if (!to.isAfter(from)) {
+      throw new ValidationException("Window end must be after its start.");
+    }
+    if (Duration.between(from, to).compareTo(maxWindow) > 0) {
+      throw new ValidationException("Window must not be longer than " + maxWindow.toDays() + " days.");
+    }
+    if (!userRepository.existsById(userId)) {
+      throw new NotFoundException("User with id=" + userId + " not found.");
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs {@code IN (:ids)} lookups over id lists of any size.
+ *
+ * <p>Ids are deduplicated and split into chunks of at most {@link #MAX_CHUNK}; each chunk is padded
+ * to the next power of two by repeating its last id. A lookup therefore only ever binds one of a
+ * handful of list lengths, so the driver and the database reuse a few prepared plans instead of
+ * parsing one per owner, and no statement comes near the bind parameter limit. Repeated ids do not
+ * change the rows an {@code IN} predicate matches.
+ */
+public final class BatchLookup {
+
+  /** Largest number of ids bound by one statement. */
+  public static final int MAX_CHUNK = 1024;
+
+  private static final int MIN_CHUNK = 8;
+
+  private BatchLookup() {
+  }
+
+  /**
+   * Applies the lookup to every chunk of the ids and concatenates the results in chunk order.
+   */
+  public static <K, T> List<T> findAll(Collection<K> ids, Function<List<K>, ? extends Collection<T>> lookup) {
+    List<List<K>> chunks = chunks(ids, MAX_CHUNK);
+    if (chunks.size() == 1) {
+      return new ArrayList<>(lookup.apply(chunks.get(0)));
+    }
+    List<T> results = new ArrayList<>();
+    for (List<K> chunk : chunks) {
+      results.addAll(lookup.apply(chunk));
+    }
+    return results;
+  }
+
+  /**
+   * Splits distinct ids into padded chunks; the padding only ever repeats the chunk's last id.
+   */
+  static <K> List<List<K>> chunks(Collection<K> ids, int maxChunk) {
+    List<K> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+    List<List<K>> chunks = new ArrayList<>((distinct.size() + maxChunk - 1) / maxChunk);
+    for (int from = 0; from < distinct.size(); from += maxChunk) {
+      List<K> chunk = new ArrayList<>(distinct.subList(from, Math.min(from + maxChunk, distinct.size())));
+      K last = chunk.get(chunk.size() - 1);
+      int padded = Math.min(maxChunk, Math.max(MIN_CHUNK, Integer.highestOneBit(chunk.size() - 1) << 1));
+      while (chunk.size() < padded) {
+        chunk.add(last);
+      }
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+}
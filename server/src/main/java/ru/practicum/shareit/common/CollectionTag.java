@@ -0,0 +1,49 @@
+package ru.practicum.shareit.common;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Entity tag of a user's list: the list's version, the global epoch and the instant until which
+ * the list cannot change without a write. The instant travels inside the tag, so a conditional
+ * request is answered from the two versions alone.
+ */
+public record CollectionTag(long version, long epoch, LocalDateTime validUntil) {
+
+  /**
+   * Weak tag, since the list is served in several encodings.
+   */
+  public String eTag() {
+    return "W/\"" + version + "." + epoch + "." + validUntil.toInstant(ZoneOffset.UTC).toEpochMilli() + "\"";
+  }
+
+  /**
+   * Returns the tag of {@code ifNoneMatch} that still describes this list at {@code now}, if any.
+   */
+  public String findMatch(String ifNoneMatch, LocalDateTime now) {
+    if (ifNoneMatch == null) {
+      return null;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+      if (opaque.length() < 2 || !opaque.startsWith("\"") || !opaque.endsWith("\"")) {
+        continue;
+      }
+      String[] parts = opaque.substring(1, opaque.length() - 1).split("\\.");
+      if (parts.length != 3) {
+        continue;
+      }
+      try {
+        LocalDateTime until = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[2])), ZoneOffset.UTC);
+        if (Long.parseLong(parts[0]) == version && Long.parseLong(parts[1]) == epoch && now.isBefore(until)) {
+          return tag;
+        }
+      } catch (NumberFormatException e) {
+        // Not one of ours.
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.common;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Version stamp of one user's list; read and bumped through {@link CollectionVersions}.
+ */
+@Entity
+@Table(name = "collection_versions")
+@IdClass(CollectionVersion.Key.class)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionVersion {
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(name = "collection", length = 20)
+  private VersionedCollection collection;
+
+  @Column(name = "version", nullable = false)
+  private Long version;
+
+  /**
+   * Composite primary key.
+   */
+  @Getter
+  @Setter
+  @EqualsAndHashCode
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private Long userId;
+    private VersionedCollection collection;
+  }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.common;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version stamps of per-user lists, kept in {@code collection_versions} and bumped in the same
+ * transaction as the write that changes a list, so a conditional request costs one primary key
+ * lookup instead of the list query.
+ *
+ * <p>A user's rows are created with the user; users without rows get no tags. Lists that also
+ * depend on the clock carry the next instant they change in their tag. A tag is honoured for at
+ * most {@code shareit.collection-versions.max-age}, which bounds how long the per-instance caches
+ * behind the lists can hold a client on a stale copy.
+ */
+@Component
+public class CollectionVersions {
+
+  /**
+   * Owner of the {@link VersionedCollection#EPOCH} row; no user has this id.
+   */
+  static final long EPOCH_USER_ID = 0;
+
+  private static final List<VersionedCollection> PER_USER = List.of(VersionedCollection.BOOKINGS,
+      VersionedCollection.OWNER_BOOKINGS, VersionedCollection.ITEMS, VersionedCollection.REQUESTS);
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final Duration maxAge;
+
+  public CollectionVersions(NamedParameterJdbcTemplate jdbc,
+                            @Value("${shareit.collection-versions.max-age:60s}") Duration maxAge) {
+    this.jdbc = jdbc;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Creates the epoch row where the schema script has not (embedded databases).
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createEpoch() {
+    try {
+      jdbc.update("INSERT INTO collection_versions (user_id, collection, version) "
+          + "SELECT :userId, :collection, 0 WHERE NOT EXISTS (SELECT 1 FROM collection_versions "
+          + "WHERE user_id = :userId AND collection = :collection)",
+          Map.of("userId", EPOCH_USER_ID, "collection", VersionedCollection.EPOCH.name()));
+    } catch (DuplicateKeyException e) {
+      // Another instance created it first.
+    }
+  }
+
+  /**
+   * Creates the version rows of new users, in the transaction that creates them.
+   */
+  public void register(Collection<Long> userIds) {
+    if (userIds.isEmpty()) {
+      return;
+    }
+    List<Map<String, Object>> rows = userIds.stream()
+        .flatMap(userId -> PER_USER.stream().map(collection -> Map.<String, Object>of(
+            "userId", userId, "collection", collection.name())))
+        .toList();
+    jdbc.batchUpdate("INSERT INTO collection_versions (user_id, collection, version) VALUES (:userId, :collection, 0)",
+        rows.toArray(Map[]::new));
+  }
+
+  /**
+   * Bumps the given lists of the given users with one statement, in the writing transaction.
+   */
+  public void bump(Map<VersionedCollection, ? extends Collection<Long>> changed) {
+    StringJoiner where = new StringJoiner(" OR ");
+    Map<String, Object> params = new HashMap<>();
+    changed.forEach((collection, userIds) -> {
+      if (!userIds.isEmpty()) {
+        where.add("(collection = '" + collection.name() + "' AND user_id IN (:" + collection.name() + "))");
+        params.put(collection.name(), userIds);
+      }
+    });
+    if (params.isEmpty()) {
+      return;
+    }
+    jdbc.update("UPDATE collection_versions SET version = version + 1 WHERE " + where, params);
+  }
+
+  /**
+   * Bumps the epoch, changing the tags of every list.
+   */
+  public void bumpAll() {
+    bump(Map.of(VersionedCollection.EPOCH, List.of(EPOCH_USER_ID)));
+  }
+
+  /**
+   * Returns the current tag of the user's list, or {@code null} if the user has no version rows.
+   *
+   * @param changesAt the next instant the list changes without a write, or {@code null}
+   */
+  public CollectionTag tag(long userId, VersionedCollection collection, LocalDateTime changesAt, LocalDateTime now) {
+    Map<String, Long> versions = new HashMap<>();
+    jdbc.query("SELECT collection, version FROM collection_versions "
+            + "WHERE (user_id = :userId AND collection = :collection) OR (user_id = :epochUserId AND collection = :epoch)",
+        Map.of("userId", userId, "collection", collection.name(),
+            "epochUserId", EPOCH_USER_ID, "epoch", VersionedCollection.EPOCH.name()),
+        rs -> {
+          versions.put(rs.getString("collection"), rs.getLong("version"));
+        });
+    Long version = versions.get(collection.name());
+    Long epoch = versions.get(VersionedCollection.EPOCH.name());
+    if (version == null || epoch == null) {
+      return null;
+    }
+    LocalDateTime validUntil = now.plus(maxAge);
+    if (changesAt != null && changesAt.isBefore(validUntil)) {
+      validUntil = changesAt;
+    }
+    return new CollectionTag(version, epoch, validUntil);
+  }
+}
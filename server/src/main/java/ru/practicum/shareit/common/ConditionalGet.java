@@ -0,0 +1,28 @@
+package ru.practicum.shareit.common;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Answers a GET of a versioned list: 304 with the client's tag while it still matches, otherwise
+ * the list with the current tag. The tag must be taken before the list is loaded, so a write in
+ * between only makes the tag older than the list, never newer.
+ */
+public final class ConditionalGet {
+
+  private ConditionalGet() {
+  }
+
+  public static <T> ResponseEntity<T> respond(CollectionTag tag, String ifNoneMatch, Supplier<T> body) {
+    if (tag == null) {
+      return ResponseEntity.ok(body.get());
+    }
+    String match = tag.findMatch(ifNoneMatch, LocalDateTime.now());
+    if (match != null) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(match).build();
+    }
+    return ResponseEntity.ok().eTag(tag.eTag()).body(body.get());
+  }
+}
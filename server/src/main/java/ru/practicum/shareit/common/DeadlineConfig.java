@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the deadline filter for all requests.
+ */
+@Configuration
+public class DeadlineConfig {
+
+  /**
+   * Filter starting request deadlines from the gateway's timeout header.
+   */
+  @Bean
+  public FilterRegistrationBean<DeadlineFilter> deadlineFilter(
+      RequestDeadlines deadlines,
+      @Value("${shareit.deadline.max-ms:30000}") long maxMillis) {
+    return new FilterRegistrationBean<>(new DeadlineFilter(deadlines, maxMillis));
+  }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts the deadline of a request from the {@code X-Request-Timeout-Ms} header the gateway sends:
+ * the time it is still willing to wait, relative so that the clocks of the two need not agree. The
+ * timeout is capped by {@code shareit.deadline.max-ms}; a request that arrives with no time left
+ * is answered with 504 at once.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+  static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+  private final RequestDeadlines deadlines;
+  private final long maxMillis;
+
+  public DeadlineFilter(RequestDeadlines deadlines, long maxMillis) {
+    this.deadlines = deadlines;
+    this.maxMillis = maxMillis;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Long timeoutMillis = timeoutMillis(request);
+    if (timeoutMillis == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+    if (timeoutMillis <= 0) {
+      response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Request deadline exceeded");
+      return;
+    }
+    deadlines.begin(Math.min(timeoutMillis, maxMillis));
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      deadlines.end();
+    }
+  }
+
+  private static Long timeoutMillis(HttpServletRequest request) {
+    String header = request.getHeader(TIMEOUT_HEADER);
+    if (header == null) {
+      return null;
+    }
+    try {
+      return Long.parseLong(header.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs independent lookups of one request concurrently on virtual threads, each in its own
+ * transaction and therefore on its own connection, so the request waits for the slowest lookup
+ * rather than for their sum.
+ *
+ * <p>A {@link Scope} forks tasks and joins them: at most {@code shareit.fan-out.max-concurrency}
+ * tasks of a scope run at once, the first failure cancels the tasks still running and is rethrown
+ * by {@link Scope#join()}. Tasks see the caller's tracing context and count against its statement
+ * budget. Inside an open transaction the tasks run one after another on the caller's thread, since
+ * other connections would not see its uncommitted writes.
+ */
+@Component
+public class FanOut {
+
+  private final TransactionTemplate readOnlyTransaction;
+  private final TransactionTemplate readWriteTransaction;
+  private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+  private final int maxConcurrency;
+  private final boolean enabled;
+
+  public FanOut(PlatformTransactionManager transactionManager,
+                @Value("${shareit.fan-out.max-concurrency:4}") int maxConcurrency,
+                @Value("${shareit.fan-out.enabled:true}") boolean enabled) {
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.readWriteTransaction = new TransactionTemplate(transactionManager);
+    this.maxConcurrency = maxConcurrency;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Opens a scope whose tasks run in read-only transactions (routed to the replica when usable).
+   */
+  public Scope open() {
+    return open(readOnlyTransaction);
+  }
+
+  /**
+   * Opens a scope whose tasks read from the primary, for lookups that precede a write.
+   */
+  public Scope openOnPrimary() {
+    return open(readWriteTransaction);
+  }
+
+  private Scope open(TransactionTemplate transaction) {
+    boolean concurrent = enabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    return new Scope(concurrent ? transaction : null, concurrent ? snapshots.captureAll() : null);
+  }
+
+  /**
+   * Forked tasks of one request. Closing the scope cancels tasks that have not been joined.
+   */
+  public final class Scope implements AutoCloseable {
+
+    private final TransactionTemplate transaction;
+    private final ContextSnapshot snapshot;
+    private final ExecutorService executor;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final Semaphore permits;
+    private final List<Task<?>> tasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private Scope(TransactionTemplate transaction, ContextSnapshot snapshot) {
+      this.transaction = transaction;
+      this.snapshot = snapshot;
+      this.executor = transaction == null ? null : Executors.newThreadPerTaskExecutor(task -> {
+        Thread thread = Thread.ofVirtual().name("fan-out").unstarted(task);
+        threads.add(thread);
+        return thread;
+      });
+      this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Starts the work; its result is available from the task after {@link #join()}.
+     */
+    public <T> Task<T> fork(Supplier<T> work) {
+      Task<T> task = new Task<>();
+      tasks.add(task);
+      if (failure.get() != null) {
+        return task;
+      }
+      if (executor == null) {
+        try {
+          task.result = work.get();
+        } catch (RuntimeException | Error e) {
+          failure.set(e);
+        }
+        return task;
+      }
+      task.future = executor.submit(snapshot.wrap(() -> {
+        permits.acquire();
+        try {
+          return transaction.execute(status -> work.get());
+        } catch (RuntimeException | Error e) {
+          if (failure.compareAndSet(null, e)) {
+            tasks.forEach(Task::cancel);
+          }
+          throw e;
+        } finally {
+          permits.release();
+        }
+      }));
+      if (failure.get() != null) {
+        task.cancel();
+      }
+      return task;
+    }
+
+    /**
+     * Waits for every forked task and rethrows the first failure.
+     */
+    public void join() {
+      for (Task<?> task : tasks) {
+        try {
+          task.await();
+        } catch (CancellationException | ExecutionException e) {
+          // The failure that caused it is recorded and rethrown below.
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          tasks.forEach(Task::cancel);
+          throw new IllegalStateException("Interrupted while waiting for forked lookups", e);
+        }
+      }
+      Throwable failed = failure.get();
+      if (failed instanceof RuntimeException e) {
+        throw e;
+      }
+      if (failed instanceof Error e) {
+        throw e;
+      }
+    }
+
+    /**
+     * Cancels unfinished tasks and waits until their threads have exited, so no forked work
+     * outlives the scope. A cancelled future alone does not wait for its thread.
+     */
+    @Override
+    public void close() {
+      if (executor == null) {
+        return;
+      }
+      tasks.forEach(Task::cancel);
+      executor.shutdown();
+      boolean interrupted = false;
+      for (Thread thread : threads) {
+        while (thread.isAlive()) {
+          try {
+            thread.join();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Result of a forked task.
+   */
+  public static final class Task<T> {
+
+    private volatile Future<T> future;
+    private T result;
+
+    private Task() {
+    }
+
+    /**
+     * Returns the result; only valid after a successful {@link Scope#join()}.
+     */
+    public T get() {
+      return result;
+    }
+
+    private void await() throws InterruptedException, ExecutionException {
+      Future<T> running = future;
+      if (running != null) {
+        result = running.get();
+      }
+    }
+
+    private void cancel() {
+      Future<T> running = future;
+      if (running != null) {
+        running.cancel(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.common;
+
+/**
+ * Create operations that accept an {@code Idempotency-Key}; a key is scoped to its user and
+ * operation.
+ */
+public enum IdempotentOperation {
+  CREATE_BOOKING,
+  CREATE_RECURRING_BOOKING,
+  CREATE_ITEM,
+  ADD_COMMENT
+}
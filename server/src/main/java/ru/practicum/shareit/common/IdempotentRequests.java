@@ -0,0 +1,196 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Runs create operations at most once per {@code Idempotency-Key}, so a client retrying a request
+ * whose response it lost gets the original response instead of a duplicate.
+ *
+ * <p>The key is claimed by inserting its row in the same transaction as the write, and the
+ * response is stored in that row before commit: either both exist or neither does. A concurrent
+ * retry blocks on the claimed key until the first attempt finishes, then replays its response; a
+ * failed attempt leaves no row, so its retry runs again. Responses are kept in
+ * {@code idempotent_responses} for {@code shareit.idempotency.ttl} and the most recent ones in
+ * memory as well. Reusing a key for a different request is a conflict.
+ */
+@Slf4j
+@Component
+public class IdempotentRequests {
+
+  public static final String HEADER = "Idempotency-Key";
+
+  /**
+   * Longest key accepted; clients usually send a UUID.
+   */
+  static final int MAX_KEY_LENGTH = 255;
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Cache<Key, Stored> responses;
+
+  public IdempotentRequests(NamedParameterJdbcTemplate jdbc,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.idempotency.max-size:10000}") long maxSize,
+                            @Value("${shareit.idempotency.ttl:24h}") Duration ttl) {
+    this.jdbc = jdbc;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.responses = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotent.responses");
+  }
+
+  /**
+   * Runs {@code action} unless the user already made this request with this key, in which case the
+   * stored response is returned instead.
+   *
+   * @param key     the client's idempotency key, or {@code null} to simply run the action
+   * @param request everything the response depends on besides the user, to tell a retry from a
+   *                different request reusing the key
+   */
+  public <T> T execute(long userId, IdempotentOperation operation, String key, Object request,
+                       Class<T> responseType, Supplier<T> action) {
+    if (key == null) {
+      return action.get();
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new ValidationException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters long");
+    }
+    Key id = new Key(userId, operation, key);
+    String requestHash = hash(request);
+    Stored stored = responses.getIfPresent(id);
+    if (stored == null) {
+      try {
+        Stored[] executed = new Stored[1];
+        T response = transactionTemplate.execute(status -> {
+          claim(id, requestHash);
+          T result = action.get();
+          executed[0] = new Stored(requestHash, write(result));
+          complete(id, executed[0].body());
+          return result;
+        });
+        responses.put(id, executed[0]);
+        return response;
+      } catch (AlreadyClaimedException e) {
+        stored = load(id);
+        if (stored == null) {
+          // Purged between the claim and the lookup; the key is too old to be a retry.
+          throw new ConflictException("Idempotency-Key " + key + " has expired");
+        }
+        responses.put(id, stored);
+      }
+    }
+    if (!stored.requestHash().equals(requestHash)) {
+      throw new ConflictException("Idempotency-Key " + key + " was already used for a different request");
+    }
+    return read(stored.body(), responseType);
+  }
+
+  /**
+   * Deletes responses older than the ttl; retries after that run the request again.
+   */
+  @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval-ms:3600000}")
+  public void purge() {
+    int deleted = jdbc.update("DELETE FROM idempotent_responses WHERE created < :before",
+        Map.of("before", LocalDateTime.now().minus(ttl)));
+    if (deleted > 0) {
+      log.info("Purged {} stored idempotent responses", deleted);
+    }
+  }
+
+  private void claim(Key id, String requestHash) {
+    try {
+      jdbc.update("INSERT INTO idempotent_responses (user_id, operation, idempotency_key, request_hash, created) "
+              + "VALUES (:userId, :operation, :key, :requestHash, :created)",
+          Map.of("userId", id.userId(), "operation", id.operation().name(), "key", id.key(),
+              "requestHash", requestHash, "created", LocalDateTime.now()));
+    } catch (DuplicateKeyException e) {
+      throw new AlreadyClaimedException();
+    }
+  }
+
+  private void complete(Key id, String body) {
+    jdbc.update("UPDATE idempotent_responses SET body = :body "
+            + "WHERE user_id = :userId AND operation = :operation AND idempotency_key = :key",
+        Map.of("body", body, "userId", id.userId(), "operation", id.operation().name(), "key", id.key()));
+  }
+
+  private Stored load(Key id) {
+    List<Stored> found = jdbc.query("SELECT request_hash, body FROM idempotent_responses "
+            + "WHERE user_id = :userId AND operation = :operation AND idempotency_key = :key",
+        Map.of("userId", id.userId(), "operation", id.operation().name(), "key", id.key()),
+        (rs, rowNum) -> new Stored(rs.getString("request_hash"), rs.getString("body")));
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  private String hash(Object request) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Cannot hash request", e);
+    }
+  }
+
+  private String write(Object response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot store response", e);
+    }
+  }
+
+  private <T> T read(String body, Class<T> responseType) {
+    try {
+      return objectMapper.readValue(body, responseType);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot read stored response", e);
+    }
+  }
+
+  private record Key(long userId, IdempotentOperation operation, String key) {
+  }
+
+  private record Stored(String requestHash, String body) {
+  }
+
+  /**
+   * Thrown out of the transaction when the key is already taken, so that it rolls back.
+   */
+  private static class AlreadyClaimedException extends RuntimeException {
+    AlreadyClaimedException() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.common;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Stored response of a request made with an idempotency key; written and read through
+ * {@link IdempotentRequests}.
+ */
+@Entity
+@Table(name = "idempotent_responses")
+@IdClass(IdempotentResponse.Key.class)
+@Getter
+@Setter
+@ToString(exclude = "body")
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(name = "operation", length = 20)
+  private IdempotentOperation operation;
+
+  @Id
+  @Column(name = "idempotency_key", length = 255)
+  private String idempotencyKey;
+
+  @Column(name = "request_hash", nullable = false, length = 64)
+  private String requestHash;
+
+  @Column(name = "body", length = 8000)
+  private String body;
+
+  @Column(name = "created", nullable = false)
+  private LocalDateTime created;
+
+  /**
+   * Composite primary key.
+   */
+  @Getter
+  @Setter
+  @EqualsAndHashCode
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private Long userId;
+    private IdempotentOperation operation;
+    private String idempotencyKey;
+  }
+}
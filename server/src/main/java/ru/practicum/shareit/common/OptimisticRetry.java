@@ -0,0 +1,79 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ConflictException;
+
+/**
+ * Runs a read-modify-write in its own transaction and runs it again, after a short randomized
+ * pause, when a concurrent write to the same versioned entity made it fail. Each attempt re-reads
+ * the entity, so the change is applied to the latest state instead of overwriting it. When the
+ * attempts run out the caller gets a 409.
+ *
+ * <p>Inside an enclosing transaction the work runs once: the enclosing transaction is already
+ * lost and only its owner can retry it.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  public OptimisticRetry(PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${shareit.optimistic-retry.max-attempts:5}") int maxAttempts,
+                         @Value("${shareit.optimistic-retry.initial-backoff-ms:10}") long initialBackoffMillis,
+                         @Value("${shareit.optimistic-retry.max-backoff-ms:200}") long maxBackoffMillis) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  public <T> T run(String operation, Supplier<T> work) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return work.get();
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> work.get());
+      } catch (OptimisticLockingFailureException e) {
+        Counter.builder("shareit.optimistic.conflicts").tag("operation", operation).register(meterRegistry)
+            .increment();
+        if (attempt >= maxAttempts) {
+          log.warn("{} lost {} concurrent updates in a row, giving up", operation, attempt);
+          throw new ConflictException("Concurrent update of the same data, please retry.");
+        }
+        backOff(attempt);
+      }
+    }
+  }
+
+  /**
+   * Sleeps for a random time up to an exponentially growing cap ("full jitter"), so that
+   * contenders that collided do not collide again in lockstep.
+   */
+  private void backOff(int attempt) {
+    long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConflictException("Interrupted while retrying a concurrent update.");
+    }
+  }
+}
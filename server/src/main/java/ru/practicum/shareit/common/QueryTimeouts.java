@@ -0,0 +1,22 @@
+package ru.practicum.shareit.common;
+
+/**
+ * Default timeouts, in milliseconds, of repository queries whose cost grows with the data and
+ * whose callers poll; applied as {@code jakarta.persistence.query.timeout} hints. A request
+ * deadline shorter than the default wins.
+ */
+public final class QueryTimeouts {
+
+  /**
+   * Full-text search over all items.
+   */
+  public static final String SEARCH = "3000";
+
+  /**
+   * Pages of a user's booking history, archive included.
+   */
+  public static final String BOOKING_LIST = "5000";
+
+  private QueryTimeouts() {
+  }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.common;
+
+/**
+ * How list endpoints read their rows, selected by {@code shareit.read-path}.
+ */
+public enum ReadPath {
+
+  /** Entities through the persistence context, mapped to DTOs afterwards. */
+  JPA,
+
+  /** Hand-written SQL mapped straight into DTOs; writes still go through JPA. */
+  JDBC
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.context.ContextRegistry;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.DeadlineExceededException;
+
+/**
+ * Deadline of the request handled on the current thread, enforced on its SQL: a statement started
+ * after the deadline fails without reaching the database, and every other statement gets a JDBC
+ * query timeout no longer than the time left, so the database cancels it once nobody waits for
+ * the answer. A shorter timeout set on the statement (a repository query hint) is kept.
+ *
+ * <p>Registered with the context-propagation registry, so forked lookups share the deadline.
+ */
+@Component
+public class RequestDeadlines implements QueryExecutionListener {
+
+  private static final String CONTEXT_KEY = "shareit.request.deadline";
+  private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+  public RequestDeadlines() {
+    ContextRegistry.getInstance()
+        .registerThreadLocalAccessor(CONTEXT_KEY, DEADLINE::get, DEADLINE::set, DEADLINE::remove);
+  }
+
+  /**
+   * Sets the deadline of the request on this thread to {@code timeoutMillis} from now.
+   */
+  public void begin(long timeoutMillis) {
+    DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+  }
+
+  /**
+   * Removes the deadline from this thread.
+   */
+  public void end() {
+    DEADLINE.remove();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (DEADLINE.get() == null) {
+      return;
+    }
+    int seconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMillis() + 999));
+    Statement statement = execInfo.getStatement();
+    try {
+      int current = statement.getQueryTimeout();
+      if (current == 0 || current > seconds) {
+        statement.setQueryTimeout(seconds);
+      }
+    } catch (SQLException e) {
+      // The driver does not support timeouts; the deadline is still checked between statements.
+    }
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  /**
+   * Milliseconds left until the deadline, {@link Long#MAX_VALUE} without one.
+   *
+   * @throws DeadlineExceededException if the deadline has passed
+   */
+  private long remainingMillis() {
+    Long deadline = DEADLINE.get();
+    if (deadline == null) {
+      return Long.MAX_VALUE;
+    }
+    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    if (remaining <= 0) {
+      throw new DeadlineExceededException("Request deadline exceeded");
+    }
+    return remaining;
+  }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding the timers that fall due on
+ * a tick mapping to it, in any round of the ring. Scheduling and cancelling are O(1); advancing
+ * the wheel visits one bucket per elapsed tick and only looks at the timers hashed to it, so a
+ * tick costs pending timers divided by wheel size rather than all pending timers. Timers fire at
+ * the first tick at or after their deadline, never before it.
+ *
+ * <p>Each key has at most one timer; scheduling a key again moves it. Thread-safe.
+ *
+ * @param <K> what a timer is for
+ */
+public class TimingWheel<K> {
+
+  private final long tickMillis;
+  private final long origin;
+  private final Bucket<K>[] buckets;
+  private final int mask;
+  private final Map<K, Timer<K>> timers = new HashMap<>();
+  private long currentTick;
+
+  /**
+   * @param wheelSize number of buckets, rounded up to a power of two
+   * @param nowMillis the current time; ticks are counted from it
+   */
+  @SuppressWarnings("unchecked")
+  public TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+    if (tickMillis <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("Tick and wheel size must be positive");
+    }
+    int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    this.tickMillis = tickMillis;
+    this.origin = nowMillis;
+    this.buckets = new Bucket[size];
+    for (int i = 0; i < size; i++) {
+      buckets[i] = new Bucket<>();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Schedules the timer of {@code key} to fire at {@code deadlineMillis}, replacing its previous
+   * one. A deadline that has already passed fires on the next tick.
+   */
+  public synchronized void schedule(K key, long deadlineMillis) {
+    cancel(key);
+    long tick = Math.max(Math.ceilDiv(deadlineMillis - origin, tickMillis), currentTick + 1);
+    Timer<K> timer = new Timer<>(key, tick);
+    buckets[(int) (tick & mask)].add(timer);
+    timers.put(key, timer);
+  }
+
+  /**
+   * Cancels the timer of {@code key}; returns whether it had one.
+   */
+  public synchronized boolean cancel(K key) {
+    Timer<K> timer = timers.remove(key);
+    if (timer == null) {
+      return false;
+    }
+    buckets[(int) (timer.tick & mask)].remove(timer);
+    return true;
+  }
+
+  /**
+   * Moves the wheel to {@code nowMillis} and removes and returns the keys of every timer due by
+   * then. A gap longer than a full round visits every bucket once.
+   */
+  public synchronized List<K> advance(long nowMillis) {
+    long targetTick = Math.floorDiv(nowMillis - origin, tickMillis);
+    List<K> due = new ArrayList<>();
+    long steps = Math.min(targetTick - currentTick, buckets.length);
+    for (long step = 1; step <= steps; step++) {
+      Bucket<K> bucket = buckets[(int) ((currentTick + step) & mask)];
+      for (Timer<K> timer = bucket.head; timer != null; ) {
+        Timer<K> next = timer.next;
+        if (timer.tick <= targetTick) {
+          bucket.remove(timer);
+          timers.remove(timer.key);
+          due.add(timer.key);
+        }
+        timer = next;
+      }
+    }
+    currentTick = Math.max(currentTick, targetTick);
+    return due;
+  }
+
+  /**
+   * Number of pending timers.
+   */
+  public synchronized int size() {
+    return timers.size();
+  }
+
+  private static final class Timer<K> {
+    private final K key;
+    private final long tick;
+    private Timer<K> prev;
+    private Timer<K> next;
+
+    private Timer(K key, long tick) {
+      this.key = key;
+      this.tick = tick;
+    }
+  }
+
+  /**
+   * Doubly linked list of timers, so that a cancelled timer is unlinked in place.
+   */
+  private static final class Bucket<K> {
+    private Timer<K> head;
+
+    private void add(Timer<K> timer) {
+      timer.next = head;
+      if (head != null) {
+        head.prev = timer;
+      }
+      head = timer;
+    }
+
+    private void remove(Timer<K> timer) {
+      if (timer.prev != null) {
+        timer.prev.next = timer.next;
+      } else {
+        head = timer.next;
+      }
+      if (timer.next != null) {
+        timer.next.prev = timer.prev;
+      }
+      timer.prev = null;
+      timer.next = null;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.common;
+
+/**
+ * Per-user lists that clients poll, each stamped with a version in {@code collection_versions}
+ * that writes bump, so an unchanged list can be answered with 304 Not Modified.
+ */
+public enum VersionedCollection {
+  /** Bookings the user made ({@code GET /bookings}). */
+  BOOKINGS,
+  /** Bookings of the user's items ({@code GET /bookings/owner}). */
+  OWNER_BOOKINGS,
+  /** The user's items with their bookings and comments ({@code GET /items}). */
+  ITEMS,
+  /** The user's requests with the items offered for them ({@code GET /requests}). */
+  REQUESTS,
+  /** One stamp for all users, bumped by writes that show up in too many lists to track. */
+  EPOCH
+}
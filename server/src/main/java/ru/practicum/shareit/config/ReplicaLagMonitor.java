@@ -0,0 +1,69 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Periodically measures how far the replica lags behind the primary. The replica is only used
+ * while the last measurement succeeded and stayed within the allowed lag; reads fall back to the
+ * primary otherwise.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagMillis / 1000.0;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.replica.lag-check-interval-ms:5000}")
+    public void refresh() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            lagSeconds = resultSet.next() ? resultSet.getDouble(1) : Double.NaN;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (Exception e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed: {}", e.getMessage());
+            }
+        }
+        if (usable != replicaUsable) {
+            log.info("Read-only transactions now go to the {} (replica lag {} s)",
+                    usable ? "replica" : "primary", lagSeconds);
+        }
+        replicaUsable = usable;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shareit.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag measured on the replica")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("shareit.datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import java.util.Locale;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+/**
+ * Adds the booking {@code state} filter to {@code http.server.requests}. Only {@link BookingState}
+ * names are used as values, so the tag stays low-cardinality whatever the client sends.
+ */
+@Component
+public class StateTagObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final String STATE = "state";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(state(context));
+    }
+
+    private static KeyValue state(ServerRequestObservationContext context) {
+        String value = context.getCarrier() != null ? context.getCarrier().getParameter(STATE) : null;
+        if (value == null) {
+            return KeyValue.of(STATE, "none");
+        }
+        try {
+            return KeyValue.of(STATE, BookingState.valueOf(value.toUpperCase(Locale.ROOT)).name());
+        } catch (IllegalArgumentException e) {
+            return KeyValue.of(STATE, "invalid");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Finished spans (HTTP, service methods, JDBC statements) are written as OTLP JSON lines to the
+ * application log when {@code shareit.tracing.log-spans} is on; point {@code logging.file.name}
+ * at a file to collect them there.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+
+    /**
+     * JDBC observations outside any request or service call (background pollers such as the
+     * outbox dispatcher and the replica lag check) would each open a trace of their own.
+     */
+    @Bean
+    public ObservationPredicate jdbcWithoutParentPredicate() {
+        return (name, context) -> !name.startsWith("jdbc.") || context.getParentObservation() != null;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.diagnostics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statements executed on behalf of one HTTP request, grouped by fingerprint.
+ */
+class RequestStatements {
+
+  private static final int MAX_FINGERPRINTS = 64;
+
+  private final Map<String, Integer> byFingerprint = new HashMap<>();
+  private int count;
+  private long elapsedMillis;
+
+  synchronized void record(String sql, long millis) {
+    count++;
+    elapsedMillis += millis;
+    String fingerprint = SqlFingerprint.of(sql);
+    if (byFingerprint.containsKey(fingerprint) || byFingerprint.size() < MAX_FINGERPRINTS) {
+      byFingerprint.merge(fingerprint, 1, Integer::sum);
+    }
+  }
+
+  synchronized int count() {
+    return count;
+  }
+
+  synchronized long elapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * Most frequent fingerprints first, formatted as {@code "<n>x <sql>"}.
+   */
+  synchronized List<String> top(int limit) {
+    return byFingerprint.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .limit(limit)
+        .map(entry -> entry.getValue() + "x " + entry.getKey())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.diagnostics;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL text to a shape shared by all executions of the same query, so repeated
+ * statements (the N+1 pattern) group together regardless of literals and IN-list length.
+ */
+public final class SqlFingerprint {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+  private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+  private SqlFingerprint() {
+  }
+
+  /**
+   * Returns the normalized fingerprint of the given statement.
+   */
+  public static String of(String sql) {
+    if (sql == null) {
+      return "";
+    }
+    String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+    normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+    return IN_LIST.matcher(normalized).replaceAll("in (?...)");
+  }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the statement budget filter for all requests.
+ */
+@Configuration
+public class StatementBudgetConfig {
+
+  /**
+   * Filter counting statements per request against the configured budgets.
+   */
+  @Bean
+  public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(
+      StatementCountingListener listener,
+      MeterRegistry meterRegistry,
+      @Value("${shareit.statements.default-budget:20}") int defaultBudget,
+      @Value("${shareit.statements.slow-request-ms:500}") long slowRequestMillis,
+      @Value("${shareit.statements.fail-on-violation:false}") boolean failOnViolation) {
+    return new FilterRegistrationBean<>(new StatementBudgetFilter(
+        listener, meterRegistry, defaultBudget, slowRequestMillis, failOnViolation));
+  }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.diagnostics;
+
+/**
+ * Raised in fail-on-violation mode when a request executes more statements than its handler declares.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+  public StatementBudgetExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts SQL statements per HTTP request, records them in the
+ * {@code http.server.requests.statements} histogram and logs requests that exceed the statement
+ * or time budget together with their most frequent statement fingerprints. With
+ * {@code shareit.statements.fail-on-violation} the request fails instead when a handler exceeds
+ * its declared {@link StatementBudget}.
+ */
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+  private static final int REPORTED_FINGERPRINTS = 5;
+
+  private final StatementCountingListener listener;
+  private final MeterRegistry meterRegistry;
+  private final int defaultBudget;
+  private final long slowRequestMillis;
+  private final boolean failOnViolation;
+
+  public StatementBudgetFilter(StatementCountingListener listener,
+                               MeterRegistry meterRegistry,
+                               int defaultBudget,
+                               long slowRequestMillis,
+                               boolean failOnViolation) {
+    this.listener = listener;
+    this.meterRegistry = meterRegistry;
+    this.defaultBudget = defaultBudget;
+    this.slowRequestMillis = slowRequestMillis;
+    this.failOnViolation = failOnViolation;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    long started = System.nanoTime();
+    RequestStatements statements = listener.begin();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      listener.end();
+    }
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+    String uri = uri(request);
+    DistributionSummary.builder("http.server.requests.statements")
+        .description("SQL statements executed per HTTP request")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(statements.count());
+
+    StatementBudget declared = declaredBudget(request);
+    int budget = declared != null ? declared.value() : defaultBudget;
+    boolean overBudget = statements.count() > budget;
+    if (overBudget || elapsedMillis > slowRequestMillis) {
+      log.warn("{} {} executed {} statements (budget {}) in {} ms, {} ms in SQL; top statements: {}",
+          request.getMethod(), uri, statements.count(), budget, elapsedMillis, statements.elapsedMillis(),
+          statements.top(REPORTED_FINGERPRINTS));
+    }
+    if (overBudget && declared != null && failOnViolation) {
+      throw new StatementBudgetExceededException(request.getMethod() + " " + uri + " executed "
+          + statements.count() + " statements, budget is " + budget + ": "
+          + statements.top(REPORTED_FINGERPRINTS));
+    }
+  }
+
+  private static String uri(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : "UNKNOWN";
+  }
+
+  private static StatementBudget declaredBudget(HttpServletRequest request) {
+    if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+      return handler.getMethodAnnotation(StatementBudget.class);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.diagnostics;
+
+import io.micrometer.context.ContextRegistry;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Datasource-proxy listener that attributes every executed statement to the request being
+ * handled on the current thread and logs individual statements slower than the threshold.
+ * The request is registered with the context-propagation registry, so work forked onto other
+ * threads through a captured context snapshot counts against the same request.
+ */
+@Slf4j
+@Component
+public class StatementCountingListener implements QueryExecutionListener {
+
+  private static final String CONTEXT_KEY = "shareit.request.statements";
+  private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+  private final long slowQueryMillis;
+
+  public StatementCountingListener(@Value("${shareit.statements.slow-query-ms:200}") long slowQueryMillis) {
+    this.slowQueryMillis = slowQueryMillis;
+    ContextRegistry.getInstance().registerThreadLocalAccessor(CONTEXT_KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+    long millis = execInfo.getElapsedTime();
+    if (millis >= slowQueryMillis) {
+      log.warn("Slow statement ({} ms): {}", millis, SqlFingerprint.of(sql));
+    }
+    RequestStatements statements = CURRENT.get();
+    if (statements != null) {
+      statements.record(sql, millis);
+    }
+  }
+
+  /**
+   * Starts attributing statements on this thread to a new request.
+   */
+  RequestStatements begin() {
+    RequestStatements statements = new RequestStatements();
+    CURRENT.set(statements);
+    return statements;
+  }
+
+  /**
+   * Stops attributing statements on this thread.
+   */
+  void end() {
+    CURRENT.remove();
+  }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Signals that the caller's deadline passed before the request could be completed.
+ */
+public class DeadlineExceededException extends RuntimeException {
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+}
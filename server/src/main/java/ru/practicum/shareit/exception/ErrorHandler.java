@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -46,6 +47,15 @@ public class ErrorHandler {
     return new ErrorResponse(e.getMessage());
   }
 
+  /**
+   * Reports work abandoned at the caller's deadline, or cancelled by a query timeout, as 504.
+   */
+  @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+  @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+  public ErrorResponse handleTimeout(RuntimeException e) {
+    return new ErrorResponse("Request timed out: " + e.getMessage());
+  }
+
   /**
    * Catch-all fallback to protect clients from leaking stack traces.
    */
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.export;
+
+import java.util.Locale;
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Formats a full export can be written in.
+ */
+public enum ExportFormat {
+  CSV("text/csv", "csv"),
+  NDJSON("application/x-ndjson", "ndjson");
+
+  private final String contentType;
+  private final String extension;
+
+  ExportFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String contentType() {
+    return contentType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  /**
+   * Parses the {@code format} request parameter, ignoring case.
+   */
+  public static ExportFormat from(String value) {
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Unknown export format: " + value);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.export;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Destination of an export, opened only once the first byte is about to be written. Until then
+ * the response is untouched, so a failed precondition still becomes a regular JSON error.
+ */
+@FunctionalInterface
+public interface ExportTarget {
+
+  OutputStream open(ExportFormat format) throws IOException;
+
+  /**
+   * Writes the export as the body of the response, offered as a download named {@code name}.
+   */
+  static ExportTarget of(HttpServletResponse response, String name) {
+    return format -> {
+      response.setContentType(format.contentType());
+      response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+          .filename(name + "." + format.extension())
+          .build()
+          .toString());
+      return response.getOutputStream();
+    };
+  }
+}
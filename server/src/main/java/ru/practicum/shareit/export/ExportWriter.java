@@ -0,0 +1,90 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes a stream of flat record rows as CSV (header from the record components) or NDJSON. Rows
+ * are written as they are read, so memory use does not depend on the number of rows.
+ */
+@Component
+public class ExportWriter {
+
+  private final ObjectMapper objectMapper;
+
+  public ExportWriter(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Writes all rows to the target and returns how many were written.
+   */
+  public <R extends Record> long write(Stream<R> rows, Class<R> type, ExportFormat format, ExportTarget target) {
+    try {
+      Writer out = new BufferedWriter(new OutputStreamWriter(target.open(format), StandardCharsets.UTF_8));
+      RecordComponent[] columns = type.getRecordComponents();
+      ObjectWriter json = objectMapper.writerFor(type);
+      if (format == ExportFormat.CSV) {
+        writeCsvHeader(columns, out);
+      }
+      long count = 0;
+      for (R row : (Iterable<R>) rows::iterator) {
+        if (format == ExportFormat.CSV) {
+          writeCsvRow(row, columns, out);
+        } else {
+          out.write(json.writeValueAsString(row));
+          out.write('\n');
+        }
+        count++;
+      }
+      out.flush();
+      return count;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeCsvHeader(RecordComponent[] columns, Writer out) throws IOException {
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      out.write(columns[i].getName());
+    }
+    out.write("\r\n");
+  }
+
+  private static void writeCsvRow(Record row, RecordComponent[] columns, Writer out) throws IOException {
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      Object value;
+      try {
+        value = columns[i].getAccessor().invoke(row);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Cannot read export column " + columns[i].getName(), e);
+      }
+      if (value != null) {
+        out.write(escape(value.toString()));
+      }
+    }
+    out.write("\r\n");
+  }
+
+  private static String escape(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.imports;
+
+import java.io.InputStream;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST endpoint for bulk imports.
+ */
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+
+  static final String NDJSON = "application/x-ndjson";
+
+  private final ImportService importService;
+
+  public ImportController(ImportService importService) {
+    this.importService = importService;
+  }
+
+  /**
+   * Imports users, items and bookings from an NDJSON body, read as it arrives.
+   */
+  @PostMapping(consumes = NDJSON)
+  public ImportReport importRows(InputStream body) {
+    return importService.importNdjson(body);
+  }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.imports;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.UserDto;
+
+/**
+ * Plain JDBC access for bulk import: reference lookups take one IN query per chunk and inserts go
+ * out as one JDBC batch per table. Identity ids rule out Hibernate insert batching, and the
+ * persistence context would only hold entities nobody reads again.
+ */
+@Repository
+class ImportJdbcRepository {
+
+  private final NamedParameterJdbcTemplate namedJdbc;
+  private final JdbcTemplate jdbc;
+
+  ImportJdbcRepository(NamedParameterJdbcTemplate namedJdbc) {
+    this.namedJdbc = namedJdbc;
+    this.jdbc = namedJdbc.getJdbcTemplate();
+  }
+
+  Map<String, Long> findUserIdsByEmail(Collection<String> emails) {
+    Map<String, Long> ids = new HashMap<>();
+    if (!emails.isEmpty()) {
+      namedJdbc.query("SELECT id, email FROM users WHERE email IN (:emails)", Map.of("emails", emails),
+          rs -> {
+            ids.put(rs.getString("email"), rs.getLong("id"));
+          });
+    }
+    return ids;
+  }
+
+  Set<Long> findExistingUserIds(Collection<Long> ids) {
+    return findExisting("SELECT id FROM users WHERE id IN (:ids)", ids);
+  }
+
+  Set<Long> findExistingRequestIds(Collection<Long> ids) {
+    return findExisting("SELECT id FROM requests WHERE id IN (:ids)", ids);
+  }
+
+  /**
+   * Owner id of each given item that exists.
+   */
+  Map<Long, Long> findItemOwners(Collection<Long> itemIds) {
+    Map<Long, Long> owners = new HashMap<>();
+    if (!itemIds.isEmpty()) {
+      namedJdbc.query("SELECT id, owner_id FROM items WHERE id IN (:ids)", Map.of("ids", itemIds),
+          rs -> {
+            owners.put(rs.getLong("id"), rs.getLong("owner_id"));
+          });
+    }
+    return owners;
+  }
+
+  /**
+   * Inserts the users and returns their generated ids in insertion order.
+   */
+  List<Long> insertUsers(List<UserDto> users) {
+    return insertReturningIds("INSERT INTO users (name, email) VALUES (?, ?)", users.size(), (ps, i) -> {
+      ps.setString(1, users.get(i).getName());
+      ps.setString(2, users.get(i).getEmail());
+    });
+  }
+
+  /**
+   * Inserts the items and returns their generated ids in insertion order.
+   */
+  List<Long> insertItems(List<ImportServiceImpl.PendingItem> items) {
+    return insertReturningIds(
+        "INSERT INTO items (name, description, available, owner_id, request_id) VALUES (?, ?, ?, ?, ?)",
+        items.size(), (ps, i) -> {
+          ImportServiceImpl.PendingItem item = items.get(i);
+          ps.setString(1, item.dto().getName());
+          ps.setString(2, item.dto().getDescription());
+          ps.setBoolean(3, item.dto().getAvailable());
+          ps.setLong(4, item.ownerId());
+          if (item.dto().getRequestId() != null) {
+            ps.setLong(5, item.dto().getRequestId());
+          } else {
+            ps.setNull(5, Types.BIGINT);
+          }
+        });
+  }
+
+  /**
+   * Inserts the bookings and returns their generated ids in insertion order.
+   */
+  List<Long> insertBookings(List<ImportServiceImpl.PendingBooking> bookings) {
+    return insertReturningIds(
+        "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)",
+        bookings.size(), (ps, i) -> {
+          ImportServiceImpl.PendingBooking booking = bookings.get(i);
+          ps.setObject(1, booking.start());
+          ps.setObject(2, booking.end());
+          ps.setLong(3, booking.itemId());
+          ps.setLong(4, booking.bookerId());
+          ps.setString(5, booking.status().name());
+        });
+  }
+
+  private Set<Long> findExisting(String sql, Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(namedJdbc.queryForList(sql, Map.of("ids", ids), Long.class));
+  }
+
+  private List<Long> insertReturningIds(String sql, int size, RowSetter setter) {
+    if (size == 0) {
+      return List.of();
+    }
+    KeyHolder keys = new GeneratedKeyHolder();
+    jdbc.batchUpdate(con -> con.prepareStatement(sql, new String[] {"id"}),
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            setter.set(ps, i);
+          }
+
+          @Override
+          public int getBatchSize() {
+            return size;
+          }
+        }, keys);
+    List<Long> ids = new ArrayList<>(size);
+    for (Map<String, Object> key : keys.getKeyList()) {
+      ids.add(((Number) key.values().iterator().next()).longValue());
+    }
+    return ids;
+  }
+
+  @FunctionalInterface
+  private interface RowSetter {
+    void set(PreparedStatement ps, int i) throws SQLException;
+  }
+}
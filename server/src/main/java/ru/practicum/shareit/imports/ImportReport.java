@@ -0,0 +1,54 @@
+package ru.practicum.shareit.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Outcome of a bulk import: rows read, rows written per kind and the rejected rows. Only the first
+ * {@code maxErrors} rejections are listed; {@code failed} counts all of them.
+ */
+@Getter
+public class ImportReport {
+
+  /**
+   * A rejected row and why; {@code line} is 1-based.
+   */
+  public record RowError(long line, String error) {
+  }
+
+  private long rows;
+  private long users;
+  private long items;
+  private long bookings;
+  private long failed;
+  private final List<RowError> errors = new ArrayList<>();
+  private boolean errorsTruncated;
+
+  @Getter(AccessLevel.NONE)
+  private final int maxErrors;
+
+  ImportReport(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  void rowRead() {
+    rows++;
+  }
+
+  void written(long users, long items, long bookings) {
+    this.users += users;
+    this.items += items;
+    this.bookings += bookings;
+  }
+
+  void fail(long line, String error) {
+    failed++;
+    if (errors.size() < maxErrors) {
+      errors.add(new RowError(line, error));
+    } else {
+      errorsTruncated = true;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.imports;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * One line of a bulk import. {@code type} selects the kind of row; each kind reads its own fields.
+ *
+ * <ul>
+ *   <li>{@code user}: name, email</li>
+ *   <li>{@code item}: name, description, available, requestId, owner by ownerId or ownerEmail,
+ *   optional ref so that later booking rows can point at it</li>
+ *   <li>{@code booking}: start, end, status (WAITING by default), item by itemId or itemRef,
+ *   booker by bookerId or bookerEmail</li>
+ * </ul>
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ImportRow {
+  private String type;
+  private String ref;
+
+  private String name;
+  private String email;
+
+  private String description;
+  private Boolean available;
+  private Long requestId;
+  private Long ownerId;
+  private String ownerEmail;
+
+  private LocalDateTime start;
+  private LocalDateTime end;
+  private String status;
+  private Long itemId;
+  private String itemRef;
+  private Long bookerId;
+  private String bookerEmail;
+}
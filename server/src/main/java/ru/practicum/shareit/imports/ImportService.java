@@ -0,0 +1,16 @@
+package ru.practicum.shareit.imports;
+
+import java.io.InputStream;
+
+/**
+ * Bulk creation of users, items and bookings from an uploaded file.
+ */
+public interface ImportService {
+
+  /**
+   * Reads NDJSON rows (see {@link ImportRow}) and writes the valid ones in chunks, each chunk in its
+   * own transaction. Invalid rows are skipped and reported; rows may refer to rows earlier in the
+   * same upload.
+   */
+  ImportReport importNdjson(InputStream body);
+}
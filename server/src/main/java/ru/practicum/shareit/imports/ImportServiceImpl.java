@@ -0,0 +1,436 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingExpiry;
+import ru.practicum.shareit.booking.BookingListCache;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemSummaries;
+import ru.practicum.shareit.item.ItemValidator;
+import ru.practicum.shareit.outbox.AffectedRows;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserValidator;
+
+/**
+ * Imports rows chunk by chunk: at most {@code shareit.import.chunk-size} rows are held at a time,
+ * whatever the size of the upload. Within a chunk users are written first, then items, then
+ * bookings, so a row can refer to any row before it. A chunk that fails to write is rolled back
+ * and all its rows are reported; chunks before it stay committed.
+ *
+ * <p>Imported rows are not published to the outbox one by one: they are existing data being
+ * brought over, not new activity. A chunk with bookings publishes one {@code BULK_IMPORTED} event
+ * naming the users and items it touched, so every instance drops the booking lists and item
+ * summaries it makes stale. Imported waiting bookings get expiry timers once their chunk commits,
+ * like created ones.
+ */
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+
+  private final ImportJdbcRepository importRepository;
+  private final ItemSummaries itemSummaries;
+  private final BookingListCache bookingListCache;
+  private final BookingExpiry bookingExpiry;
+  private final CollectionVersions collectionVersions;
+  private final OutboxPublisher outboxPublisher;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+  private final int maxErrors;
+
+  public ImportServiceImpl(ImportJdbcRepository importRepository,
+                           ItemSummaries itemSummaries,
+                           BookingListCache bookingListCache,
+                           BookingExpiry bookingExpiry,
+                           CollectionVersions collectionVersions,
+                           OutboxPublisher outboxPublisher,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.import.chunk-size:1000}") int chunkSize,
+                           @Value("${shareit.import.max-errors:100}") int maxErrors) {
+    this.importRepository = importRepository;
+    this.itemSummaries = itemSummaries;
+    this.bookingListCache = bookingListCache;
+    this.bookingExpiry = bookingExpiry;
+    this.collectionVersions = collectionVersions;
+    this.outboxPublisher = outboxPublisher;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    this.maxErrors = maxErrors;
+  }
+
+  @Override
+  public ImportReport importNdjson(InputStream body) {
+    ImportReport report = new ImportReport(maxErrors);
+    Map<String, ItemKey> itemRefs = new HashMap<>();
+    List<Line> chunk = new ArrayList<>(chunkSize);
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      long number = 0;
+      for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+        number++;
+        if (text.isBlank()) {
+          continue;
+        }
+        report.rowRead();
+        chunk.add(parse(number, text));
+        if (chunk.size() == chunkSize) {
+          writeChunk(chunk, itemRefs, report);
+          chunk.clear();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (!chunk.isEmpty()) {
+      writeChunk(chunk, itemRefs, report);
+    }
+    log.info("Imported {} users, {} items, {} bookings from {} rows, {} rejected", report.getUsers(),
+        report.getItems(), report.getBookings(), report.getRows(), report.getFailed());
+    return report;
+  }
+
+  private Line parse(long number, String text) {
+    try {
+      return new Line(number, objectMapper.readValue(text, ImportRow.class), null);
+    } catch (JsonProcessingException e) {
+      return new Line(number, null, "Malformed row: " + e.getOriginalMessage());
+    }
+  }
+
+  private void writeChunk(List<Line> lines, Map<String, ItemKey> itemRefs, ImportReport report) {
+    Chunk chunk = new Chunk(itemRefs);
+    try {
+      transactionTemplate.executeWithoutResult(status -> importChunk(lines, chunk));
+    } catch (DataAccessException e) {
+      String error = "Chunk rolled back: " + e.getMostSpecificCause().getMessage();
+      lines.forEach(line -> report.fail(line.number(), error));
+      return;
+    }
+    chunk.errors.sort(Comparator.comparingLong(ImportReport.RowError::line));
+    chunk.errors.forEach(error -> report.fail(error.line(), error.error()));
+    report.written(chunk.users, chunk.items, chunk.bookings);
+    itemRefs.putAll(chunk.newRefs);
+    if (!chunk.approvedItemIds.isEmpty()) {
+      itemSummaries.invalidate(chunk.approvedItemIds);
+    }
+    if (!chunk.bookingUserIds.isEmpty()) {
+      bookingListCache.bookingsWritten(chunk.bookingUserIds);
+    }
+    chunk.waitingStarts.forEach(bookingExpiry::schedule);
+  }
+
+  private void importChunk(List<Line> lines, Chunk chunk) {
+    List<Line> users = new ArrayList<>();
+    List<Line> items = new ArrayList<>();
+    List<Line> bookings = new ArrayList<>();
+    for (Line line : lines) {
+      if (line.error() != null) {
+        chunk.fail(line, line.error());
+        continue;
+      }
+      String type = line.row().getType() == null ? "" : line.row().getType().toLowerCase(Locale.ROOT);
+      switch (type) {
+        case "user" -> users.add(line);
+        case "item" -> items.add(line);
+        case "booking" -> bookings.add(line);
+        default -> chunk.fail(line, "Unknown row type: " + line.row().getType());
+      }
+    }
+    importUsers(users, chunk);
+    importItems(items, chunk);
+    importBookings(bookings, chunk);
+    // A chunk touches the lists of many users; one epoch bump retags them all.
+    if (chunk.items > 0 || chunk.bookings > 0) {
+      collectionVersions.bumpAll();
+    }
+    if (chunk.firstBookingId != null) {
+      outboxPublisher.publish(DomainEventType.BULK_IMPORTED, chunk.firstBookingId,
+          new AffectedRows(chunk.bookingUserIds, chunk.approvedItemIds));
+    }
+  }
+
+  private void importUsers(List<Line> lines, Chunk chunk) {
+    List<Line> valid = new ArrayList<>();
+    Set<String> emails = new HashSet<>();
+    for (Line line : lines) {
+      try {
+        UserValidator.validateCreate(userDto(line.row()));
+      } catch (ValidationException e) {
+        chunk.fail(line, e.getMessage());
+        continue;
+      }
+      if (!emails.add(line.row().getEmail())) {
+        chunk.fail(line, emailTaken(line.row().getEmail()));
+        continue;
+      }
+      valid.add(line);
+    }
+    Set<String> taken = importRepository.findUserIdsByEmail(emails).keySet();
+    List<UserDto> pending = new ArrayList<>();
+    for (Line line : valid) {
+      if (taken.contains(line.row().getEmail())) {
+        chunk.fail(line, emailTaken(line.row().getEmail()));
+      } else {
+        pending.add(userDto(line.row()));
+      }
+    }
+    List<Long> ids = importRepository.insertUsers(pending);
+    collectionVersions.register(ids);
+    for (int i = 0; i < pending.size(); i++) {
+      chunk.userIds.put(pending.get(i).getEmail(), ids.get(i));
+    }
+    chunk.users += pending.size();
+  }
+
+  private void importItems(List<Line> lines, Chunk chunk) {
+    List<Line> valid = new ArrayList<>();
+    for (Line line : lines) {
+      try {
+        ItemValidator.validateCreate(itemDto(line.row()));
+        valid.add(line);
+      } catch (ValidationException e) {
+        chunk.fail(line, e.getMessage());
+      }
+    }
+    UserLookup owners = lookupUsers(valid, ImportRow::getOwnerId, ImportRow::getOwnerEmail, chunk);
+    Set<Long> requestIds = importRepository.findExistingRequestIds(valid.stream()
+        .map(line -> line.row().getRequestId()).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+    List<PendingItem> pending = new ArrayList<>();
+    for (Line line : valid) {
+      ImportRow row = line.row();
+      String error = owners.missing(row.getOwnerId(), row.getOwnerEmail(), "Owner");
+      if (error == null && row.getRequestId() != null && !requestIds.contains(row.getRequestId())) {
+        error = "Request with id=" + row.getRequestId() + " not found.";
+      }
+      if (error == null && row.getRef() != null && chunk.hasRef(row.getRef())) {
+        error = "Item ref '" + row.getRef() + "' is already used.";
+      }
+      if (error != null) {
+        chunk.fail(line, error);
+        continue;
+      }
+      PendingItem item = new PendingItem(itemDto(row), owners.find(row.getOwnerId(), row.getOwnerEmail()),
+          row.getRef());
+      if (item.ref() != null) {
+        // Reserved now so a second row with the same ref in this chunk is rejected.
+        chunk.newRefs.put(item.ref(), null);
+      }
+      pending.add(item);
+    }
+    List<Long> ids = importRepository.insertItems(pending);
+    for (int i = 0; i < pending.size(); i++) {
+      PendingItem item = pending.get(i);
+      if (item.ref() != null) {
+        chunk.newRefs.put(item.ref(), new ItemKey(ids.get(i), item.ownerId()));
+      }
+    }
+    chunk.items += pending.size();
+  }
+
+  private void importBookings(List<Line> lines, Chunk chunk) {
+    List<Line> valid = new ArrayList<>();
+    for (Line line : lines) {
+      String error = validateBooking(line.row());
+      if (error != null) {
+        chunk.fail(line, error);
+      } else {
+        valid.add(line);
+      }
+    }
+    UserLookup bookers = lookupUsers(valid, ImportRow::getBookerId, ImportRow::getBookerEmail, chunk);
+    Map<Long, Long> itemOwners = importRepository.findItemOwners(valid.stream()
+        .map(line -> line.row().getItemId()).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+    List<PendingBooking> pending = new ArrayList<>();
+    for (Line line : valid) {
+      ImportRow row = line.row();
+      ItemKey item = chunk.findRef(row.getItemRef());
+      if (row.getItemId() != null) {
+        Long ownerId = itemOwners.get(row.getItemId());
+        item = ownerId != null ? new ItemKey(row.getItemId(), ownerId) : null;
+      }
+      String error = bookers.missing(row.getBookerId(), row.getBookerEmail(), "Booker");
+      if (error == null && item == null) {
+        error = row.getItemId() != null ? "Item with id=" + row.getItemId() + " not found."
+            : "Item ref '" + row.getItemRef() + "' not found.";
+      }
+      Long bookerId = error == null ? bookers.find(row.getBookerId(), row.getBookerEmail()) : null;
+      if (error == null && bookerId.equals(item.ownerId())) {
+        error = "Owner cannot book their own item.";
+      }
+      if (error != null) {
+        chunk.fail(line, error);
+        continue;
+      }
+      BookingStatus status = row.getStatus() == null ? BookingStatus.WAITING : BookingStatus.valueOf(row.getStatus());
+      pending.add(new PendingBooking(row.getStart(), row.getEnd(), item.id(), bookerId, status));
+      chunk.bookingUserIds.add(bookerId);
+      chunk.bookingUserIds.add(item.ownerId());
+      if (status == BookingStatus.APPROVED) {
+        chunk.approvedItemIds.add(item.id());
+      }
+    }
+    List<Long> ids = importRepository.insertBookings(pending);
+    if (!ids.isEmpty()) {
+      chunk.firstBookingId = ids.getFirst();
+    }
+    for (int i = 0; i < pending.size(); i++) {
+      if (pending.get(i).status() == BookingStatus.WAITING) {
+        chunk.waitingStarts.put(ids.get(i), pending.get(i).start());
+      }
+    }
+    chunk.bookings += pending.size();
+  }
+
+  private static String validateBooking(ImportRow row) {
+    if (row.getStart() == null) {
+      return "Start date must be provided.";
+    }
+    if (row.getEnd() == null) {
+      return "End date must be provided.";
+    }
+    if (!row.getEnd().isAfter(row.getStart())) {
+      return "End date must be after start date.";
+    }
+    if (row.getItemId() == null && row.getItemRef() == null) {
+      return "Item id or ref must be provided.";
+    }
+    if (row.getStatus() != null) {
+      try {
+        BookingStatus.valueOf(row.getStatus());
+      } catch (IllegalArgumentException e) {
+        return "Unknown booking status: " + row.getStatus();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Resolves the user references of the given rows: users created in this chunk by email, all
+   * others with one query by id and one by email.
+   */
+  private UserLookup lookupUsers(List<Line> lines, Function<ImportRow, Long> id,
+                                 Function<ImportRow, String> email, Chunk chunk) {
+    Set<Long> ids = new LinkedHashSet<>();
+    Set<String> emails = new LinkedHashSet<>();
+    for (Line line : lines) {
+      if (id.apply(line.row()) != null) {
+        ids.add(id.apply(line.row()));
+      } else if (email.apply(line.row()) != null && !chunk.userIds.containsKey(email.apply(line.row()))) {
+        emails.add(email.apply(line.row()));
+      }
+    }
+    Map<String, Long> byEmail = new HashMap<>(chunk.userIds);
+    byEmail.putAll(importRepository.findUserIdsByEmail(emails));
+    return new UserLookup(importRepository.findExistingUserIds(ids), byEmail);
+  }
+
+  private static UserDto userDto(ImportRow row) {
+    return new UserDto(null, row.getName(), row.getEmail());
+  }
+
+  private static ItemDto itemDto(ImportRow row) {
+    return new ItemDto(null, row.getName(), row.getDescription(), row.getAvailable(), row.getRequestId());
+  }
+
+  private static String emailTaken(String email) {
+    return "Email '" + email + "' is already used by another user.";
+  }
+
+  private record Line(long number, ImportRow row, String error) {
+  }
+
+  private record ItemKey(long id, long ownerId) {
+  }
+
+  record PendingItem(ItemDto dto, long ownerId, String ref) {
+  }
+
+  record PendingBooking(LocalDateTime start, LocalDateTime end, long itemId, long bookerId, BookingStatus status) {
+  }
+
+  private record UserLookup(Set<Long> ids, Map<String, Long> byEmail) {
+
+    Long find(Long id, String email) {
+      if (id != null) {
+        return ids.contains(id) ? id : null;
+      }
+      return email != null ? byEmail.get(email) : null;
+    }
+
+    String missing(Long id, String email, String role) {
+      if (id == null && email == null) {
+        return role + " id or email must be provided.";
+      }
+      if (find(id, email) != null) {
+        return null;
+      }
+      return id != null ? "User with id=" + id + " not found." : "User with email '" + email + "' not found.";
+    }
+  }
+
+  /**
+   * What one chunk wrote and rejected; merged into the report only once the chunk has committed.
+   */
+  private static final class Chunk {
+    private final Map<String, ItemKey> committedRefs;
+    private final Map<String, ItemKey> newRefs = new HashMap<>();
+    private final Map<String, Long> userIds = new HashMap<>();
+    private final Set<Long> approvedItemIds = new HashSet<>();
+    private final Set<Long> bookingUserIds = new HashSet<>();
+    private final Map<Long, LocalDateTime> waitingStarts = new HashMap<>();
+    private final List<ImportReport.RowError> errors = new ArrayList<>();
+    private long users;
+    private long items;
+    private long bookings;
+    private Long firstBookingId;
+
+    private Chunk(Map<String, ItemKey> committedRefs) {
+      this.committedRefs = committedRefs;
+    }
+
+    boolean hasRef(String ref) {
+      return newRefs.containsKey(ref) || committedRefs.containsKey(ref);
+    }
+
+    ItemKey findRef(String ref) {
+      return newRefs.containsKey(ref) ? newRefs.get(ref) : committedRefs.get(ref);
+    }
+
+    void fail(Line line, String error) {
+      errors.add(new ImportReport.RowError(line.number(), error));
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 /**
@@ -11,10 +12,12 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
   /**
    * Finds all comments for a specific item, ordered by creation date descending.
    */
+  @EntityGraph(attributePaths = "author")
   List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
 
   /**
    * Finds all comments for items in the given list.
    */
+  @EntityGraph(attributePaths = "author")
   List<Comment> findByItemIdIn(List<Long> itemIds);
 }
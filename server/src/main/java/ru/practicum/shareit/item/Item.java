@@ -9,17 +9,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Version;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 /**
- * Item aggregate with owner and optional request reference.
+ * Item aggregate with owner and optional request reference. Versioned, so concurrent edits are
+ * detected instead of the last one silently winning.
  */
 @Entity
 @Table(name = "items")
@@ -27,7 +29,6 @@ import ru.practicum.shareit.user.User;
 @Setter
 @ToString(exclude = {"owner", "request"})
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class Item {
   @Id
@@ -50,4 +51,18 @@ public class Item {
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "request_id")
   private ItemRequest request;
+
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  public Item(Long id, String name, String description, boolean available, User owner, ItemRequest request) {
+    this.id = id;
+    this.name = name;
+    this.description = description;
+    this.available = available;
+    this.owner = owner;
+    this.request = request;
+  }
 }
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -11,6 +14,12 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.common.ConditionalGet;
+import ru.practicum.shareit.common.IdempotentOperation;
+import ru.practicum.shareit.common.IdempotentRequests;
+import ru.practicum.shareit.diagnostics.StatementBudget;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
 
 /**
  * REST endpoints for CRUD operations over items.
@@ -22,26 +31,33 @@ public class ItemController {
   private static final String USER_HEADER = "X-Sharer-User-Id";
 
   private final ItemService itemService;
+  private final IdempotentRequests idempotentRequests;
 
-  public ItemController(ItemService itemService) {
+  public ItemController(ItemService itemService, IdempotentRequests idempotentRequests) {
     this.itemService = itemService;
+    this.idempotentRequests = idempotentRequests;
   }
 
   /**
-   * Registers a new item owned by the requester.
+   * Registers a new item owned by the requester; a retry with the same idempotency key gets the
+   * original item.
    */
   @PostMapping
+  @StatementBudget(7)
   public ItemDto create(
       @RequestHeader(USER_HEADER) long userId,
+      @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
       @RequestBody ItemDto itemDto
   ) {
-    return itemService.create(userId, itemDto);
+    return idempotentRequests.execute(userId, IdempotentOperation.CREATE_ITEM, idempotencyKey,
+        itemDto, ItemDto.class, () -> itemService.create(userId, itemDto));
   }
 
   /**
    * Applies partial updates to an existing item when owned by the caller.
    */
   @PatchMapping("/{itemId}")
+  @StatementBudget(7)
   public ItemDto update(
       @RequestHeader(USER_HEADER) long userId,
       @PathVariable long itemId,
@@ -54,6 +70,7 @@ public class ItemController {
    * Retrieves item details considering requester visibility rules.
    */
   @GetMapping("/{itemId}")
+  @StatementBudget(6)
   public ItemDto getById(
       @RequestHeader(USER_HEADER) long userId,
       @PathVariable long itemId
@@ -62,17 +79,35 @@ public class ItemController {
   }
 
   /**
-   * Lists all items belonging to the provided owner id.
+   * Lists all items belonging to the provided owner id; answers 304 while the client's tag is current.
    */
   @GetMapping
-  public List<ItemDto> getOwnerItems(@RequestHeader(USER_HEADER) long userId) {
-    return itemService.getOwnerItems(userId);
+  @StatementBudget(7)
+  public ResponseEntity<List<ItemDto>> getOwnerItems(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return ConditionalGet.respond(itemService.getOwnerItemsTag(userId), ifNoneMatch,
+        () -> itemService.getOwnerItems(userId));
+  }
+
+  /**
+   * Streams all items of the owner as CSV or NDJSON.
+   */
+  @GetMapping("/export")
+  @StatementBudget(2)
+  public void export(
+      @RequestHeader(USER_HEADER) long userId,
+      @RequestParam(value = "format", defaultValue = "csv") String format,
+      HttpServletResponse response
+  ) {
+    itemService.exportByOwner(userId, ExportFormat.from(format), ExportTarget.of(response, "items"));
   }
 
   /**
    * Searches available items by text across name and description fields.
    */
   @GetMapping("/search")
+  @StatementBudget(2)
   public List<ItemDto> search(
       @RequestHeader(USER_HEADER) long userId,
       @RequestParam("text") String text
@@ -81,14 +116,18 @@ public class ItemController {
   }
 
   /**
-   * Adds a comment to an item from a user who has completed a booking.
+   * Adds a comment to an item from a user who has completed a booking; a retry with the same
+   * idempotency key gets the original comment.
    */
   @PostMapping("/{itemId}/comment")
+  @StatementBudget(9)
   public CommentDto addComment(
       @RequestHeader(USER_HEADER) long userId,
+      @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
       @PathVariable long itemId,
       @RequestBody CommentDto commentDto
   ) {
-    return itemService.addComment(userId, itemId, commentDto);
+    return idempotentRequests.execute(userId, IdempotentOperation.ADD_COMMENT, idempotencyKey,
+        List.of(itemId, commentDto), CommentDto.class, () -> itemService.addComment(userId, itemId, commentDto));
   }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+/**
+ * One line of an item export; read straight from the query, without entities.
+ */
+public record ItemExportRow(Long id,
+                            String name,
+                            String description,
+                            boolean available,
+                            Long requestId) {
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.common.BatchLookup;
+
+/**
+ * JDBC read path for the owner's item list: rows map straight into {@link ItemDto} and
+ * {@link CommentDto} without loading entities into the persistence context.
+ */
+@Repository
+class ItemJdbcRepository {
+
+  private final NamedParameterJdbcTemplate namedJdbc;
+
+  ItemJdbcRepository(NamedParameterJdbcTemplate namedJdbc) {
+    this.namedJdbc = namedJdbc;
+  }
+
+  List<ItemDto> findByOwnerId(long ownerId) {
+    return namedJdbc.query("SELECT id, name, description, available, request_id, owner_id FROM items "
+        + "WHERE owner_id = :ownerId ORDER BY id", Map.of("ownerId", ownerId), (rs, rowNum) -> {
+          ItemDto dto = new ItemDto(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+              rs.getBoolean("available"), rs.getObject("request_id", Long.class));
+          dto.setOwnerId(rs.getLong("owner_id"));
+          return dto;
+        });
+  }
+
+  /**
+   * All comments of the given items, newest first per item.
+   */
+  Map<Long, List<CommentDto>> findCommentsByItemIdIn(Collection<Long> itemIds) {
+    List<Map.Entry<Long, CommentDto>> rows = BatchLookup.findAll(itemIds, chunk -> namedJdbc.query(
+        "SELECT c.id, c.text, c.item_id, c.created, u.name AS author_name FROM comments c "
+            + "JOIN users u ON u.id = c.author_id WHERE c.item_id IN (:itemIds) ORDER BY c.created DESC, c.id DESC",
+        Map.of("itemIds", chunk), (rs, rowNum) -> Map.entry(rs.getLong("item_id"), new CommentDto(
+            rs.getLong("id"),
+            rs.getString("text"),
+            rs.getString("author_name"),
+            rs.getObject("created", LocalDateTime.class)))));
+    return rows.stream().collect(Collectors.groupingBy(Map.Entry::getKey,
+        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+  }
+}
@@ -1,9 +1,16 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.common.QueryTimeouts;
 
 /**
  * JPA repository for Item entities.
@@ -15,13 +22,36 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
    */
   List<Item> findByOwnerIdOrderByIdAsc(Long ownerId);
 
+  /**
+   * Streams the owner's items for export, in id order.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT new ru.practicum.shareit.item.ItemExportRow(i.id, i.name, i.description, i.available, r.id) " +
+         "FROM Item i LEFT JOIN i.request r WHERE i.owner.id = :ownerId ORDER BY i.id")
+  Stream<ItemExportRow> streamExportByOwnerId(@Param("ownerId") Long ownerId);
+
   /**
    * Searches available items by text in name or description (case-insensitive).
    */
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = QueryTimeouts.SEARCH))
   @Query("SELECT i FROM Item i WHERE i.available = true " +
          "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
          "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
   List<Item> searchAvailableByText(@Param("text") String text);
 
-  List<Item> findAllByRequestId(Long requestId);
+  /**
+   * Finds the items answering any of the given requests in one query.
+   */
+  List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+  /**
+   * Finds the items whose summaries show the user: the user's own items and those the user booked
+   * or commented on, archived bookings included.
+   */
+  @Query(value = "SELECT id FROM items WHERE owner_id = :userId " +
+                 "UNION SELECT item_id FROM bookings WHERE booker_id = :userId " +
+                 "UNION SELECT item_id FROM bookings_archive WHERE booker_id = :userId " +
+                 "UNION SELECT item_id FROM comments WHERE author_id = :userId",
+         nativeQuery = true)
+  List<Long> findIdsShowingUser(@Param("userId") Long userId);
 }
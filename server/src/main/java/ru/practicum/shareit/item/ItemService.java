@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item;
 
 import java.util.List;
+import ru.practicum.shareit.common.CollectionTag;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
 
 /**
  * Contract for item operations exposed to controllers and other services.
@@ -27,6 +30,11 @@ public interface ItemService {
    */
   List<ItemDto> getOwnerItems(long ownerId);
 
+  /**
+   * Tag of the owner's item list, or {@code null} if the owner has none.
+   */
+  CollectionTag getOwnerItemsTag(long ownerId);
+
   /**
    * Performs text-based search across available items, typically ignoring unavailable entries.
    */
@@ -36,4 +44,9 @@ public interface ItemService {
    * Adds a comment to an item from a user who has completed a booking.
    */
   CommentDto addComment(long userId, long itemId, CommentDto commentDto);
+
+  /**
+   * Writes all items of the owner to the target.
+   */
+  void exportByOwner(long ownerId, ExportFormat format, ExportTarget target);
 }
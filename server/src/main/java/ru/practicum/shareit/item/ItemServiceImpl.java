@@ -5,14 +5,31 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.BookingListCache;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.common.CollectionTag;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.common.FanOut;
+import ru.practicum.shareit.common.OptimisticRetry;
+import ru.practicum.shareit.common.ReadPath;
+import ru.practicum.shareit.common.VersionedCollection;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportTarget;
+import ru.practicum.shareit.export.ExportWriter;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
@@ -22,6 +39,7 @@ import ru.practicum.shareit.request.ItemRequestRepository;
 /**
  * Application-layer service encapsulating item validation and ownership checks.
  */
+@Observed(name = "shareit.service")
 @Service
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
@@ -29,25 +47,55 @@ public class ItemServiceImpl implements ItemService {
   private final ItemRepository itemRepository;
   private final UserRepository userRepository;
   private final BookingRepository bookingRepository;
+  private final ArchivedBookingRepository archivedBookingRepository;
   private final CommentRepository commentRepository;
   private final ItemRequestRepository itemRequestRepository;
+  private final ItemSummaries itemSummaries;
+  private final OutboxPublisher outboxPublisher;
+  private final ExportWriter exportWriter;
+  private final ItemJdbcRepository itemJdbcRepository;
+  private final ReadPath readPath;
+  private final FanOut fanOut;
+  private final BookingListCache bookingListCache;
+  private final CollectionVersions collectionVersions;
+  private final OptimisticRetry optimisticRetry;
 
   public ItemServiceImpl(ItemRepository itemRepository,
                          UserRepository userRepository,
                          BookingRepository bookingRepository,
+                         ArchivedBookingRepository archivedBookingRepository,
                          CommentRepository commentRepository,
-                         ItemRequestRepository itemRequestRepository) {
+                         ItemRequestRepository itemRequestRepository,
+                         ItemSummaries itemSummaries,
+                         OutboxPublisher outboxPublisher,
+                         ExportWriter exportWriter,
+                         ItemJdbcRepository itemJdbcRepository,
+                         @Value("${shareit.read-path:jpa}") ReadPath readPath,
+                         FanOut fanOut,
+                         BookingListCache bookingListCache,
+                         CollectionVersions collectionVersions,
+                         OptimisticRetry optimisticRetry) {
     this.itemRepository = itemRepository;
     this.userRepository = userRepository;
     this.bookingRepository = bookingRepository;
+    this.archivedBookingRepository = archivedBookingRepository;
     this.commentRepository = commentRepository;
     this.itemRequestRepository = itemRequestRepository;
+    this.itemSummaries = itemSummaries;
+    this.outboxPublisher = outboxPublisher;
+    this.exportWriter = exportWriter;
+    this.itemJdbcRepository = itemJdbcRepository;
+    this.readPath = readPath;
+    this.fanOut = fanOut;
+    this.bookingListCache = bookingListCache;
+    this.collectionVersions = collectionVersions;
+    this.optimisticRetry = optimisticRetry;
   }
 
   @Override
   @Transactional
   public ItemDto create(long ownerId, ItemDto itemDto) {
-    validateCreate(itemDto);
+    ItemValidator.validateCreate(itemDto);
     User owner = userRepository.findById(ownerId)
         .orElseThrow(() -> new NotFoundException("User with id=" + ownerId + " not found."));
 
@@ -59,12 +107,24 @@ public class ItemServiceImpl implements ItemService {
 
     Item item = ItemMapper.toItem(itemDto, owner, request);
     Item created = itemRepository.save(item);
-    return ItemMapper.toItemDto(created);
+    collectionVersions.bump(Map.of(VersionedCollection.ITEMS, List.of(ownerId),
+        VersionedCollection.REQUESTS, request != null ? List.of(request.getRequestor().getId()) : List.of()));
+    ItemDto result = ItemMapper.toItemDto(created);
+    outboxPublisher.publish(DomainEventType.ITEM_CREATED, created.getId(), result);
+    return result;
   }
 
+  /**
+   * Applies the patch to the latest version of the item: an attempt that loses to a concurrent
+   * update of the same item fails on the version and is run again by {@link OptimisticRetry}.
+   */
   @Override
-  @Transactional
+  @Transactional(propagation = Propagation.SUPPORTS)
   public ItemDto update(long ownerId, long itemId, ItemDto itemDto) {
+    return optimisticRetry.run("item.update", () -> applyUpdate(ownerId, itemId, itemDto));
+  }
+
+  private ItemDto applyUpdate(long ownerId, long itemId, ItemDto itemDto) {
     if (!userRepository.existsById(ownerId)) {
       throw new NotFoundException("User with id=" + ownerId + " not found.");
     }
@@ -87,36 +147,63 @@ public class ItemServiceImpl implements ItemService {
       existing.setAvailable(itemDto.getAvailable());
     }
 
-    Item updated = itemRepository.save(existing);
-    return ItemMapper.toItemDto(updated);
+    // Flushed now, so a lost update fails its version check before the event takes an outbox id.
+    Item updated = itemRepository.saveAndFlush(existing);
+    // Bookings show the item, so cached booking lists of its owner and bookers are stale.
+    List<Long> bookerIds = bookingRepository.findBookerIdsByItemId(itemId);
+    List<Long> affected = new ArrayList<>(bookerIds);
+    affected.add(ownerId);
+    bookingListCache.bookingsWritten(affected);
+    collectionVersions.bump(Map.of(VersionedCollection.ITEMS, List.of(ownerId),
+        VersionedCollection.OWNER_BOOKINGS, List.of(ownerId),
+        VersionedCollection.BOOKINGS, bookerIds,
+        VersionedCollection.REQUESTS, existing.getRequest() != null
+            ? List.of(existing.getRequest().getRequestor().getId()) : List.of()));
+    ItemDto result = ItemMapper.toItemDto(updated);
+    outboxPublisher.publish(DomainEventType.ITEM_UPDATED, updated.getId(), result);
+    return result;
   }
 
+  /**
+   * Looks up the user, the item and its summary concurrently; the summary is discarded when the
+   * user or the item does not exist and is cached only once both are found.
+   */
   @Override
+  @Transactional(propagation = Propagation.SUPPORTS)
   public ItemDto getById(long userId, long itemId) {
-    if (!userRepository.existsById(userId)) {
+    LocalDateTime now = LocalDateTime.now();
+    FanOut.Task<Boolean> userExists;
+    FanOut.Task<Optional<ItemDto>> found;
+    FanOut.Task<ItemSummaries.Lookup> summaryTask;
+    try (FanOut.Scope scope = fanOut.open()) {
+      userExists = scope.fork(() -> userRepository.existsById(userId));
+      found = scope.fork(() -> itemRepository.findById(itemId).map(ItemMapper::toItemDto));
+      summaryTask = scope.fork(() -> itemSummaries.lookup(itemId, now));
+      scope.join();
+    }
+
+    if (!userExists.get()) {
       throw new NotFoundException("User with id=" + userId + " not found.");
     }
 
-    Item item = itemRepository.findById(itemId)
+    ItemDto dto = found.get()
         .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found."));
 
-    ItemDto dto = ItemMapper.toItemDto(item);
-
-    // Add comments
-    List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(itemId);
-    dto.setComments(comments.stream().map(CommentMapper::toCommentDto).toList());
+    ItemSummaries.Lookup lookup = summaryTask.get();
+    itemSummaries.keep(lookup);
+    ItemSummary summary = lookup.summary();
+    if (summary.hasAllComments()) {
+      dto.setComments(summary.latestComments());
+    } else {
+      dto.setComments(commentRepository.findByItemIdOrderByCreatedDesc(itemId).stream()
+          .map(CommentMapper::toCommentDto)
+          .toList());
+    }
 
     // Add booking info only for owner
-    if (item.getOwner().getId().equals(userId)) {
-      LocalDateTime now = LocalDateTime.now();
-      List<Booking> lastBookings = bookingRepository.findLastBookingByItemId(itemId, now);
-      if (!lastBookings.isEmpty()) {
-        dto.setLastBooking(BookingMapper.toBookingShortDto(lastBookings.get(0)));
-      }
-      List<Booking> nextBookings = bookingRepository.findNextBookingByItemId(itemId, now);
-      if (!nextBookings.isEmpty()) {
-        dto.setNextBooking(BookingMapper.toBookingShortDto(nextBookings.get(0)));
-      }
+    if (dto.getOwnerId().equals(userId)) {
+      dto.setLastBooking(summary.lastBooking());
+      dto.setNextBooking(summary.nextBooking());
     }
 
     return dto;
@@ -128,48 +215,56 @@ public class ItemServiceImpl implements ItemService {
       throw new NotFoundException("User with id=" + ownerId + " not found.");
     }
 
-    List<Item> items = itemRepository.findByOwnerIdOrderByIdAsc(ownerId);
+    List<ItemDto> items = readPath == ReadPath.JDBC
+        ? itemJdbcRepository.findByOwnerId(ownerId)
+        : itemRepository.findByOwnerIdOrderByIdAsc(ownerId).stream().map(ItemMapper::toItemDto).toList();
     if (items.isEmpty()) {
       return new ArrayList<>();
     }
 
-    List<Long> itemIds = items.stream().map(Item::getId).toList();
-    LocalDateTime now = LocalDateTime.now();
-
-    // Fetch all bookings for these items
-    List<Booking> allBookings = bookingRepository.findByItemIdIn(itemIds);
-    Map<Long, List<Booking>> bookingsByItem = allBookings.stream()
-        .collect(Collectors.groupingBy(b -> b.getItem().getId()));
-
-    // Fetch all comments for these items
-    List<Comment> allComments = commentRepository.findByItemIdIn(itemIds);
-    Map<Long, List<Comment>> commentsByItem = allComments.stream()
-        .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+    List<Long> itemIds = items.stream().map(ItemDto::getId).toList();
+    Map<Long, ItemSummary> summaries = itemSummaries.getAll(itemIds, LocalDateTime.now());
 
-    return items.stream().map(item -> {
-      ItemDto dto = ItemMapper.toItemDto(item);
-
-      // Add comments
-      List<Comment> itemComments = commentsByItem.getOrDefault(item.getId(), new ArrayList<>());
-      dto.setComments(itemComments.stream().map(CommentMapper::toCommentDto).toList());
-
-      // Add booking info
-      List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), new ArrayList<>());
+    // Items with more comments than the summary keeps get theirs in one extra query
+    List<Long> truncated = itemIds.stream()
+        .filter(id -> !summaries.get(id).hasAllComments())
+        .toList();
+    Map<Long, List<CommentDto>> fullComments;
+    if (truncated.isEmpty()) {
+      fullComments = Map.of();
+    } else if (readPath == ReadPath.JDBC) {
+      fullComments = itemJdbcRepository.findCommentsByItemIdIn(truncated);
+    } else {
+      fullComments = BatchLookup.findAll(truncated, commentRepository::findByItemIdIn).stream()
+          .sorted(Comparator.comparing(Comment::getCreated).reversed())
+          .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+              Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
 
-      // Find last booking (end < now, sorted by end desc)
-      itemBookings.stream()
-          .filter(b -> b.getEnd().isBefore(now))
-          .max(Comparator.comparing(Booking::getEnd))
-          .ifPresent(b -> dto.setLastBooking(BookingMapper.toBookingShortDto(b)));
+    for (ItemDto dto : items) {
+      ItemSummary summary = summaries.get(dto.getId());
+      dto.setComments(fullComments.getOrDefault(dto.getId(), summary.latestComments()));
+      dto.setLastBooking(summary.lastBooking());
+      dto.setNextBooking(summary.nextBooking());
+    }
+    return items;
+  }
 
-      // Find next booking (start > now, sorted by start asc)
-      itemBookings.stream()
-          .filter(b -> b.getStart().isAfter(now))
-          .min(Comparator.comparing(Booking::getStart))
-          .ifPresent(b -> dto.setNextBooking(BookingMapper.toBookingShortDto(b)));
+  @Override
+  public CollectionTag getOwnerItemsTag(long ownerId) {
+    LocalDateTime now = LocalDateTime.now();
+    return collectionVersions.tag(ownerId, VersionedCollection.ITEMS,
+        bookingListCache.nextOwnerBoundary(ownerId, now), now);
+  }
 
-      return dto;
-    }).toList();
+  @Override
+  public void exportByOwner(long ownerId, ExportFormat format, ExportTarget target) {
+    if (!userRepository.existsById(ownerId)) {
+      throw new NotFoundException("User with id=" + ownerId + " not found.");
+    }
+    try (Stream<ItemExportRow> rows = itemRepository.streamExportByOwnerId(ownerId)) {
+      exportWriter.write(rows, ItemExportRow.class, format, target);
+    }
   }
 
   @Override
@@ -195,7 +290,9 @@ public class ItemServiceImpl implements ItemService {
         .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found."));
 
     // Check if user has completed a booking for this item
-    boolean hasCompletedBooking = bookingRepository.existsCompletedBooking(itemId, userId, LocalDateTime.now());
+    LocalDateTime now = LocalDateTime.now();
+    boolean hasCompletedBooking = bookingRepository.existsCompletedBooking(itemId, userId, now)
+        || archivedBookingRepository.existsCompletedBooking(itemId, userId, now);
     if (!hasCompletedBooking) {
       throw new ValidationException("User with id=" + userId + " has not completed a booking for item id=" + itemId + ".");
     }
@@ -215,21 +312,10 @@ public class ItemServiceImpl implements ItemService {
     comment.setCreated(LocalDateTime.now());
 
     Comment saved = commentRepository.save(comment);
-    return CommentMapper.toCommentDto(saved);
-  }
-
-  private void validateCreate(ItemDto dto) {
-    if (dto == null) {
-      throw new ValidationException("Item body must not be null.");
-    }
-    if (dto.getName() == null || dto.getName().isBlank()) {
-      throw new ValidationException("Item name must not be blank.");
-    }
-    if (dto.getDescription() == null || dto.getDescription().isBlank()) {
-      throw new ValidationException("Item description must not be blank.");
-    }
-    if (dto.getAvailable() == null) {
-      throw new ValidationException("Item available must be provided.");
-    }
+    itemSummaries.commentAdded(saved);
+    collectionVersions.bump(Map.of(VersionedCollection.ITEMS, List.of(item.getOwner().getId())));
+    CommentDto result = CommentMapper.toCommentDto(saved);
+    outboxPublisher.publish(DomainEventType.COMMENT_ADDED, itemId, result);
+    return result;
   }
 }
@@ -0,0 +1,298 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.ArchivedBooking;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingShortDto;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.config.ReplicaLagMonitor;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxSubscriber;
+
+/**
+ * In-memory read model of {@link ItemSummary} per item, so item reads do not join bookings and
+ * comments. Misses are loaded in one batch per request; writes patch cached entries in place.
+ *
+ * <p>A write applies its delta as soon as it happens (read-your-writes inside the transaction)
+ * and once more after commit, which repairs an entry another request loaded from pre-commit
+ * state; deltas are idempotent. A rollback evicts the entry. Loads that overlap a write are
+ * returned but not cached.
+ *
+ * <p>Misses are loaded from the primary even inside a read-only transaction served by the
+ * replica, which may not have the write a patch already applied. Writes made by other instances
+ * arrive through the outbox and evict their entries.
+ */
+@Slf4j
+@Component
+public class ItemSummaries implements OutboxSubscriber {
+
+  private final BookingRepository bookingRepository;
+  private final ArchivedBookingRepository archivedBookingRepository;
+  private final CommentRepository commentRepository;
+  private final ObjectMapper objectMapper;
+  private final ReplicaLagMonitor replicaLagMonitor;
+  private final TransactionTemplate primaryRead;
+  private final int maxComments;
+  private final Cache<Long, ItemSummary> cache;
+  private final AtomicLong writeStamp = new AtomicLong();
+
+  public ItemSummaries(BookingRepository bookingRepository,
+                       ArchivedBookingRepository archivedBookingRepository,
+                       CommentRepository commentRepository,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.item-summary.max-size:100000}") long maxSize,
+                       @Value("${shareit.item-summary.ttl:30s}") Duration ttl,
+                       @Value("${shareit.item-summary.max-comments:50}") int maxComments) {
+    this.bookingRepository = bookingRepository;
+    this.archivedBookingRepository = archivedBookingRepository;
+    this.commentRepository = commentRepository;
+    this.objectMapper = objectMapper;
+    this.replicaLagMonitor = replicaLagMonitor.getIfAvailable();
+    this.primaryRead = new TransactionTemplate(transactionManager);
+    this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.maxComments = maxComments;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "item.summary");
+  }
+
+  /**
+   * Returns the cached summary of the item or loads it without caching; the caller passes the
+   * result to {@link #keep} once it knows the item exists, so unknown ids cannot fill the cache.
+   */
+  Lookup lookup(long itemId, LocalDateTime now) {
+    ItemSummary summary = cache.getIfPresent(itemId);
+    if (summary != null && summary.isCurrent(now)) {
+      return new Lookup(itemId, summary, -1);
+    }
+    long stamp = writeStamp.get();
+    List<Long> missing = List.of(itemId);
+    Map<Long, ItemSummary> loaded = mayReadReplica() ? primaryRead.execute(status -> load(missing, now))
+        : load(missing, now);
+    return new Lookup(itemId, loaded.get(itemId), stamp);
+  }
+
+  /**
+   * Caches a summary loaded by {@link #lookup} unless a write overlapped the load.
+   */
+  void keep(Lookup lookup) {
+    if (lookup.stamp() >= 0) {
+      cache(lookup.itemId(), lookup.summary(), lookup.stamp());
+    }
+  }
+
+  /**
+   * Returns the summaries of the given items, loading all missing or outdated ones together.
+   */
+  Map<Long, ItemSummary> getAll(Collection<Long> itemIds, LocalDateTime now) {
+    Map<Long, ItemSummary> summaries = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long itemId : itemIds) {
+      ItemSummary summary = cache.getIfPresent(itemId);
+      if (summary != null && summary.isCurrent(now)) {
+        summaries.put(itemId, summary);
+      } else {
+        missing.add(itemId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return summaries;
+    }
+
+    long stamp = writeStamp.get();
+    Map<Long, ItemSummary> loaded = mayReadReplica() ? primaryRead.execute(status -> load(missing, now))
+        : load(missing, now);
+    loaded.forEach((itemId, summary) -> {
+      summaries.put(itemId, summary);
+      cache(itemId, summary, stamp);
+    });
+    return summaries;
+  }
+
+  private void cache(long itemId, ItemSummary summary, long stamp) {
+    cache.asMap().compute(itemId, (id, current) -> writeStamp.get() == stamp ? summary : current);
+  }
+
+  private Map<Long, ItemSummary> load(List<Long> missing, LocalDateTime now) {
+    Map<Long, List<Booking>> bookingsByItem = BatchLookup.findAll(missing, bookingRepository::findByItemIdIn).stream()
+        .collect(Collectors.groupingBy(b -> b.getItem().getId(), Collectors.toCollection(ArrayList::new)));
+    // Only items without a finished booking in the live table can take their last one from the archive.
+    List<Long> withoutPast = missing.stream()
+        .filter(id -> bookingsByItem.getOrDefault(id, List.of()).stream().noneMatch(b -> b.getEnd().isBefore(now)))
+        .toList();
+    if (!withoutPast.isEmpty()) {
+      for (ArchivedBooking archived : BatchLookup.findAll(withoutPast,
+          archivedBookingRepository::findLastApprovedByItemIdIn)) {
+        bookingsByItem.computeIfAbsent(archived.getItem().getId(), id -> new ArrayList<>()).add(archived.toBooking());
+      }
+    }
+    Map<Long, List<Comment>> commentsByItem = BatchLookup.findAll(missing, commentRepository::findByItemIdIn).stream()
+        .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+    Map<Long, ItemSummary> loaded = new HashMap<>();
+    for (Long itemId : missing) {
+      loaded.put(itemId, ItemSummary.of(bookingsByItem.getOrDefault(itemId, List.of()),
+          commentsByItem.getOrDefault(itemId, List.of()), maxComments, now));
+    }
+    return loaded;
+  }
+
+  /**
+   * Records that a booking of the item has been approved.
+   */
+  public void bookingApproved(Booking booking) {
+    BookingShortDto approved = BookingMapper.toBookingShortDto(booking);
+    apply(booking.getItem().getId(), summary -> summary.withApprovedBooking(approved, LocalDateTime.now()));
+  }
+
+  /**
+   * Drops the summaries of items whose bookings were written outside the services (bulk import)
+   * or by another instance. Call after the write has committed.
+   */
+  public void invalidate(Collection<Long> itemIds) {
+    writeStamp.incrementAndGet();
+    cache.invalidateAll(itemIds);
+  }
+
+  /**
+   * Drops the summaries of items whose bookings or comments the current transaction deletes, now
+   * and again once it completes.
+   */
+  public void rowsDeleted(Collection<Long> itemIds) {
+    invalidate(itemIds);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        invalidate(itemIds);
+      }
+    });
+  }
+
+  @Override
+  public String name() {
+    return "item-summaries";
+  }
+
+  @Override
+  public boolean durable() {
+    return false;
+  }
+
+  /**
+   * Evicts the summaries that approvals, comments, deleted users and imports change, whichever instance made them. Events
+   * of this instance evict entries it has already patched, which costs a reload at most.
+   */
+  @Override
+  public void onEvents(List<OutboxEvent> events) {
+    Set<Long> itemIds = new HashSet<>();
+    for (OutboxEvent event : events) {
+      switch (event.getEventType()) {
+        case BOOKING_APPROVED -> {
+          try {
+            long itemId = objectMapper.readTree(event.getPayload()).at("/item/id").asLong(-1);
+            if (itemId >= 0) {
+              itemIds.add(itemId);
+            }
+          } catch (JsonProcessingException e) {
+            log.warn("Unreadable payload of outbox event {}: {}", event.getId(), e.getMessage());
+          }
+        }
+        case COMMENT_ADDED -> itemIds.add(event.getAggregateId());
+        case USER_DELETED, BULK_IMPORTED -> {
+          try {
+            objectMapper.readTree(event.getPayload()).path("itemIds").forEach(id -> itemIds.add(id.asLong()));
+          } catch (JsonProcessingException e) {
+            log.warn("Unreadable payload of outbox event {}: {}", event.getId(), e.getMessage());
+          }
+        }
+        default -> {
+        }
+      }
+    }
+    if (!itemIds.isEmpty()) {
+      invalidate(itemIds);
+    }
+  }
+
+  void commentAdded(Comment comment) {
+    CommentDto added = CommentMapper.toCommentDto(comment);
+    apply(comment.getItem().getId(), summary -> summary.withComment(added, maxComments));
+  }
+
+  private void apply(long itemId, UnaryOperator<ItemSummary> delta) {
+    patch(itemId, delta);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        patch(itemId, delta);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          writeStamp.incrementAndGet();
+          cache.invalidate(itemId);
+        }
+      }
+    });
+  }
+
+  /**
+   * Whether the current transaction may be served by the replica.
+   */
+  private boolean mayReadReplica() {
+    return replicaLagMonitor != null && replicaLagMonitor.isReplicaUsable()
+        && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private void patch(long itemId, UnaryOperator<ItemSummary> delta) {
+    writeStamp.incrementAndGet();
+    cache.asMap().computeIfPresent(itemId, (id, summary) -> delta.apply(summary));
+  }
+
+  /**
+   * Summary returned by {@link #lookup}; {@code stamp} is negative when it came from the cache.
+   */
+  record Lookup(long itemId, ItemSummary summary, long stamp) {
+  }
+}
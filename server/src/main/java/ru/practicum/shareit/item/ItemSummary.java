@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingShortDto;
+
+/**
+ * Derived read data of one item: last and next approved booking, comment count and the newest
+ * comments (newest first). Last/next depend on the clock, so the summary is only valid before
+ * {@code validUntil}, the earliest moment an approved booking starts or ends; {@code null} means
+ * no booking boundary lies ahead.
+ */
+record ItemSummary(BookingShortDto lastBooking,
+                   BookingShortDto nextBooking,
+                   LocalDateTime validUntil,
+                   int commentCount,
+                   List<CommentDto> latestComments) {
+
+  /**
+   * Builds the summary from all approved bookings and all comments of the item.
+   */
+  static ItemSummary of(List<Booking> approvedBookings, List<Comment> comments, int maxComments,
+                        LocalDateTime now) {
+    ItemSummary summary = new ItemSummary(null, null, null, comments.size(), comments.stream()
+        .sorted(Comparator.comparing(Comment::getCreated).reversed())
+        .limit(maxComments)
+        .map(CommentMapper::toCommentDto)
+        .toList());
+    for (Booking booking : approvedBookings) {
+      summary = summary.withApprovedBooking(BookingMapper.toBookingShortDto(booking), now);
+    }
+    return summary;
+  }
+
+  boolean isCurrent(LocalDateTime now) {
+    return validUntil == null || now.isBefore(validUntil);
+  }
+
+  /**
+   * Whether {@link #latestComments()} holds every comment of the item.
+   */
+  boolean hasAllComments() {
+    return latestComments.size() >= commentCount;
+  }
+
+  /**
+   * Folds in an approved booking. Idempotent, so it may be applied to a summary that already
+   * reflects the booking.
+   */
+  ItemSummary withApprovedBooking(BookingShortDto booking, LocalDateTime now) {
+    BookingShortDto last = lastBooking;
+    BookingShortDto next = nextBooking;
+    LocalDateTime until = validUntil;
+    if (booking.getEnd().isBefore(now)) {
+      if (last == null || booking.getEnd().isAfter(last.getEnd())) {
+        last = booking;
+      }
+    } else {
+      until = earliest(until, booking.getEnd());
+    }
+    if (booking.getStart().isAfter(now)) {
+      if (next == null || booking.getStart().isBefore(next.getStart())) {
+        next = booking;
+      }
+      until = earliest(until, booking.getStart());
+    }
+    return new ItemSummary(last, next, until, commentCount, latestComments);
+  }
+
+  /**
+   * Prepends a new comment. Idempotent for a comment that is already listed.
+   */
+  ItemSummary withComment(CommentDto comment, int maxComments) {
+    if (latestComments.stream().anyMatch(c -> c.getId().equals(comment.getId()))) {
+      return this;
+    }
+    List<CommentDto> comments = new ArrayList<>(latestComments.size() + 1);
+    comments.add(comment);
+    comments.addAll(latestComments.subList(0, Math.min(latestComments.size(), maxComments - 1)));
+    return new ItemSummary(lastBooking, nextBooking, validUntil, commentCount + 1, List.copyOf(comments));
+  }
+
+  private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+    return current == null || candidate.isBefore(current) ? candidate : current;
+  }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Field rules for new items, shared by the REST API and bulk import.
+ */
+public final class ItemValidator {
+
+  private ItemValidator() {
+  }
+
+  /**
+   * Checks that an item to be created has a name, a description and availability.
+   */
+  public static void validateCreate(ItemDto dto) {
+    if (dto == null) {
+      throw new ValidationException("Item body must not be null.");
+    }
+    if (dto.getName() == null || dto.getName().isBlank()) {
+      throw new ValidationException("Item name must not be blank.");
+    }
+    if (dto.getDescription() == null || dto.getDescription().isBlank()) {
+      throw new ValidationException("Item description must not be blank.");
+    }
+    if (dto.getAvailable() == null) {
+      throw new ValidationException("Item available must be provided.");
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.Collection;
+
+/**
+ * Payload of coarse events for writes that touch many rows at once: the users whose booking lists
+ * and the items whose summaries they make stale.
+ */
+public record AffectedRows(Collection<Long> userIds, Collection<Long> itemIds) {
+}
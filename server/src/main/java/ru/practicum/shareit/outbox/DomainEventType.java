@@ -0,0 +1,30 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Kinds of domain changes written to the outbox, with the aggregate they belong to.
+ */
+public enum DomainEventType {
+  BOOKING_CREATED("booking"),
+  BOOKING_APPROVED("booking"),
+  BOOKING_REJECTED("booking"),
+  BOOKING_EXPIRED("booking"),
+  BULK_IMPORTED("booking"),
+  RECURRING_BOOKING_CREATED("recurring-booking"),
+  RECURRING_BOOKING_APPROVED("recurring-booking"),
+  RECURRING_BOOKING_REJECTED("recurring-booking"),
+  ITEM_CREATED("item"),
+  ITEM_UPDATED("item"),
+  COMMENT_ADDED("item"),
+  USER_UPDATED("user"),
+  USER_DELETED("user");
+
+  private final String aggregateType;
+
+  DomainEventType(String aggregateType) {
+    this.aggregateType = aggregateType;
+  }
+
+  public String getAggregateType() {
+    return aggregateType;
+  }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers outbox events to {@link OutboxSubscriber}s in id order, in batches, at least once.
+ *
+ * <p>Ids are allocated when a transaction inserts its event, not when it commits, so a higher id
+ * can become visible before a lower one. The dispatcher only releases events up to the first
+ * missing id ("head") and waits for the gap to fill. A gap still open after the gap timeout,
+ * counted from when the id after it showed up, is skipped: its ids most likely belong to rolled
+ * back transactions. Skipped ids are kept for the late window and looked up on every poll, so an
+ * event whose transaction commits after all is still delivered, out of id order, to the
+ * subscribers already past it. Skipped ids live in memory and are forgotten on restart.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+  private final OutboxEventRepository eventRepository;
+  private final OutboxOffsetRepository offsetRepository;
+  private final ObjectProvider<OutboxSubscriber> subscribers;
+  private final MeterRegistry meterRegistry;
+  private final int batchSize;
+  private final long gapTimeoutNanos;
+  private final long lateWindowNanos;
+  private final Duration retention;
+  private final boolean enabled;
+  private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+  /**
+   * First id after each open gap above the head, with the time it showed up.
+   */
+  private final NavigableMap<Long, Long> gapEnds = new TreeMap<>();
+  /**
+   * Ids skipped by the head that may still commit, with the time they were skipped.
+   */
+  private final NavigableMap<Long, Long> skipped = new TreeMap<>();
+  private volatile long head = -1;
+
+  public OutboxDispatcher(OutboxEventRepository eventRepository,
+                          OutboxOffsetRepository offsetRepository,
+                          ObjectProvider<OutboxSubscriber> subscribers,
+                          MeterRegistry meterRegistry,
+                          @Value("${shareit.outbox.batch-size:500}") int batchSize,
+                          @Value("${shareit.outbox.gap-timeout-ms:1000}") long gapTimeoutMillis,
+                          @Value("${shareit.outbox.late-window:10m}") Duration lateWindow,
+                          @Value("${shareit.outbox.retention:7d}") Duration retention,
+                          @Value("${shareit.outbox.dispatcher.enabled:true}") boolean enabled) {
+    this.eventRepository = eventRepository;
+    this.offsetRepository = offsetRepository;
+    this.subscribers = subscribers;
+    this.meterRegistry = meterRegistry;
+    this.batchSize = batchSize;
+    this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+    this.lateWindowNanos = lateWindow.toNanos();
+    this.retention = retention;
+    this.enabled = enabled;
+    Gauge.builder("shareit.outbox.head", this, d -> d.head)
+        .description("Id of the last outbox event released to subscribers")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:200}")
+  public void poll() {
+    if (enabled) {
+      dispatch();
+    }
+  }
+
+  /**
+   * Releases newly committed events and delivers everything past each subscriber's offset.
+   *
+   * @return number of events handed to subscribers
+   */
+  public synchronized int dispatch() {
+    advanceHead();
+    int delivered = deliverLate();
+    for (OutboxSubscriber subscriber : subscribers.orderedStream().toList()) {
+      delivered += deliver(subscriber);
+    }
+    return delivered;
+  }
+
+  /**
+   * Moves a subscriber back so that the events after {@code afterEventId} are delivered again.
+   */
+  public synchronized void replay(String subscriber, long afterEventId) {
+    OutboxSubscriber target = subscribers.stream()
+        .filter(s -> s.name().equals(subscriber))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown outbox subscriber " + subscriber));
+    offsets.put(subscriber, afterEventId);
+    if (target.durable()) {
+      offsetRepository.save(new OutboxOffset(subscriber, afterEventId));
+    }
+  }
+
+  /**
+   * Deletes events every subscriber has processed once they are older than the retention.
+   */
+  @Scheduled(fixedDelayString = "${shareit.outbox.purge-interval-ms:3600000}")
+  public synchronized void purge() {
+    if (!enabled || head < 0) {
+      return;
+    }
+    long processed = subscribers.orderedStream()
+        .mapToLong(s -> offsets.getOrDefault(s.name(), -1L))
+        .min()
+        .orElse(head);
+    int deleted = eventRepository.deleteProcessedBefore(processed,
+        LocalDateTime.now().minus(retention));
+    if (deleted > 0) {
+      log.info("Purged {} outbox events up to id {}", deleted, processed);
+    }
+  }
+
+  private void advanceHead() {
+    if (head < 0) {
+      head = eventRepository.findMaxId();
+    }
+    long now = System.nanoTime();
+    boolean blocked = false;
+    List<Long> ids;
+    do {
+      ids = eventRepository.findIdsAfter(head, Limit.of(batchSize));
+      long previous = head;
+      for (long id : ids) {
+        if (id != previous + 1) {
+          gapEnds.putIfAbsent(id, now);
+        }
+        previous = id;
+        if (!blocked && (id == head + 1 || gapExpired(id, now))) {
+          head = id;
+        } else {
+          blocked = true;
+        }
+      }
+    } while (!blocked && ids.size() == batchSize);
+    gapEnds.headMap(head, true).clear();
+  }
+
+  private boolean gapExpired(long nextId, long now) {
+    if (now - gapEnds.get(nextId) < gapTimeoutNanos) {
+      return false;
+    }
+    log.warn("Outbox ids {}..{} were not committed in time, skipping them", head + 1, nextId - 1);
+    for (long id = head + 1; id < nextId; id++) {
+      skipped.put(id, now);
+    }
+    return true;
+  }
+
+  /**
+   * Delivers skipped events that have committed since to the subscribers already past them; the
+   * others get them in order. Ids skipped longer ago than the late window are given up.
+   */
+  private int deliverLate() {
+    if (skipped.isEmpty()) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    skipped.values().removeIf(since -> now - since > lateWindowNanos);
+    List<OutboxEvent> late = eventRepository.findByIdInOrderByIdAsc(skipped.keySet());
+    if (late.isEmpty()) {
+      return 0;
+    }
+    int delivered = 0;
+    boolean failed = false;
+    for (OutboxSubscriber subscriber : subscribers.orderedStream().toList()) {
+      String name = subscriber.name();
+      long offset = offsets.computeIfAbsent(name, n -> loadOffset(subscriber));
+      List<OutboxEvent> batch = late.stream().filter(event -> event.getId() <= offset).toList();
+      if (batch.isEmpty()) {
+        continue;
+      }
+      try {
+        subscriber.onEvents(batch);
+      } catch (RuntimeException e) {
+        log.warn("Outbox subscriber {} failed on {} late events, will retry: {}", name, batch.size(),
+            e.getMessage());
+        Counter.builder("shareit.outbox.failures").tag("subscriber", name).register(meterRegistry).increment();
+        failed = true;
+        continue;
+      }
+      delivered += batch.size();
+      Counter.builder("shareit.outbox.delivered").tag("subscriber", name).register(meterRegistry)
+          .increment(batch.size());
+    }
+    // A failed subscriber gets the events again on the next poll, and so does everyone else.
+    if (!failed) {
+      log.info("Delivered {} outbox events committed after their ids were skipped", late.size());
+      late.forEach(event -> skipped.remove(event.getId()));
+    }
+    return delivered;
+  }
+
+  private int deliver(OutboxSubscriber subscriber) {
+    String name = subscriber.name();
+    long offset = offsets.computeIfAbsent(name, n -> loadOffset(subscriber));
+    int delivered = 0;
+    while (offset < head) {
+      List<OutboxEvent> batch =
+          eventRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(offset, head, Limit.of(batchSize));
+      if (!batch.isEmpty()) {
+        try {
+          subscriber.onEvents(batch);
+        } catch (RuntimeException e) {
+          log.warn("Outbox subscriber {} failed on events after id {}, will retry: {}", name, offset,
+              e.getMessage());
+          Counter.builder("shareit.outbox.failures").tag("subscriber", name).register(meterRegistry).increment();
+          return delivered;
+        }
+      }
+      offset = batch.isEmpty() ? head : batch.get(batch.size() - 1).getId();
+      offsets.put(name, offset);
+      if (subscriber.durable()) {
+        offsetRepository.save(new OutboxOffset(name, offset));
+      }
+      delivered += batch.size();
+      Counter.builder("shareit.outbox.delivered").tag("subscriber", name).register(meterRegistry)
+          .increment(batch.size());
+    }
+    return delivered;
+  }
+
+  /**
+   * Stored offset of the subscriber; a new or non-durable subscriber starts at the current head.
+   */
+  private long loadOffset(OutboxSubscriber subscriber) {
+    String name = subscriber.name();
+    Gauge.builder("shareit.outbox.lag", this, d -> d.head - d.offsets.getOrDefault(name, d.head))
+        .description("Outbox events released but not yet processed by the subscriber")
+        .tag("subscriber", name)
+        .register(meterRegistry);
+    if (!subscriber.durable()) {
+      return head;
+    }
+    return offsetRepository.findById(name)
+        .map(OutboxOffset::getLastEventId)
+        .orElseGet(() -> offsetRepository.save(new OutboxOffset(name, head)).getLastEventId());
+  }
+}
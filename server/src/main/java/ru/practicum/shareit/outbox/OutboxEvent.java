@@ -0,0 +1,52 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Domain event stored in the same transaction as the change it describes. The id orders the
+ * stream and serves as the offset subscribers resume from.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@ToString(exclude = "payload")
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class OutboxEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "aggregate_type", nullable = false, length = 50)
+  private String aggregateType;
+
+  @Column(name = "aggregate_id", nullable = false)
+  private Long aggregateId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "event_type", nullable = false, length = 50)
+  private DomainEventType eventType;
+
+  /** JSON of the DTO the API returns for the aggregate after the change. */
+  @Column(name = "payload", nullable = false, length = 8000)
+  private String payload;
+
+  @Column(name = "created", nullable = false)
+  private LocalDateTime created;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the outbox event stream.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  /**
+   * Ids of committed events after the given one, in stream order.
+   */
+  @Query("SELECT e.id FROM OutboxEvent e WHERE e.id > :after ORDER BY e.id")
+  List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+  /**
+   * Those of the given events that have committed, in stream order.
+   */
+  List<OutboxEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+  @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+  long findMaxId();
+
+  /**
+   * Events in the range (after, upTo], in stream order.
+   */
+  List<OutboxEvent> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(long after, long upTo, Limit limit);
+
+  /**
+   * Removes events every subscriber has processed once they are older than the retention.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upTo AND e.created < :before")
+  int deleteProcessedBefore(@Param("upTo") long upTo, @Param("before") LocalDateTime before);
+}
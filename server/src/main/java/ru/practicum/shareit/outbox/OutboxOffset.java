@@ -0,0 +1,30 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Id of the last outbox event a subscriber has processed.
+ */
+@Entity
+@Table(name = "outbox_offsets")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxOffset {
+  @Id
+  @Column(name = "subscriber", length = 100)
+  private String subscriber;
+
+  @Column(name = "last_event_id", nullable = false)
+  private Long lastEventId;
+}
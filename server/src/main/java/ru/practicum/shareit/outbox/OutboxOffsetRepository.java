@@ -0,0 +1,9 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Persists subscriber offsets so delivery resumes where it stopped after a restart.
+ */
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes domain events to the outbox. Requires the caller's transaction, so an event is stored
+ * if and only if the change it describes commits.
+ */
+@Component
+public class OutboxPublisher {
+
+  private final OutboxEventRepository eventRepository;
+  private final ObjectMapper objectMapper;
+
+  public OutboxPublisher(OutboxEventRepository eventRepository, ObjectMapper objectMapper) {
+    this.eventRepository = eventRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publish(DomainEventType type, long aggregateId, Object payload) {
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + type + " payload", e);
+    }
+    eventRepository.save(new OutboxEvent(null, type.getAggregateType(), aggregateId, type, json,
+        LocalDateTime.now()));
+  }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the outbox stream. Spring beans implementing this interface are picked
+ * up by {@link OutboxDispatcher}.
+ *
+ * <p>Delivery is at least once: a batch is handed over again if {@link #onEvents(List)} throws or
+ * the process stops before the offset is saved, so handlers must tolerate duplicates.
+ */
+public interface OutboxSubscriber {
+
+  /**
+   * Stable name the offset is stored under.
+   */
+  String name();
+
+  /**
+   * Whether the offset survives restarts. A non-durable subscriber, such as a fan-out to the
+   * clients connected to this instance, keeps it in memory only and starts at the current head.
+   */
+  default boolean durable() {
+    return true;
+  }
+
+  /**
+   * Handles a batch of events in stream order.
+   */
+  void onEvents(List<OutboxEvent> events);
+}
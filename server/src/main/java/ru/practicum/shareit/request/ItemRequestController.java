@@ -1,7 +1,11 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.ConditionalGet;
+import ru.practicum.shareit.diagnostics.StatementBudget;
 import java.util.List;
 
 @RestController
@@ -11,17 +15,23 @@ public class ItemRequestController {
     private final ItemRequestService requestService;
 
     @PostMapping
+    @StatementBudget(3)
     public ItemRequestDto createRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
                                         @RequestBody ItemRequestDto dto) {
         return requestService.createRequest(userId, dto);
     }
 
     @GetMapping
-    public List<ItemRequestDto> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getUserRequests(userId);
+    @StatementBudget(4)
+    public ResponseEntity<List<ItemRequestDto>> getUserRequests(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(requestService.getUserRequestsTag(userId), ifNoneMatch,
+                () -> requestService.getUserRequests(userId));
     }
 
     @GetMapping("/all")
+    @StatementBudget(3)
     public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                @RequestParam(defaultValue = "0") int from,
                                                @RequestParam(defaultValue = "10") int size) {
@@ -29,6 +39,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
+    @StatementBudget(3)
     public ItemRequestDto getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PathVariable Long requestId) {
         return requestService.getRequestById(userId, requestId);
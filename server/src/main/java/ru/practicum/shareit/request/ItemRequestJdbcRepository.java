@@ -0,0 +1,61 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC read path for the page of other users' requests: requests and their items map straight
+ * into DTOs without loading entities.
+ */
+@Repository
+class ItemRequestJdbcRepository {
+    private final NamedParameterJdbcTemplate namedJdbc;
+
+    ItemRequestJdbcRepository(NamedParameterJdbcTemplate namedJdbc) {
+        this.namedJdbc = namedJdbc;
+    }
+
+    List<ItemRequestDto> findAllByRequestorIdNot(long userId, int limit, long offset) {
+        List<ItemRequestDto> requests = namedJdbc.query(
+                "SELECT id, description, created FROM requests WHERE requestor_id <> :userId "
+                        + "ORDER BY created DESC, id DESC LIMIT :limit OFFSET :offset",
+                new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("limit", limit)
+                        .addValue("offset", offset),
+                (rs, rowNum) -> new ItemRequestDto(
+                        rs.getLong("id"),
+                        rs.getString("description"),
+                        rs.getObject("created", LocalDateTime.class),
+                        new ArrayList<>()));
+        if (requests.isEmpty()) {
+            return requests;
+        }
+
+        List<ItemDto> items = BatchLookup.findAll(requests.stream().map(ItemRequestDto::getId).toList(),
+                chunk -> namedJdbc.query(
+                        "SELECT id, name, description, available, request_id, owner_id FROM items "
+                                + "WHERE request_id IN (:requestIds) ORDER BY id",
+                        Map.of("requestIds", chunk),
+                        (rs, rowNum) -> {
+                            ItemDto dto = new ItemDto(rs.getLong("id"), rs.getString("name"),
+                                    rs.getString("description"), rs.getBoolean("available"),
+                                    rs.getLong("request_id"));
+                            dto.setOwnerId(rs.getLong("owner_id"));
+                            return dto;
+                        }));
+        Map<Long, ItemRequestDto> byId = requests.stream()
+                .collect(Collectors.toMap(ItemRequestDto::getId, request -> request));
+        items.forEach(item -> byId.get(item.getRequestId()).getItems().add(item));
+        return requests;
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.request;
 
 import java.util.List;
+import ru.practicum.shareit.common.CollectionTag;
 
 public interface ItemRequestService {
     ItemRequestDto createRequest(Long userId, ItemRequestDto dto);
     List<ItemRequestDto> getUserRequests(Long userId);
+    CollectionTag getUserRequestsTag(Long userId);
     List<ItemRequestDto> getAllRequests(Long userId, int from, int size);
     ItemRequestDto getRequestById(Long userId, Long requestId);
 }
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.request;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.common.CollectionTag;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.common.ReadPath;
+import ru.practicum.shareit.common.VersionedCollection;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
@@ -14,14 +20,32 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+@Observed(name = "shareit.service")
 @Service
-@RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemRequestJdbcRepository requestJdbcRepository;
+    private final ReadPath readPath;
+    private final CollectionVersions collectionVersions;
+
+    public ItemRequestServiceImpl(ItemRequestRepository requestRepository,
+                                  UserRepository userRepository,
+                                  ItemRepository itemRepository,
+                                  ItemRequestJdbcRepository requestJdbcRepository,
+                                  @Value("${shareit.read-path:jpa}") ReadPath readPath,
+                                  CollectionVersions collectionVersions) {
+        this.requestRepository = requestRepository;
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.requestJdbcRepository = requestJdbcRepository;
+        this.readPath = readPath;
+        this.collectionVersions = collectionVersions;
+    }
 
     @Override
     @Transactional
@@ -34,7 +58,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         request.setRequestor(user);
         request.setCreated(LocalDateTime.now());
 
-        return ItemRequestMapper.toDto(requestRepository.save(request));
+        ItemRequest saved = requestRepository.save(request);
+        collectionVersions.bump(Map.of(VersionedCollection.REQUESTS, List.of(userId)));
+        return ItemRequestMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CollectionTag getUserRequestsTag(Long userId) {
+        return collectionVersions.tag(userId, VersionedCollection.REQUESTS, null, LocalDateTime.now());
     }
 
     @Override
@@ -43,10 +75,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        List<ItemRequest> requests = requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId);
-        return requests.stream()
-                .map(this::mapToDtoWithItems)
-                .collect(Collectors.toList());
+        return mapToDtosWithItems(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
     }
 
     @Override
@@ -57,10 +86,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         int page = from / size;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("created").descending());
-        
-        return requestRepository.findAllByRequestorIdNot(userId, pageRequest).stream()
-                .map(this::mapToDtoWithItems)
-                .collect(Collectors.toList());
+        if (readPath == ReadPath.JDBC) {
+            return requestJdbcRepository.findAllByRequestorIdNot(userId, size, pageRequest.getOffset());
+        }
+
+        return mapToDtosWithItems(requestRepository.findAllByRequestorIdNot(userId, pageRequest));
     }
 
     @Override
@@ -72,14 +102,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Request not found"));
                 
-        return mapToDtoWithItems(request);
+        return mapToDtosWithItems(List.of(request)).get(0);
     }
-    
-    private ItemRequestDto mapToDtoWithItems(ItemRequest request) {
-        List<ItemDto> items = itemRepository.findAllByRequestId(request.getId())
-                .stream()
-                .map(ItemMapper::toItemDto)
+
+    private List<ItemRequestDto> mapToDtosWithItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        Map<Long, List<ItemDto>> itemsByRequest = BatchLookup.findAll(requestIds, itemRepository::findAllByRequestIdIn).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toDto(request, itemsByRequest.get(request.getId())))
                 .collect(Collectors.toList());
-        return ItemRequestMapper.toDto(request, items);
     }
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.diagnostics.StatementBudget;
 
 /**
  * REST controller exposing user CRUD operations.
@@ -27,6 +28,7 @@ public class UserController {
    * Registers a new user.
    */
   @PostMapping
+  @StatementBudget(3)
   public UserDto create(@RequestBody UserDto userDto) {
     return userService.create(userDto);
   }
@@ -35,6 +37,7 @@ public class UserController {
    * Updates provided fields of an existing user.
    */
   @PatchMapping("/{userId}")
+  @StatementBudget(6)
   public UserDto update(@PathVariable long userId, @RequestBody UserDto userDto) {
     return userService.update(userId, userDto);
   }
@@ -43,6 +46,7 @@ public class UserController {
    * Retrieves a single user by id.
    */
   @GetMapping("/{userId}")
+  @StatementBudget(1)
   public UserDto getById(@PathVariable long userId) {
     return userService.getById(userId);
   }
@@ -51,6 +55,7 @@ public class UserController {
    * Lists all users ordered by storage implementation.
    */
   @GetMapping
+  @StatementBudget(1)
   public List<UserDto> getAll() {
     return userService.getAll();
   }
@@ -59,6 +64,7 @@ public class UserController {
    * Removes a user permanently.
    */
   @DeleteMapping("/{userId}")
+  @StatementBudget(7)
   public void delete(@PathVariable long userId) {
     userService.delete(userId);
   }
@@ -1,31 +1,62 @@
 package ru.practicum.shareit.user;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingListCache;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.common.VersionedCollection;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSummaries;
+import ru.practicum.shareit.outbox.AffectedRows;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 
 /**
  * Service layer handling validation and interaction with user repository.
  */
+@Observed(name = "shareit.service")
 @Service
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
   private final UserRepository userRepository;
+  private final BookingRepository bookingRepository;
+  private final ItemRepository itemRepository;
+  private final BookingListCache bookingListCache;
+  private final ItemSummaries itemSummaries;
+  private final CollectionVersions collectionVersions;
+  private final OutboxPublisher outboxPublisher;
 
-  public UserServiceImpl(UserRepository userRepository) {
+  public UserServiceImpl(UserRepository userRepository,
+                         BookingRepository bookingRepository,
+                         ItemRepository itemRepository,
+                         BookingListCache bookingListCache,
+                         ItemSummaries itemSummaries,
+                         CollectionVersions collectionVersions,
+                         OutboxPublisher outboxPublisher) {
     this.userRepository = userRepository;
+    this.bookingRepository = bookingRepository;
+    this.itemRepository = itemRepository;
+    this.bookingListCache = bookingListCache;
+    this.itemSummaries = itemSummaries;
+    this.collectionVersions = collectionVersions;
+    this.outboxPublisher = outboxPublisher;
   }
 
   @Override
   @Transactional
   public UserDto create(UserDto userDto) {
-    validateCreate(userDto);
+    UserValidator.validateCreate(userDto);
     checkEmailUniqueness(userDto.getEmail(), null);
     User created = userRepository.save(UserMapper.toUser(userDto));
+    collectionVersions.register(List.of(created.getId()));
     return UserMapper.toUserDto(created);
   }
 
@@ -44,7 +75,18 @@ public class UserServiceImpl implements UserService {
     }
 
     User updated = userRepository.save(existing);
-    return UserMapper.toUserDto(updated);
+    // Bookings and comments show the user, so cached booking lists and tags naming the user are stale:
+    // the user's own bookings and those of the owners whose items the user booked. Only a booker
+    // may comment, so the same owners' item lists are the ones showing the user's comments.
+    List<Long> owners = bookingRepository.findItemOwnerIdsByBookerId(userId);
+    List<Long> affected = new ArrayList<>(owners);
+    affected.add(userId);
+    bookingListCache.bookingsWritten(affected);
+    collectionVersions.bump(Map.of(VersionedCollection.BOOKINGS, List.of(userId),
+        VersionedCollection.OWNER_BOOKINGS, owners, VersionedCollection.ITEMS, owners));
+    UserDto result = UserMapper.toUserDto(updated);
+    outboxPublisher.publish(DomainEventType.USER_UPDATED, userId, result);
+    return result;
   }
 
   @Override
@@ -65,19 +107,16 @@ public class UserServiceImpl implements UserService {
     if (!userRepository.existsById(userId)) {
       throw new NotFoundException("User with id=" + userId + " not found.");
     }
+    // The user's items, bookings and comments go with the user, so every instance has to drop the
+    // booking lists and item summaries that show them.
+    List<Long> userIds = new ArrayList<>(bookingRepository.findCounterpartIdsByUserId(userId));
+    userIds.add(userId);
+    List<Long> itemIds = itemRepository.findIdsShowingUser(userId);
     userRepository.deleteById(userId);
-  }
-
-  private void validateCreate(UserDto dto) {
-    if (dto == null) {
-      throw new ValidationException("User body must not be null.");
-    }
-    if (dto.getName() == null || dto.getName().isBlank()) {
-      throw new ValidationException("User name must not be blank.");
-    }
-    if (dto.getEmail() == null || dto.getEmail().isBlank()) {
-      throw new ValidationException("User email must not be blank.");
-    }
+    bookingListCache.bookingsWritten(userIds);
+    itemSummaries.rowsDeleted(itemIds);
+    collectionVersions.bumpAll();
+    outboxPublisher.publish(DomainEventType.USER_DELETED, userId, new AffectedRows(userIds, itemIds));
   }
 
   private void checkEmailUniqueness(String email, Long excludeUserId) {
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Field rules for new users, shared by the REST API and bulk import.
+ */
+public final class UserValidator {
+
+  private UserValidator() {
+  }
+
+  /**
+   * Checks that a user to be created has a name and an email.
+   */
+  public static void validateCreate(UserDto dto) {
+    if (dto == null) {
+      throw new ValidationException("User body must not be null.");
+    }
+    if (dto.getName() == null || dto.getName().isBlank()) {
+      throw new ValidationException("User name must not be blank.");
+    }
+    if (dto.getEmail() == null || dto.getEmail().isBlank()) {
+      throw new ValidationException("User email must not be blank.");
+    }
+  }
+}
@@ -25,6 +25,7 @@ CREATE TABLE IF NOT EXISTS items (
   available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
   request_id BIGINT,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_item PRIMARY KEY (id),
   CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE,
   CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests(id) ON DELETE SET NULL
@@ -38,11 +39,57 @@ CREATE TABLE IF NOT EXISTS bookings (
   item_id BIGINT NOT NULL,
   booker_id BIGINT NOT NULL,
   status VARCHAR(50) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_booking PRIMARY KEY (id),
   CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
   CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Версии для оптимистичной блокировки (для баз, созданных до их появления)
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_booking_item_end ON bookings (item_id, end_date);
+-- Восстановление таймеров истечения ожидающих бронирований при старте
+CREATE INDEX IF NOT EXISTS idx_booking_status_id ON bookings (status, id);
+
+-- Архив давно завершённых бронирований, переносится из bookings фоновой задачей
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(50) NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+  CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_booking_archive_booker FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_booking_archive_item_end ON bookings_archive (item_id, end_date);
+
+-- Повторяющиеся бронирования: правило вместо строки на каждое повторение
+CREATE TABLE IF NOT EXISTS recurring_bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  frequency VARCHAR(20) NOT NULL,
+  repeat_every INT NOT NULL,
+  until_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  last_end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(50) NOT NULL,
+  CONSTRAINT pk_recurring_booking PRIMARY KEY (id),
+  CONSTRAINT fk_recurring_booking_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_recurring_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_recurring_booking_item_last_end ON recurring_bookings (item_id, last_end_date);
+CREATE INDEX IF NOT EXISTS idx_recurring_booking_booker_last_end ON recurring_bookings (booker_id, last_end_date);
+
 -- Таблица комментариев
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -54,3 +101,52 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
   CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE
 );
+
+-- Outbox доменных событий, пишется в одной транзакции с изменением
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  aggregate_type VARCHAR(50) NOT NULL,
+  aggregate_id BIGINT NOT NULL,
+  event_type VARCHAR(50) NOT NULL,
+  payload VARCHAR(8000) NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+-- Смещения подписчиков outbox
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+  subscriber VARCHAR(100) NOT NULL,
+  last_event_id BIGINT NOT NULL,
+  CONSTRAINT pk_outbox_offset PRIMARY KEY (subscriber)
+);
+
+-- Версии пользовательских списков для условных GET (ETag / If-None-Match); user_id = 0 — общая эпоха
+CREATE TABLE IF NOT EXISTS collection_versions (
+  user_id BIGINT NOT NULL,
+  collection VARCHAR(20) NOT NULL,
+  version BIGINT NOT NULL,
+  CONSTRAINT pk_collection_version PRIMARY KEY (user_id, collection)
+);
+
+-- Разовое заполнение для уже существующих пользователей: выполняется, только пока таблица пуста,
+-- чтобы не перебирать всех пользователей при каждом запуске
+INSERT INTO collection_versions (user_id, collection, version)
+SELECT u.id, c.collection, 0
+FROM users u CROSS JOIN (VALUES ('BOOKINGS'), ('OWNER_BOOKINGS'), ('ITEMS'), ('REQUESTS')) AS c(collection)
+WHERE NOT EXISTS (SELECT 1 FROM collection_versions)
+UNION ALL SELECT 0, 'EPOCH', 0
+WHERE NOT EXISTS (SELECT 1 FROM collection_versions)
+ON CONFLICT DO NOTHING;
+
+-- Ответы на запросы с Idempotency-Key: повтор возвращает сохранённый ответ вместо повторной записи
+CREATE TABLE IF NOT EXISTS idempotent_responses (
+  user_id BIGINT NOT NULL,
+  operation VARCHAR(20) NOT NULL,
+  idempotency_key VARCHAR(255) NOT NULL,
+  request_hash VARCHAR(64) NOT NULL,
+  body VARCHAR(8000),
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_idempotent_response PRIMARY KEY (user_id, operation, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotent_responses_created ON idempotent_responses (created);
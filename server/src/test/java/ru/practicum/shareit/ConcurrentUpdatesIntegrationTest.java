@@ -0,0 +1,155 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs many writers against the same booking or item at once and checks that no decision or
+ * update is lost or applied twice.
+ */
+@SpringBootTest(properties = "shareit.optimistic-retry.max-attempts=50")
+@ActiveProfiles("test")
+class ConcurrentUpdatesIntegrationTest {
+
+    private static final int WRITERS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto drill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(new UserDto(null, "Owner", "concurrent-owner@email.com"));
+        booker = userService.create(new UserDto(null, "Booker", "concurrent-booker@email.com"));
+        drill = itemService.create(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exactlyOneOfConcurrentApproversDecidesBooking() throws Exception {
+        BookingDto booking = bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+
+        List<Callable<BookingDto>> approvers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            boolean approved = i % 2 == 0;
+            approvers.add(() -> bookingService.approve(owner.getId(), booking.getId(), approved));
+        }
+        List<Future<BookingDto>> results = runTogether(approvers);
+
+        BookingStatus winner = null;
+        int rejectedAsDecided = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                winner = result.get().getStatus();
+            } catch (ExecutionException e) {
+                assertInstanceOf(ValidationException.class, e.getCause());
+                rejectedAsDecided++;
+            }
+        }
+        Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(WRITERS - 1, rejectedAsDecided);
+        assertEquals(winner, stored.getStatus());
+        assertEquals(1, stored.getVersion());
+    }
+
+    @Test
+    void concurrentItemUpdatesAreAllApplied() throws Exception {
+        List<Callable<ItemDto>> editors = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            ItemDto patch = i % 2 == 0
+                    ? new ItemDto(null, "Drill " + i, null, null, null)
+                    : new ItemDto(null, null, "Cordless drill " + i, null, null);
+            editors.add(() -> itemService.update(owner.getId(), drill.getId(), patch));
+        }
+        for (Future<ItemDto> result : runTogether(editors)) {
+            result.get();
+        }
+
+        Item stored = itemRepository.findById(drill.getId()).orElseThrow();
+        assertEquals(WRITERS, stored.getVersion());
+        assertTrue(stored.getName().startsWith("Drill "));
+        assertTrue(stored.getDescription().startsWith("Cordless drill "));
+    }
+
+    private static <T> List<Future<T>> runTogether(List<Callable<T>> tasks) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<T> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignored) {
+                    // Inspected by the caller.
+                }
+            }
+            return futures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
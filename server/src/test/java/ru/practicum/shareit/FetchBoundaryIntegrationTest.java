@@ -0,0 +1,143 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs without a test transaction and without open-session-in-view, so every lazy association a
+ * response needs must be fetched inside the service: a missing fetch plan surfaces as a
+ * LazyInitializationException (500) or as a statement budget violation.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FetchBoundaryIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    private User owner;
+    private User booker;
+    private Item drill;
+    private Booking waiting;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "fetch-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "fetch-booker@email.com"));
+        drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        Item saw = itemRepository.save(new Item(null, "Saw", "Circular saw", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), drill, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), saw, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.APPROVED));
+        waiting = bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), saw, booker,
+                BookingStatus.WAITING));
+        commentRepository.save(new Comment(null, "Great drill", drill, booker, now.minusDays(1)));
+        commentRepository.save(new Comment(null, "Sharp saw", saw, booker, now.minusDays(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void openSessionInViewIsDisabled() {
+        assertEquals(0, context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+    }
+
+    @Test
+    void itemResponsesAreMaterializedInService() throws Exception {
+        mockMvc.perform(get("/items/{itemId}", drill.getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].authorName", is("Booker")))
+                .andExpect(jsonPath("$.lastBooking.bookerId", is(booker.getId().intValue())))
+                .andExpect(jsonPath("$.nextBooking.bookerId", is(booker.getId().intValue())));
+
+        mockMvc.perform(get("/items").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].comments[0].authorName", is("Booker")));
+    }
+
+    @Test
+    void bookingResponsesAreMaterializedInService() throws Exception {
+        mockMvc.perform(get("/bookings").header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[*].item.name", hasSize(4)))
+                .andExpect(jsonPath("$[0].booker.name", is("Booker")));
+
+        mockMvc.perform(get("/bookings/owner").param("state", "PAST").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].item.name", is("Drill")));
+
+        mockMvc.perform(get("/bookings/{bookingId}", waiting.getId()).header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name", is("Saw")));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", waiting.getId())
+                        .param("approved", "true")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("APPROVED")))
+                .andExpect(jsonPath("$.booker.name", is("Booker")));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serves the list endpoints from the JDBC read path, within the same statement budgets as the JPA
+ * path.
+ */
+@SpringBootTest(properties = "shareit.read-path=jdbc")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JdbcReadPathIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(new User(null, "Owner", "read-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "read-booker@email.com"));
+        request = requestRepository.save(new ItemRequest(null, "Need a saw", booker, now.minusDays(7)));
+        Item drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        Item saw = itemRepository.save(new Item(null, "Saw", "Circular saw", true, owner, request));
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), drill, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), saw, booker,
+                BookingStatus.WAITING));
+        commentRepository.save(new Comment(null, "Sharp saw", saw, booker, now.minusDays(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void servesBookingListsFromJdbc() throws Exception {
+        mockMvc.perform(get("/bookings").header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].item.name", is("Saw")))
+                .andExpect(jsonPath("$[0].item.requestId", is(request.getId().intValue())))
+                .andExpect(jsonPath("$[0].status", is("WAITING")))
+                .andExpect(jsonPath("$[2].booker.email", is("read-booker@email.com")));
+
+        mockMvc.perform(get("/bookings/owner").param("state", "FUTURE").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].item.ownerId", is(owner.getId().intValue())));
+    }
+
+    @Test
+    void servesOwnerItemsFromJdbc() throws Exception {
+        mockMvc.perform(get("/items").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Drill")))
+                .andExpect(jsonPath("$[0].lastBooking.bookerId", is(booker.getId().intValue())))
+                .andExpect(jsonPath("$[0].nextBooking.bookerId", is(booker.getId().intValue())))
+                .andExpect(jsonPath("$[1].comments[0].authorName", is("Booker")));
+    }
+
+    @Test
+    void servesOtherUsersRequestsFromJdbc() throws Exception {
+        mockMvc.perform(get("/requests/all").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].description", is("Need a saw")))
+                .andExpect(jsonPath("$[0].items[0].name", is("Saw")))
+                .andExpect(jsonPath("$[0].items[0].ownerId", is(owner.getId().intValue())));
+
+        mockMvc.perform(get("/requests/all").header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+}
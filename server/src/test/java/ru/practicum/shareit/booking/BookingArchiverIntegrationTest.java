@@ -0,0 +1,180 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives committed bookings and reads them back through the services, so it runs without a
+ * test transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingArchiverIntegrationTest {
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking oldest;
+    private Booking old;
+    private Booking recent;
+    private Booking future;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(new User(null, "Owner", "archive-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "archive-booker@email.com"));
+        item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        oldest = bookingRepository.save(new Booking(null, now.minusDays(101), now.minusDays(100), item, booker,
+                BookingStatus.APPROVED));
+        old = bookingRepository.save(new Booking(null, now.minusDays(60), now.minusDays(59), item, booker,
+                BookingStatus.REJECTED));
+        recent = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+        future = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        archivedBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void movesOnlyBookingsEndedBeforeCutoff() {
+        assertEquals(2, bookingArchiver.archive(LocalDateTime.now().minusDays(30)));
+
+        assertTrue(archivedBookingRepository.existsById(oldest.getId()));
+        assertTrue(archivedBookingRepository.existsById(old.getId()));
+        assertFalse(bookingRepository.existsById(oldest.getId()));
+        assertTrue(bookingRepository.existsById(recent.getId()));
+        assertEquals(0, bookingArchiver.archive(LocalDateTime.now().minusDays(30)));
+    }
+
+    @Test
+    void concurrentRunSkipsBatchLockedByAnotherInstance() throws Exception {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> otherInstance = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    List<Long> ids = bookingRepository.lockIdsEndedBefore(cutoff, 1);
+                    locked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    status.setRollbackOnly();
+                    return ids;
+                }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        try {
+            assertEquals(1, bookingArchiver.archive(cutoff));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(List.of(oldest.getId()), otherInstance.get(10, TimeUnit.SECONDS));
+        assertTrue(archivedBookingRepository.existsById(old.getId()));
+        assertTrue(bookingRepository.existsById(oldest.getId()));
+    }
+
+    @Test
+    void listsAndPagesAcrossLiveAndArchivedBookings() {
+        bookingArchiver.archive(LocalDateTime.now().minusDays(30));
+
+        assertEquals(List.of(future.getId(), recent.getId(), old.getId(), oldest.getId()),
+                ids(bookingService.getAllByBooker(booker.getId(), BookingState.ALL, 0, 10)));
+        assertEquals(List.of(old.getId(), oldest.getId()),
+                ids(bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 2, 2)));
+        assertEquals(List.of(recent.getId(), old.getId(), oldest.getId()),
+                ids(bookingService.getAllByBooker(booker.getId(), BookingState.PAST, 0, 10)));
+        assertEquals(List.of(old.getId()),
+                ids(bookingService.getAllByOwner(owner.getId(), BookingState.REJECTED, 0, 10)));
+        assertEquals(List.of(future.getId()),
+                ids(bookingService.getAllByBooker(booker.getId(), BookingState.WAITING, 0, 10)));
+    }
+
+    @Test
+    void archivedBookingIsReadableButNotChangeable() {
+        bookingArchiver.archive(LocalDateTime.now().minusDays(30));
+
+        BookingDto dto = bookingService.getById(booker.getId(), oldest.getId());
+        assertEquals(item.getId(), dto.getItem().getId());
+        assertEquals(BookingStatus.APPROVED, dto.getStatus());
+        assertThrows(ValidationException.class, () -> bookingService.approve(owner.getId(), old.getId(), true));
+    }
+
+    @Test
+    void archivedBookingKeepsCommentEligibilityAndLastBooking() {
+        bookingRepository.deleteAll(List.of(recent, future));
+        bookingArchiver.archive(LocalDateTime.now().minusDays(30));
+
+        assertEquals(oldest.getId(), itemService.getById(owner.getId(), item.getId()).getLastBooking().getId());
+        CommentDto comment = new CommentDto();
+        comment.setText("Still works");
+        assertEquals("Booker", itemService.addComment(booker.getId(), item.getId(), comment).getAuthorName());
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+}
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.IdempotentRequests;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemDto;
@@ -14,6 +16,7 @@ import ru.practicum.shareit.user.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -29,11 +32,23 @@ class BookingControllerTest {
     @MockitoBean
     private BookingService bookingService;
 
+    @MockitoBean
+    private BookingEventStream bookingEventStream;
+
+    @MockitoBean
+    private IdempotentRequests idempotentRequests;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private static final String USER_HEADER = "X-Sharer-User-Id";
 
+    @BeforeEach
+    void runIdempotentRequestsDirectly() {
+        when(idempotentRequests.execute(anyLong(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @Test
     void createBooking_Success() throws Exception {
         BookingCreateDto inputDto = new BookingCreateDto(
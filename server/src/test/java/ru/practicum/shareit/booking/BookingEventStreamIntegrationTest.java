@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Feeds committed outbox events straight into the stream, bypassing the dispatcher's polling.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingEventStreamIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingEventStream bookingEventStream;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OutboxEventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "stream-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "stream-booker@email.com"));
+        stranger = userRepository.save(new User(null, "Stranger", "stream-stranger@email.com"));
+        item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingEventStream.closeAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pushesNewBookingToOwnerAndDecisionToBooker() throws Exception {
+        MvcResult ownerStream = open(owner.getId());
+        MvcResult bookerStream = open(booker.getId());
+        MvcResult strangerStream = open(stranger.getId());
+        awaitContent(ownerStream, ":connected");
+
+        long after = eventRepository.findMaxId();
+        BookingDto created = bookingService.create(booker.getId(), new BookingCreateDto(item.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        deliverEventsAfter(after);
+        awaitContent(ownerStream, "event:BOOKING_CREATED");
+
+        after = eventRepository.findMaxId();
+        bookingService.approve(owner.getId(), created.getId(), true);
+        deliverEventsAfter(after);
+        String bookerEvents = awaitContent(bookerStream, "event:BOOKING_APPROVED");
+
+        assertTrue(bookerEvents.contains("\"status\":\"APPROVED\""));
+        assertFalse(bookerEvents.contains("BOOKING_CREATED"));
+        assertFalse(ownerStream.getResponse().getContentAsString().contains("BOOKING_APPROVED"));
+        assertFalse(strangerStream.getResponse().getContentAsString().contains("event:"));
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, bookerStream.getResponse().getContentType());
+    }
+
+    @Test
+    void rejectsUnknownUser() throws Exception {
+        mockMvc.perform(get("/bookings/stream").header(USER_HEADER, 999_999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult open(long userId) throws Exception {
+        return mockMvc.perform(get("/bookings/stream")
+                        .header(USER_HEADER, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void deliverEventsAfter(long after) {
+        bookingEventStream.onEvents(eventRepository.findAll().stream()
+                .filter(event -> event.getId() > after)
+                .toList());
+    }
+
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that waiting bookings expire once they start, whether timed at creation or found on
+ * rebuild, and that decided bookings do not.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingExpiryIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingExpiry bookingExpiry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item drill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "expiry-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "expiry-booker@email.com"));
+        drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void undecidedBookingExpiresWhenItStarts() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        BookingDto waiting = bookingService.create(booker.getId(),
+                new BookingCreateDto(drill.getId(), start, start.plusHours(1)));
+        BookingDto approved = bookingService.create(booker.getId(),
+                new BookingCreateDto(drill.getId(), start, start.plusHours(1)));
+        bookingService.approve(owner.getId(), approved.getId(), true);
+
+        awaitStatus(waiting.getId(), BookingStatus.EXPIRED);
+
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).orElseThrow().getStatus());
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), BookingState.WAITING, 0, 10).size());
+        assertThrows(ValidationException.class, () -> bookingService.approve(owner.getId(), waiting.getId(), true));
+    }
+
+    @Test
+    void rebuildTimesWaitingBookingsAlreadyInTable() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1), drill, booker,
+                BookingStatus.WAITING));
+        Booking future = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+
+        bookingExpiry.rebuild();
+
+        awaitStatus(started.getId(), BookingStatus.EXPIRED);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(future.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void expiringTwiceCountsOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1), drill, booker,
+                BookingStatus.WAITING));
+        Booking approved = bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1), drill, booker,
+                BookingStatus.APPROVED));
+
+        assertEquals(1, bookingExpiry.expire(List.of(started.getId(), approved.getId())));
+        assertEquals(0, bookingExpiry.expire(List.of(started.getId())));
+
+        Booking expired = bookingRepository.findById(started.getId()).orElseThrow();
+        assertEquals(BookingStatus.EXPIRED, expired.getStatus());
+        assertEquals(1, expired.getVersion());
+    }
+
+    private void awaitStatus(long bookingId, BookingStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (bookingRepository.findById(bookingId).orElseThrow().getStatus() != status
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(status, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+}
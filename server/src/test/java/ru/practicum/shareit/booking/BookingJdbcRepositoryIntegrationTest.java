@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that the JDBC read path returns the same booking pages as the JPA path, live and
+ * archived bookings included.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingJdbcRepositoryIntegrationTest {
+
+    @Autowired
+    private BookingJdbcRepository bookingJdbcRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(new User(null, "Owner", "jdbc-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "jdbc-booker@email.com"));
+        User other = userRepository.save(new User(null, "Other", "jdbc-other@email.com"));
+        Item drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        Item saw = itemRepository.save(new Item(null, "Saw", "Circular saw", false, owner, null));
+        bookingRepository.save(new Booking(null, now.minusDays(120), now.minusDays(119), drill, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(90), now.minusDays(89), saw, other,
+                BookingStatus.REJECTED));
+        bookingArchiver.archive(now.minusDays(30));
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), saw, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusHours(2), now.plusHours(2), drill, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, other,
+                BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), saw, booker,
+                BookingStatus.REJECTED));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), drill, booker,
+                BookingStatus.WAITING));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bookerPagesMatchJpaPath() throws Exception {
+        for (BookingState state : BookingState.values()) {
+            for (int[] page : new int[][]{{0, 10}, {2, 2}}) {
+                LocalDateTime now = LocalDateTime.now();
+                assertSame(bookingService.getAllByBooker(booker.getId(), state, page[0], page[1]),
+                        bookingJdbcRepository.findByBooker(booker.getId(), state, now, page[1], page[0]));
+            }
+        }
+    }
+
+    @Test
+    void ownerPagesMatchJpaPath() throws Exception {
+        for (BookingState state : BookingState.values()) {
+            for (int[] page : new int[][]{{0, 10}, {2, 2}}) {
+                LocalDateTime now = LocalDateTime.now();
+                assertSame(bookingService.getAllByOwner(owner.getId(), state, page[0], page[1]),
+                        bookingJdbcRepository.findByItemOwner(owner.getId(), state, now, page[1], page[0]));
+            }
+        }
+    }
+
+    @Test
+    void readsArchivedBookings() {
+        List<BookingDto> past = bookingJdbcRepository.findByItemOwner(owner.getId(), BookingState.PAST,
+                LocalDateTime.now(), 10, 0);
+
+        assertEquals(3, past.size());
+        assertFalse(archivedBookingRepository.findAllById(List.of(past.get(1).getId(), past.get(2).getId()))
+                .isEmpty());
+        assertEquals("Circular saw", past.get(1).getItem().getDescription());
+        assertEquals("Other", past.get(1).getBooker().getName());
+    }
+
+    private void assertSame(List<BookingDto> jpa, List<BookingDto> jdbc) throws Exception {
+        assertEquals(objectMapper.writeValueAsString(jpa), objectMapper.writeValueAsString(jdbc));
+    }
+}
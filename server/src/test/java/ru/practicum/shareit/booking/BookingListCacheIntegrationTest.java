@@ -0,0 +1,229 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.ReplicaLagMonitor;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that cached booking lists are served until a write or the next start or end of a
+ * booking, and then match a fresh query.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingListCacheIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingListCache bookingListCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item drill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "list-cache-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "list-cache-booker@email.com"));
+        drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedPollingIsServedFromCacheUntilBookingWrite() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+        assertEquals(1, futureOfBooker().size());
+
+        // Written behind the service's back, so only a fresh query would see it.
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), drill, booker,
+                BookingStatus.WAITING));
+        assertEquals(1, futureOfBooker().size());
+
+        bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(), now.plusDays(5), now.plusDays(6)));
+
+        assertEquals(3, futureOfBooker().size());
+        assertEquals(3, bookingService.getAllByOwner(owner.getId(), BookingState.FUTURE, 0, 10).size());
+    }
+
+    @Test
+    void timeFilteredListsExpireWhenBookingStarts() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        bookingRepository.save(new Booking(null, start, start.plusHours(1), drill, booker, BookingStatus.APPROVED));
+        assertEquals(1, futureOfBooker().size());
+        assertEquals(0, bookingService.getAllByBooker(booker.getId(), BookingState.CURRENT, 0, 10).size());
+
+        while (!LocalDateTime.now().isAfter(start)) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(0, futureOfBooker().size());
+        assertEquals(1, bookingService.getAllByBooker(booker.getId(), BookingState.CURRENT, 0, 10).size());
+    }
+
+    @Test
+    void approvalAndItemEditsInvalidateCachedLists() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto created = bookingService.create(booker.getId(),
+                new BookingCreateDto(drill.getId(), now.plusDays(1), now.plusDays(2)));
+        assertEquals(1, bookingService.getAllByOwner(owner.getId(), BookingState.WAITING, 0, 10).size());
+        assertEquals("Drill", bookingService.getAllByBooker(booker.getId(), BookingState.ALL, 0, 10)
+                .getFirst().getItem().getName());
+
+        bookingService.approve(owner.getId(), created.getId(), true);
+        ItemDto rename = new ItemDto();
+        rename.setName("Hammer drill");
+        itemService.update(owner.getId(), drill.getId(), rename);
+
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), BookingState.WAITING, 0, 10).size());
+        assertEquals("Hammer drill", bookingService.getAllByBooker(booker.getId(), BookingState.ALL, 0, 10)
+                .getFirst().getItem().getName());
+    }
+
+    @Test
+    void userEditsOnlyDropListsShowingTheUser() {
+        User other = userRepository.save(new User(null, "Other", "list-cache-other@email.com"));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+        assertEquals(0, bookingService.getAllByBooker(other.getId(), BookingState.ALL, 0, 10).size());
+        assertEquals("Booker", bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 0, 10)
+                .getFirst().getBooker().getName());
+
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), drill, other,
+                BookingStatus.WAITING));
+        userService.update(booker.getId(), new UserDto(null, "Renamed", null));
+
+        List<BookingDto> ownerBookings = bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 0, 10);
+        assertEquals(2, ownerBookings.size());
+        assertEquals("Renamed", ownerBookings.get(1).getBooker().getName());
+        assertEquals(0, bookingService.getAllByBooker(other.getId(), BookingState.ALL, 0, 10).size());
+    }
+
+    @Test
+    void writesOfOtherInstancesArriveThroughOutbox() {
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(0, futureOfBooker().size());
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), BookingState.FUTURE, 0, 10).size());
+
+        Booking booking = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+        assertEquals(0, futureOfBooker().size());
+        bookingListCache.onEvents(List.of(new OutboxEvent(1L, "booking", booking.getId(),
+                DomainEventType.BOOKING_CREATED, "{\"item\":{\"ownerId\":" + owner.getId() + "},\"booker\":{\"id\":"
+                + booker.getId() + "}}", now)));
+
+        assertEquals(1, futureOfBooker().size());
+        assertEquals(1, bookingService.getAllByOwner(owner.getId(), BookingState.FUTURE, 0, 10).size());
+
+        booker.setName("Renamed");
+        userRepository.save(booker);
+        bookingListCache.onEvents(List.of(new OutboxEvent(2L, "user", booker.getId(),
+                DomainEventType.USER_UPDATED, "{}", now)));
+
+        assertEquals("Renamed", bookingService.getAllByOwner(owner.getId(), BookingState.FUTURE, 0, 10)
+                .getFirst().getBooker().getName());
+    }
+
+    @Test
+    void userDeletionsOfOtherInstancesArriveThroughOutbox() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+        assertEquals(1, bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 0, 10).size());
+
+        bookingRepository.deleteAll();
+        userRepository.deleteById(booker.getId());
+        assertEquals(1, bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 0, 10).size());
+        bookingListCache.onEvents(List.of(new OutboxEvent(1L, "user", booker.getId(), DomainEventType.USER_DELETED,
+                "{\"userIds\":[" + owner.getId() + "," + booker.getId() + "],\"itemIds\":[]}", now)));
+
+        assertEquals(0, bookingService.getAllByOwner(owner.getId(), BookingState.ALL, 0, 10).size());
+    }
+
+    @Test
+    void pagesReadFromReplicaAreNotCached() {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(dataSource, "SELECT 0", 5000);
+        lagMonitor.refresh();
+        BookingListCache cache = new BookingListCache(bookingRepository, objectMapper,
+                new StaticListableBeanFactory(Map.of("lagMonitor", lagMonitor)).getBeanProvider(ReplicaLagMonitor.class),
+                new SimpleMeterRegistry(), 100, Duration.ofSeconds(30));
+        BookingListCache.Key key = new BookingListCache.Key(BookingListCache.Role.BOOKER, booker.getId(),
+                BookingState.ALL, 0, 10);
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> cache.put(key, cache.stamp(), List.of(), null));
+        assertNull(cache.get(key, now));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                cache.put(key, cache.stamp(), List.of(), null));
+        assertNotNull(cache.get(key, now));
+    }
+
+    private List<BookingDto> futureOfBooker() {
+        return bookingService.getAllByBooker(booker.getId(), BookingState.FUTURE, 0, 10);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceTest {
+
+    private static final LocalDateTime MONDAY_TEN = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    /**
+     * Mondays 10:00 to 12:00 for ten weeks.
+     */
+    private final Recurrence mondays = Recurrence.of(MONDAY_TEN, MONDAY_TEN.plusHours(2), RecurrenceFrequency.WEEKLY,
+            1, MONDAY_TEN.plusWeeks(9).plusHours(1));
+
+    @Test
+    void countsOccurrencesStartingUntilTheLimit() {
+        assertEquals(10, mondays.count());
+        assertEquals(MONDAY_TEN.plusWeeks(9).plusHours(2), mondays.lastEnd());
+    }
+
+    @Test
+    void expandsOnlyOccurrencesOverlappingTheWindow() {
+        List<LocalDateTime> starts = mondays.startsBetween(MONDAY_TEN.plusWeeks(2).plusHours(1),
+                MONDAY_TEN.plusWeeks(4));
+
+        assertEquals(List.of(MONDAY_TEN.plusWeeks(2), MONDAY_TEN.plusWeeks(3)), starts);
+        assertEquals(List.of(), mondays.startsBetween(MONDAY_TEN.minusWeeks(5), MONDAY_TEN));
+        assertEquals(List.of(), mondays.startsBetween(MONDAY_TEN.plusWeeks(10), MONDAY_TEN.plusWeeks(20)));
+    }
+
+    @Test
+    void overlapsIntervalsTouchingAnOccurrenceOnly() {
+        assertTrue(mondays.overlaps(MONDAY_TEN.plusWeeks(5).plusHours(1), MONDAY_TEN.plusWeeks(5).plusHours(3)));
+        assertFalse(mondays.overlaps(MONDAY_TEN.plusWeeks(5).plusHours(2), MONDAY_TEN.plusWeeks(5).plusHours(5)));
+        assertFalse(mondays.overlaps(MONDAY_TEN.plusDays(1), MONDAY_TEN.plusDays(6)));
+        assertFalse(mondays.overlaps(MONDAY_TEN.plusWeeks(10), MONDAY_TEN.plusWeeks(10).plusHours(2)));
+        assertTrue(mondays.overlaps(MONDAY_TEN.minusYears(1), MONDAY_TEN.plusYears(1)));
+    }
+
+    @Test
+    void overlapsOtherSeriesOnlyWhenOccurrencesMeet() {
+        Recurrence dailyMornings = Recurrence.of(MONDAY_TEN.minusHours(2), MONDAY_TEN.minusHours(1),
+                RecurrenceFrequency.DAILY, 1, MONDAY_TEN.plusWeeks(20));
+        Recurrence everyOtherDayAtEleven = Recurrence.of(MONDAY_TEN.plusDays(1).plusHours(1),
+                MONDAY_TEN.plusDays(1).plusHours(2), RecurrenceFrequency.DAILY, 2, MONDAY_TEN.plusWeeks(20));
+        Recurrence afterTheSeason = Recurrence.of(MONDAY_TEN.plusWeeks(10), MONDAY_TEN.plusWeeks(10).plusHours(2),
+                RecurrenceFrequency.WEEKLY, 1, MONDAY_TEN.plusWeeks(30));
+
+        assertFalse(mondays.overlaps(dailyMornings));
+        assertTrue(mondays.overlaps(everyOtherDayAtEleven));
+        assertTrue(everyOtherDayAtEleven.overlaps(mondays));
+        assertFalse(mondays.overlaps(afterTheSeason));
+    }
+}
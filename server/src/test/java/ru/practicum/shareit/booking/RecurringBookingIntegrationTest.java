@@ -0,0 +1,175 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that recurring bookings are stored as one rule, expanded only inside the queried window
+ * and kept from overlapping other bookings of the item.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecurringBookingIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RecurringBookingRepository recurringBookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item drill;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "recurring-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "recurring-booker@email.com"));
+        drill = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        firstStart = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recurringBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void seasonOfWeeklyBookingsIsOneRuleExpandedPerWindow() throws Exception {
+        createWeekly(firstStart, firstStart.plusWeeks(25))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.occurrences").value(26))
+                .andExpect(jsonPath("$.status").value("WAITING"));
+
+        assertEquals(1, recurringBookingRepository.count());
+        assertEquals(0, bookingRepository.count());
+        mockMvc.perform(get("/bookings/recurring/occurrences").header(USER_HEADER, booker.getId())
+                        .param("start", firstStart.plusWeeks(3).toString())
+                        .param("end", firstStart.plusWeeks(6).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].start").value(firstStart.plusWeeks(3).toString() + ":00"))
+                .andExpect(jsonPath("$[0].end").value(firstStart.plusWeeks(3).plusHours(2).toString() + ":00"));
+        mockMvc.perform(get("/bookings/recurring/owner/occurrences").header(USER_HEADER, owner.getId())
+                        .param("start", firstStart.minusDays(1).toString())
+                        .param("end", firstStart.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void bookingsOverlappingAnOccurrenceAreRefused() throws Exception {
+        long ruleId = id(createWeekly(firstStart, firstStart.plusWeeks(9)).andExpect(status().isOk()));
+
+        createSingle(firstStart.plusWeeks(4).plusHours(1), firstStart.plusWeeks(4).plusHours(3))
+                .andExpect(status().isConflict());
+        createSingle(firstStart.plusWeeks(4).plusHours(2), firstStart.plusWeeks(4).plusHours(4))
+                .andExpect(status().isOk());
+        createWeekly(firstStart.plusWeeks(9), firstStart.plusWeeks(12))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/bookings/recurring/{id}", ruleId).header(USER_HEADER, owner.getId())
+                        .param("approved", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+        createSingle(firstStart.plusWeeks(4).plusHours(1), firstStart.plusWeeks(4).plusHours(2))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void undecidedRuleStopsHoldingTheItemOnceItStarts() throws Exception {
+        long ruleId = id(createWeekly(firstStart, firstStart.plusWeeks(9)).andExpect(status().isOk()));
+        // Moved a week back, so its first occurrence has passed without a decision.
+        RecurringBooking rule = recurringBookingRepository.findById(ruleId).orElseThrow();
+        rule.setStart(firstStart.minusWeeks(1));
+        rule.setEnd(firstStart.minusWeeks(1).plusHours(2));
+        recurringBookingRepository.save(rule);
+
+        createSingle(firstStart.plusWeeks(4).plusHours(1), firstStart.plusWeeks(4).plusHours(3))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/bookings/recurring/{id}", ruleId).header(USER_HEADER, owner.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/bookings/recurring/{id}", ruleId).header(USER_HEADER, owner.getId())
+                        .param("approved", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+    }
+
+    @Test
+    void ruleOverlappingAnExistingBookingIsRefused() throws Exception {
+        createSingle(firstStart.plusWeeks(2).minusHours(1), firstStart.plusWeeks(2).plusMinutes(1))
+                .andExpect(status().isOk());
+
+        createWeekly(firstStart, firstStart.plusWeeks(9)).andExpect(status().isConflict());
+        createWeekly(firstStart, firstStart.plusWeeks(1)).andExpect(status().isOk());
+    }
+
+    @Test
+    void occurrenceWindowIsBounded() throws Exception {
+        mockMvc.perform(get("/bookings/recurring/occurrences").header(USER_HEADER, booker.getId())
+                        .param("start", firstStart.toString())
+                        .param("end", firstStart.plusYears(2).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions createWeekly(LocalDateTime start, LocalDateTime until) throws Exception {
+        RecurringBookingCreateDto dto = new RecurringBookingCreateDto(drill.getId(), start, start.plusHours(2),
+                RecurrenceFrequency.WEEKLY, 1, until);
+        return mockMvc.perform(post("/bookings/recurring").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(dto)));
+    }
+
+    private ResultActions createSingle(LocalDateTime start, LocalDateTime end) throws Exception {
+        return mockMvc.perform(post("/bookings").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingCreateDto(drill.getId(), start, end))));
+    }
+
+    private long id(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+}
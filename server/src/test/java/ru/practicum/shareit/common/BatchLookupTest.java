@@ -0,0 +1,60 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLookupTest {
+
+    @Test
+    void padsChunksToPowerOfTwoWithLastId() {
+        assertEquals(List.of(List.of(1L, 2L, 3L, 3L, 3L, 3L, 3L, 3L)), BatchLookup.chunks(List.of(1L, 2L, 3L), 1024));
+
+        List<List<Long>> chunks = BatchLookup.chunks(ids(9), 1024);
+        assertEquals(1, chunks.size());
+        assertEquals(16, chunks.get(0).size());
+        assertEquals(9L, chunks.get(0).get(15));
+    }
+
+    @Test
+    void splitsLargeListsIntoBoundedChunks() {
+        List<List<Long>> chunks = BatchLookup.chunks(ids(2_500), 1024);
+
+        assertEquals(List.of(1024, 1024, 512), chunks.stream().map(List::size).toList());
+        assertEquals(2_500L, chunks.get(2).get(511));
+        assertEquals(452, chunks.get(2).stream().distinct().count());
+    }
+
+    @Test
+    void deduplicatesIdsAndMergesResultsInOrder() {
+        List<Long> ids = new ArrayList<>(ids(3_000));
+        ids.addAll(ids(100));
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        List<Long> found = BatchLookup.findAll(ids, chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk.stream().distinct().filter(id -> id % 2 == 0).toList();
+        });
+
+        assertEquals(List.of(1024, 1024, 1024), chunkSizes);
+        assertEquals(1_500, found.size());
+        assertEquals(2L, found.get(0));
+        assertEquals(3_000L, found.get(found.size() - 1));
+    }
+
+    @Test
+    void skipsLookupForNoIds() {
+        assertTrue(BatchLookup.findAll(List.<Long>of(), chunk -> {
+            throw new AssertionError("lookup called");
+        }).isEmpty());
+    }
+
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).boxed().toList();
+    }
+}
@@ -0,0 +1,187 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that polled lists answer 304 from their version stamps alone and change their tag on
+ * every write that changes them or once their next booking boundary passes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto drill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(new UserDto(null, "Owner", "etag-owner@email.com"));
+        booker = userService.create(new UserDto(null, "Booker", "etag-booker@email.com"));
+        drill = itemService.create(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedListIsAnsweredWithNotModifiedFromVersionsAlone() throws Exception {
+        bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        String tag = fetch("/bookings", booker.getId(), null);
+        double before = statementsOf("/bookings");
+
+        mockMvc.perform(get("/bookings").header(USER_HEADER, booker.getId()).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+
+        assertEquals(1.0, statementsOf("/bookings") - before);
+    }
+
+    @Test
+    void writesChangeTheTagsOfTheListsTheyChange() throws Exception {
+        BookingDto booking = bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        String bookerTag = fetch("/bookings", booker.getId(), null);
+        String ownerTag = fetch("/bookings/owner", owner.getId(), null);
+        String itemsTag = fetch("/items", owner.getId(), null);
+        String requestsTag = fetch("/requests", booker.getId(), null);
+
+        bookingService.approve(owner.getId(), booking.getId(), true);
+        ItemRequestDto request = new ItemRequestDto();
+        request.setDescription("Need a ladder");
+        itemRequestService.createRequest(booker.getId(), request);
+
+        assertNotEquals(bookerTag, fetch("/bookings", booker.getId(), bookerTag));
+        assertNotEquals(ownerTag, fetch("/bookings/owner", owner.getId(), ownerTag));
+        assertNotEquals(itemsTag, fetch("/items", owner.getId(), itemsTag));
+        assertNotEquals(requestsTag, fetch("/requests", booker.getId(), requestsTag));
+    }
+
+    @Test
+    void timeFilteredTagExpiresWhenBookingStarts() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(), start, start.plusHours(1)));
+        String tag = fetch("/bookings?state=FUTURE", booker.getId(), null);
+        mockMvc.perform(get("/bookings?state=FUTURE").header(USER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+
+        while (!LocalDateTime.now().isAfter(start)) {
+            Thread.sleep(50);
+        }
+
+        mockMvc.perform(get("/bookings?state=FUTURE").header(USER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void renamingUserRetagsListsShowingTheUser() throws Exception {
+        bookingService.create(booker.getId(), new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        UserDto other = userService.create(new UserDto(null, "Other", "etag-other@email.com"));
+        String ownerTag = fetch("/bookings/owner", owner.getId(), null);
+        String itemsTag = fetch("/items", owner.getId(), null);
+        String otherTag = fetch("/bookings", other.getId(), null);
+
+        userService.update(booker.getId(), new UserDto(null, "Renamed", null));
+
+        assertNotEquals(ownerTag, fetch("/bookings/owner", owner.getId(), ownerTag));
+        assertNotEquals(itemsTag, fetch("/items", owner.getId(), itemsTag));
+        mockMvc.perform(get("/bookings").header(USER_HEADER, other.getId()).header(HttpHeaders.IF_NONE_MATCH, otherTag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String fetch(String uri, long userId, String ifNoneMatch) throws Exception {
+        var request = get(uri).header(USER_HEADER, userId);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        String tag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(tag);
+        return tag;
+    }
+
+    private double statementsOf(String uri) {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tag("uri", uri)
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+}
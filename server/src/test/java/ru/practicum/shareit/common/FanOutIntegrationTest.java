@@ -0,0 +1,196 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FanOutIntegrationTest {
+
+    @Autowired
+    private FanOut fanOut;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void runsTasksConcurrentlyInTheirOwnTransactions() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        FanOut.Task<Boolean> first;
+        FanOut.Task<Boolean> second;
+        try (FanOut.Scope scope = fanOut.open()) {
+            first = scope.fork(() -> awaitBoth(bothStarted));
+            second = scope.fork(() -> awaitBoth(bothStarted));
+            scope.join();
+        }
+
+        assertTrue(first.get());
+        assertTrue(second.get());
+    }
+
+    @Test
+    void capsConcurrencyPerScope() {
+        FanOut capped = new FanOut(transactionManager, 2, true);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (FanOut.Scope scope = capped.open()) {
+            for (int i = 0; i < 8; i++) {
+                scope.fork(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(20);
+                    running.decrementAndGet();
+                    return null;
+                });
+            }
+            scope.join();
+        }
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void firstFailureCancelsRunningTasks() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        long started = System.nanoTime();
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                await(slowStarted);
+                throw new NotFoundException("Item with id=1 not found.");
+            });
+
+            NotFoundException e = assertThrows(NotFoundException.class, scope::join);
+            assertEquals("Item with id=1 not found.", e.getMessage());
+        }
+
+        assertTrue(interrupted.get());
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void runsInlineInsideTransaction() {
+        Thread caller = Thread.currentThread();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (FanOut.Scope scope = fanOut.open()) {
+                FanOut.Task<Thread> task = scope.fork(() -> {
+                    assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+                    return Thread.currentThread();
+                });
+                scope.join();
+                assertSame(caller, task.get());
+            }
+        });
+
+        try (FanOut.Scope scope = fanOut.open()) {
+            FanOut.Task<Thread> task = scope.fork(Thread::currentThread);
+            scope.join();
+            assertNotSame(caller, task.get());
+            assertTrue(task.get().isVirtual());
+        }
+    }
+
+    @Test
+    void forkedStatementsCountAgainstTheRequest() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", "fan-out-owner@email.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+
+        double before = statementsOfGetItem();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        // User check, item, and the summary's bookings, archived bookings and comments
+        assertEquals(5.0, statementsOfGetItem() - before);
+    }
+
+    private double statementsOfGetItem() {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tag("uri", "/items/{itemId}")
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private static boolean awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
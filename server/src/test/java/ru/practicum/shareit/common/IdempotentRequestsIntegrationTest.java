@@ -0,0 +1,188 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentRequestsIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto drill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(new UserDto(null, "Owner", "idempotent-owner@email.com"));
+        booker = userService.create(new UserDto(null, "Booker", "idempotent-booker@email.com"));
+        drill = itemService.create(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM idempotent_responses", Map.of());
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void retryReturnsOriginalBookingWithoutWriting() throws Exception {
+        String body = objectMapper.writeValueAsString(new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        String first = mockMvc.perform(post("/bookings").header(USER_HEADER, booker.getId())
+                        .header(IdempotentRequests.HEADER, "booking-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        double before = statementsOf("/bookings");
+
+        mockMvc.perform(post("/bookings").header(USER_HEADER, booker.getId())
+                        .header(IdempotentRequests.HEADER, "booking-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(objectMapper.readTree(first).get("id").asLong()));
+
+        assertEquals(0.0, statementsOf("/bookings") - before);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void otherInstanceReplaysStoredResponse() {
+        BookingCreateDto request = new BookingCreateDto(drill.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        BookingDto created = idempotentRequests.execute(booker.getId(), IdempotentOperation.CREATE_BOOKING,
+                "booking-2", request, BookingDto.class, () -> new BookingDto(42L, request.getStart(), request.getEnd(),
+                        drill, booker, null));
+        IdempotentRequests otherInstance = new IdempotentRequests(jdbc, transactionManager, objectMapper,
+                new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+
+        BookingDto replayed = otherInstance.execute(booker.getId(), IdempotentOperation.CREATE_BOOKING,
+                "booking-2", request, BookingDto.class, () -> {
+                    throw new AssertionError("Retry must not run again");
+                });
+
+        assertEquals(created.getId(), replayed.getId());
+        assertEquals(created.getStart(), replayed.getStart());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsConflict() throws Exception {
+        mockMvc.perform(post("/items").header(USER_HEADER, owner.getId())
+                        .header(IdempotentRequests.HEADER, "item-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemDto(null, "Saw", "Hand saw", true, null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/items").header(USER_HEADER, owner.getId())
+                        .header(IdempotentRequests.HEADER, "item-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemDto(null, "Axe", "Felling axe", true, null))))
+                .andExpect(status().isConflict());
+
+        assertEquals(2, itemRepository.count());
+    }
+
+    @Test
+    void failedAttemptLeavesKeyFreeForRetry() throws Exception {
+        String body = objectMapper.writeValueAsString(new ItemDto(null, "Saw", "Hand saw", true, null));
+        mockMvc.perform(post("/items").header(USER_HEADER, 999_999L)
+                        .header(IdempotentRequests.HEADER, "item-2")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, storedResponses());
+    }
+
+    @Test
+    void purgeDropsResponsesOlderThanTtl() {
+        idempotentRequests.execute(owner.getId(), IdempotentOperation.CREATE_ITEM, "item-3", "request",
+                String.class, () -> "response");
+        jdbc.update("UPDATE idempotent_responses SET created = :created",
+                Map.of("created", LocalDateTime.now().minusDays(2)));
+
+        idempotentRequests.purge();
+
+        assertEquals(0, storedResponses());
+    }
+
+    private int storedResponses() {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM idempotent_responses", Map.of(), Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private double statementsOf(String uri) {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tag("method", "POST")
+                .tag("uri", uri)
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.DeadlineExceededException;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the gateway's timeout header bounds the statements run for a request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestDeadlinesIntegrationTest {
+
+    private static final String SLOW_QUERY = "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 10000000000) WHERE MOD(X, 7) = 3";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestDeadlines deadlines;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        deadlines.end();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void requestArrivingWithoutTimeLeftIsTimedOut() throws Exception {
+        mockMvc.perform(get("/items/search").param("text", "drill")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(DeadlineFilter.TIMEOUT_HEADER, 0))
+                .andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void requestWithTimeLeftIsServed() throws Exception {
+        UserDto user = userService.create(new UserDto(null, "User", "deadline-user@email.com"));
+
+        mockMvc.perform(get("/items/search").param("text", "drill")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(DeadlineFilter.TIMEOUT_HEADER, 5000))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void statementAfterDeadlineDoesNotRun() throws Exception {
+        deadlines.begin(1);
+        Thread.sleep(5);
+
+        assertThrows(DeadlineExceededException.class, () -> jdbc.queryForObject("SELECT 1", Integer.class));
+    }
+
+    @Test
+    void statementOutlivingDeadlineIsCancelled() {
+        deadlines.begin(1000);
+        long started = System.nanoTime();
+
+        assertThrows(QueryTimeoutException.class, () -> jdbc.queryForObject(SLOW_QUERY, Long.class));
+
+        long tookMillis = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(tookMillis < 5000, "Query ran for " + tookMillis + " ms");
+    }
+
+    @Test
+    void statementsWithoutDeadlineHaveNoTimeout() {
+        assertEquals(1, jdbc.queryForObject("SELECT 1", Integer.class));
+    }
+}
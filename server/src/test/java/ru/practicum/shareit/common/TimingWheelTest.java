@@ -0,0 +1,73 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void firesAtFirstTickAtOrAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+
+        assertEquals(List.of(), wheel.advance(299));
+        assertEquals(List.of("a", "b"), wheel.advance(300).stream().sorted().toList());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keepsTimersOfLaterRoundsInTheirBucket() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("next round", 1_000);
+
+        assertEquals(List.of(), wheel.advance(900));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("next round"), wheel.advance(1_000));
+    }
+
+    @Test
+    void longGapFiresEverythingDueOnce() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 0);
+        for (int i = 1; i <= 100; i++) {
+            wheel.schedule(i, i * 10L);
+        }
+
+        List<Integer> due = wheel.advance(505);
+
+        assertEquals(50, due.size());
+        assertEquals(50, wheel.size());
+        assertEquals(50, wheel.advance(10_000).size());
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.advance(1_000);
+
+        wheel.schedule("late", 200);
+
+        assertEquals(List.of(), wheel.advance(1_050));
+        assertEquals(List.of("late"), wheel.advance(1_100));
+    }
+
+    @Test
+    void cancelledAndRescheduledTimersFireOnlyWhereMoved() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("cancelled", 100);
+        wheel.schedule("moved", 100);
+        wheel.schedule("kept", 100);
+
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("unknown"));
+        wheel.schedule("moved", 500);
+
+        assertEquals(List.of("kept"), wheel.advance(100));
+        assertEquals(List.of("moved"), wheel.advance(500));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.UserDto;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@Transactional
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void prometheusExposesRequestRepositoryPoolAndHibernateMetrics() throws Exception {
+        UserDto user = objectMapper.readValue(mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserDto(null, "Metrics", "metrics@email.com"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), UserDto.class);
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .param("state", "PAST"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertHasLine(scrape, "http_server_requests_seconds_bucket", "uri=\"/bookings\"", "state=\"PAST\"",
+                "outcome=\"SUCCESS\"");
+        assertHasLine(scrape, "http_server_requests_seconds_bucket", "uri=\"/users\"", "state=\"none\"");
+        assertHasLine(scrape, "spring_data_repository_invocations_seconds_bucket", "repository=\"BookingRepository\"");
+        assertHasLine(scrape, "hikaricp_connections_acquire_seconds_bucket");
+        assertHasLine(scrape, "hibernate_statements_total");
+    }
+
+    private static void assertHasLine(String scrape, String metric, String... fragments) {
+        boolean found = Arrays.stream(scrape.split("\n"))
+                .filter(line -> line.startsWith(metric))
+                .anyMatch(line -> Arrays.stream(fragments).allMatch(line::contains));
+        assertTrue(found, () -> metric + " with " + String.join(", ", fragments) + " not found in scrape");
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = h2("routing_primary");
+    private final DataSource replica = h2("routing_replica");
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        JdbcTemplate jdbc = new JdbcTemplate(routing(monitor("SELECT 0")));
+
+        assertEquals("ROUTING_PRIMARY", database(jdbc));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("ROUTING_REPLICA", database(jdbc));
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaLags() {
+        ReplicaLagMonitor monitor = monitor("SELECT 12.5");
+        JdbcTemplate jdbc = new JdbcTemplate(routing(monitor));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("ROUTING_PRIMARY", database(jdbc));
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenLagCannotBeMeasured() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0");
+        assertTrue(monitor.isReplicaUsable());
+
+        ReplicaLagMonitor broken = new ReplicaLagMonitor(replica, "SELECT no_such_column", 5_000);
+        broken.refresh();
+
+        assertFalse(broken.isReplicaUsable());
+    }
+
+    private ReplicaLagMonitor monitor(String lagQuery) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, 5_000);
+        monitor.refresh();
+        return monitor;
+    }
+
+    private DataSource routing(ReplicaLagMonitor monitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(monitor);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static String database(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The replica points at the same in-memory database, so routing is observed through which pool
+ * lends the connection.
+ */
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.datasource.replica.lag-query=SELECT 0"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = primaryDataSource.unwrap(HikariDataSource.class);
+        replica = replicaDataSource.unwrap(HikariDataSource.class);
+        lagMonitor.refresh();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaPoolAndWritesUsePrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        int[] readActive = readOnly.execute(status -> {
+            userRepository.findAll();
+            return new int[] {primary.getHikariPoolMXBean().getActiveConnections(),
+                    replica.getHikariPoolMXBean().getActiveConnections()};
+        });
+        int[] writeActive = readWrite.execute(status -> {
+            userRepository.saveAndFlush(new User(null, "Routed", "routed@email.com"));
+            return new int[] {primary.getHikariPoolMXBean().getActiveConnections(),
+                    replica.getHikariPoolMXBean().getActiveConnections()};
+        });
+        userRepository.deleteAll();
+
+        assertEquals(0, readActive[0]);
+        assertEquals(1, readActive[1]);
+        assertEquals(1, writeActive[0]);
+        assertEquals(0, writeActive[1]);
+    }
+}
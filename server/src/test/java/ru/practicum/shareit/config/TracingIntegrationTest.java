@@ -0,0 +1,115 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@Transactional
+class TracingIntegrationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void setUp() {
+        flush();
+        spanExporter.reset();
+    }
+
+    @Test
+    void itemRequestContinuesCallerTraceDownToJdbc() throws Exception {
+        UserDto owner = objectMapper.readValue(mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserDto(null, "Owner", "trace@email.com"))))
+                .andReturn().getResponse().getContentAsString(), UserDto.class);
+        ItemDto item = objectMapper.readValue(mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemDto(null, "Drill", "Cordless", true, null))))
+                .andReturn().getResponse().getContentAsString(), ItemDto.class);
+        flush();
+        spanExporter.reset();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-01"))
+                .andExpect(status().isOk());
+        flush();
+
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertTrue(spans.stream().allMatch(span -> TRACE_ID.equals(span.getTraceId())), () -> describe(spans));
+        SpanData server = spans.stream()
+                .filter(span -> span.getKind() == SpanKind.SERVER)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(describe(spans)));
+        assertEquals(PARENT_SPAN_ID, server.getParentSpanId());
+        SpanData service = spans.stream()
+                .filter(span -> span.getName().equals("item-service-impl#get-by-id"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(describe(spans)));
+        assertEquals(server.getSpanId(), service.getParentSpanId());
+        assertTrue(spans.stream().anyMatch(span -> span.getName().equals("query")
+                && span.getParentSpanId().equals(service.getSpanId())), () -> describe(spans));
+    }
+
+    private void flush() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+    }
+
+    private static String describe(List<SpanData> spans) {
+        StringBuilder sb = new StringBuilder("spans:");
+        spans.forEach(span -> sb.append("\n  ").append(span.getName()).append(' ').append(span.getTraceId())
+                .append(' ').append(span.getSpanId()).append(" <- ").append(span.getParentSpanId()));
+        return sb.toString();
+    }
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.UserDto;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class WireFormatIntegrationTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Test
+    void smileRoundTripWhenRequested() throws Exception {
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        byte[] body = smileMapper.writeValueAsBytes(new UserDto(null, "Smile", "smile@email.com"));
+
+        MvcResult result = mockMvc.perform(post("/users")
+                        .contentType(SMILE)
+                        .accept(SMILE, MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn();
+
+        UserDto created = smileMapper.readValue(result.getResponse().getContentAsByteArray(), UserDto.class);
+        assertEquals("smile@email.com", created.getEmail());
+    }
+
+    @Test
+    void smileKeepsIsoDates() throws Exception {
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        UserDto user = smileMapper.readValue(mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(SMILE)
+                        .content("{\"name\":\"Req\",\"email\":\"req@email.com\"}"))
+                .andReturn().getResponse().getContentAsByteArray(), UserDto.class);
+
+        byte[] encoded = mockMvc.perform(post("/requests")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(SMILE)
+                        .content("{\"description\":\"Need a ladder\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertInstanceOf(String.class, smileMapper.readValue(encoded, Map.class).get("created"));
+    }
+
+    @Test
+    void jsonStaysDefault() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
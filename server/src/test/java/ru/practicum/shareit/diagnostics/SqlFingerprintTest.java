@@ -0,0 +1,20 @@
+package ru.practicum.shareit.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlFingerprintTest {
+
+    @Test
+    void collapsesWhitespaceAndLiterals() {
+        assertEquals("select * from items where owner_id=? and name like ?",
+                SqlFingerprint.of("SELECT *\n  FROM items WHERE owner_id=42 AND name LIKE 'dr''ill%'"));
+    }
+
+    @Test
+    void groupsInListsOfAnyLength() {
+        assertEquals(SqlFingerprint.of("select * from items where request_id in (?)"),
+                SqlFingerprint.of("select * from items where request_id in (?, ?,?)"));
+    }
+}
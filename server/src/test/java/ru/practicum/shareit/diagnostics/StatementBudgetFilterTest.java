@@ -0,0 +1,89 @@
+package ru.practicum.shareit.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementBudgetFilterTest {
+
+    private final StatementCountingListener listener = new StatementCountingListener(1_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void failsRequestOverDeclaredBudgetWithFingerprints() throws Exception {
+        StatementBudgetFilter filter = new StatementBudgetFilter(listener, meterRegistry, 20, 10_000, true);
+
+        StatementBudgetExceededException e = assertThrows(StatementBudgetExceededException.class,
+                () -> filter.doFilter(request("budgetOfTwo"), new MockHttpServletResponse(), chain(3)));
+
+        assertTrue(e.getMessage().contains("executed 3 statements, budget is 2"), e.getMessage());
+        assertTrue(e.getMessage().contains("3x select * from items where id=?"), e.getMessage());
+    }
+
+    @Test
+    void onlyReportsUndeclaredOrTolerantViolations() throws Exception {
+        StatementBudgetFilter strict = new StatementBudgetFilter(listener, meterRegistry, 1, 10_000, true);
+        StatementBudgetFilter tolerant = new StatementBudgetFilter(listener, meterRegistry, 20, 10_000, false);
+
+        assertDoesNotThrow(() -> strict.doFilter(request("undeclared"), new MockHttpServletResponse(), chain(3)));
+        assertDoesNotThrow(() -> tolerant.doFilter(request("budgetOfTwo"), new MockHttpServletResponse(), chain(3)));
+    }
+
+    @Test
+    void recordsStatementsPerEndpoint() throws Exception {
+        StatementBudgetFilter filter = new StatementBudgetFilter(listener, meterRegistry, 20, 10_000, true);
+
+        filter.doFilter(request("budgetOfTwo"), new MockHttpServletResponse(), chain(2));
+        listener.afterQuery(new ExecutionInfo(), List.of(new QueryInfo("select 1")));
+
+        assertEquals(2.0, meterRegistry.get("http.server.requests.statements")
+                .tag("uri", "/items/{itemId}")
+                .summary()
+                .totalAmount());
+    }
+
+    private static MockHttpServletRequest request(String handlerMethod) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod(handlerMethod)));
+        return request;
+    }
+
+    private MockFilterChain chain(int statements) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req,
+                                   jakarta.servlet.http.HttpServletResponse resp) {
+                for (int i = 0; i < statements; i++) {
+                    listener.afterQuery(new ExecutionInfo(),
+                            List.of(new QueryInfo("select * from items where id=" + i)));
+                }
+            }
+        });
+    }
+
+    static class Handlers {
+
+        @StatementBudget(2)
+        void budgetOfTwo() {
+        }
+
+        void undeclared() {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingArchiver;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports committed live and archived rows through the controllers, so it runs without a test
+ * transaction.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportIntegrationTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "export-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "export-booker@email.com"));
+        drill = itemRepository.save(new Item(null, "Drill, cordless", "Says \"quiet\"", true, owner, null));
+        saw = itemRepository.save(new Item(null, "Saw", "Circular saw", false, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportsArchivedThenLiveBookingsAsCsv() throws Exception {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Booking live = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), drill, booker,
+                BookingStatus.WAITING));
+        Booking archived = bookingRepository.save(new Booking(null, now.minusDays(101), now.minusDays(100), saw,
+                booker, BookingStatus.APPROVED));
+        bookingArchiver.archive(now.minusDays(30));
+
+        String csv = mockMvc.perform(get("/bookings/export").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"bookings.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,start,end,status,itemId,itemName,bookerId", lines[0]);
+        assertEquals(archived.getId() + "," + now.minusDays(101) + "," + now.minusDays(100) + ",APPROVED,"
+                + saw.getId() + ",Saw," + booker.getId(), lines[1]);
+        assertEquals(live.getId() + "," + now.plusDays(1) + "," + now.plusDays(2) + ",WAITING,"
+                + drill.getId() + ",\"Drill, cordless\"," + booker.getId(), lines[2]);
+    }
+
+    @Test
+    void exportsItemsAsNdjson() throws Exception {
+        String ndjson = mockMvc.perform(get("/items/export").param("format", "ndjson")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(drill.getId(), first.get("id").asLong());
+        assertEquals("Says \"quiet\"", first.get("description").asText());
+        assertEquals(saw.getId(), objectMapper.readTree(lines[1]).get("id").asLong());
+        assertFalse(objectMapper.readTree(lines[1]).get("available").asBoolean());
+    }
+
+    @Test
+    void rejectsUnknownUserAndFormatBeforeWriting() throws Exception {
+        mockMvc.perform(get("/bookings/export").header(USER_HEADER, 999_999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/items/export").param("format", "xml").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown export format: xml"));
+    }
+}
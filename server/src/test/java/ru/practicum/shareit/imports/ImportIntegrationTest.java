@@ -0,0 +1,236 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingExpiry;
+import ru.practicum.shareit.booking.BookingListCache;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.common.CollectionVersions;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSummaries;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports commit chunk by chunk, so the test runs without a test transaction. A service with
+ * two-row chunks makes references cross chunk boundaries.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImportJdbcRepository importRepository;
+
+    @Autowired
+    private ItemSummaries itemSummaries;
+
+    @Autowired
+    private BookingListCache bookingListCache;
+
+    @Autowired
+    private BookingExpiry bookingExpiry;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importsRowsReferringToEarlierChunks() {
+        ImportReport report = service(2, 10).importNdjson(ndjson(
+                "{\"type\":\"user\",\"name\":\"Owner\",\"email\":\"import-owner@email.com\"}",
+                "{\"type\":\"user\",\"name\":\"Booker\",\"email\":\"import-booker@email.com\"}",
+                "",
+                "{\"type\":\"item\",\"ref\":\"drill\",\"name\":\"Drill\",\"description\":\"Cordless\","
+                        + "\"available\":true,\"ownerEmail\":\"import-owner@email.com\"}",
+                "{\"type\":\"booking\",\"itemRef\":\"drill\",\"bookerEmail\":\"import-booker@email.com\","
+                        + "\"start\":\"2025-01-10T10:00:00\",\"end\":\"2025-01-11T10:00:00\",\"status\":\"APPROVED\"}"));
+
+        assertEquals(4, report.getRows());
+        assertEquals(2, report.getUsers());
+        assertEquals(1, report.getItems());
+        assertEquals(1, report.getBookings());
+        assertEquals(0, report.getFailed());
+        User owner = userRepository.findByEmail("import-owner@email.com").orElseThrow();
+        Item drill = itemRepository.findByOwnerIdOrderByIdAsc(owner.getId()).get(0);
+        Booking booking = bookingRepository.findAll().get(0);
+        assertEquals(drill.getId(), booking.getItem().getId());
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+    }
+
+    @Test
+    void reportsRejectedRowsWithLineNumbersAndKeepsValidOnes() {
+        User existing = userRepository.save(new User(null, "Existing", "import-existing@email.com"));
+        Item item = itemRepository.save(new Item(null, "Saw", "Circular saw", true, existing, null));
+
+        ImportReport report = service(3, 10).importNdjson(ndjson(
+                "{\"type\":\"user\",\"name\":\"\",\"email\":\"import-blank@email.com\"}",
+                "{\"type\":\"user\",\"name\":\"Dup\",\"email\":\"import-existing@email.com\"}",
+                "not json",
+                "{\"type\":\"item\",\"name\":\"Drill\",\"description\":\"Cordless\",\"ownerId\":999999}",
+                "{\"type\":\"item\",\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true,"
+                        + "\"ownerId\":999999}",
+                "{\"type\":\"booking\",\"itemId\":" + item.getId() + ",\"bookerId\":" + existing.getId()
+                        + ",\"start\":\"2025-01-10T10:00:00\",\"end\":\"2025-01-11T10:00:00\"}",
+                "{\"type\":\"booking\",\"itemId\":" + item.getId() + ",\"bookerEmail\":\"import-existing@email.com\""
+                        + ",\"start\":\"2025-01-12T10:00:00\",\"end\":\"2025-01-11T10:00:00\"}",
+                "{\"type\":\"comment\"}",
+                "{\"type\":\"user\",\"name\":\"Fine\",\"email\":\"import-fine@email.com\"}"));
+
+        assertEquals(9, report.getRows());
+        assertEquals(1, report.getUsers());
+        assertEquals(8, report.getFailed());
+        assertEquals(List.of(
+                new ImportReport.RowError(1, "User name must not be blank."),
+                new ImportReport.RowError(2, "Email 'import-existing@email.com' is already used by another user."),
+                new ImportReport.RowError(4, "Item available must be provided."),
+                new ImportReport.RowError(5, "User with id=999999 not found."),
+                new ImportReport.RowError(6, "Owner cannot book their own item."),
+                new ImportReport.RowError(7, "End date must be after start date."),
+                new ImportReport.RowError(8, "Unknown row type: comment")),
+                report.getErrors().stream().filter(e -> e.line() != 3).toList());
+        assertTrue(report.getErrors().get(2).error().startsWith("Malformed row"));
+        assertTrue(userRepository.findByEmail("import-fine@email.com").isPresent());
+    }
+
+    @Test
+    void importedWaitingBookingExpiresWhenItStarts() throws InterruptedException {
+        User owner = userRepository.save(new User(null, "Owner", "import-expiry-owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "import-expiry-booker@email.com"));
+        Item item = itemRepository.save(new Item(null, "Saw", "Circular saw", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1).withNano(0);
+
+        ImportReport report = service(10, 10).importNdjson(ndjson(
+                "{\"type\":\"booking\",\"itemId\":" + item.getId() + ",\"bookerId\":" + booker.getId()
+                        + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusHours(1) + "\"}"));
+
+        assertEquals(1, report.getBookings());
+        long bookingId = bookingRepository.findAll().get(0).getId();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (bookingRepository.findById(bookingId).orElseThrow().getStatus() != BookingStatus.EXPIRED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(BookingStatus.EXPIRED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void chunksWithBookingsPublishTheUsersAndItemsTheyTouched() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", "import-event-owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "import-event-booker@email.com"));
+        Item item = itemRepository.save(new Item(null, "Saw", "Circular saw", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        String booking = "{\"type\":\"booking\",\"itemId\":" + item.getId() + ",\"bookerId\":" + booker.getId()
+                + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusHours(1) + "\",\"status\":\"%s\"}";
+        long lastEventId = outboxEventRepository.findAll().stream().mapToLong(OutboxEvent::getId).max().orElse(0);
+
+        service(2, 10).importNdjson(ndjson(
+                "{\"type\":\"user\",\"name\":\"Other\",\"email\":\"import-event-other@email.com\"}",
+                booking.formatted("WAITING"),
+                booking.formatted("APPROVED")));
+
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getId() > lastEventId)
+                .toList();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(event -> event.getEventType() == DomainEventType.BULK_IMPORTED));
+        JsonNode first = objectMapper.readTree(events.get(0).getPayload());
+        assertEquals(Set.of(owner.getId(), booker.getId()), ids(first.path("userIds")));
+        assertEquals(Set.of(), ids(first.path("itemIds")));
+        assertEquals(Set.of(item.getId()), ids(objectMapper.readTree(events.get(1).getPayload()).path("itemIds")));
+    }
+
+    @Test
+    void capsListedErrors() {
+        ImportReport report = service(10, 2).importNdjson(ndjson("{}", "{}", "{}"));
+
+        assertEquals(3, report.getFailed());
+        assertEquals(2, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+    }
+
+    @Test
+    void acceptsNdjsonUpload() throws Exception {
+        mockMvc.perform(post("/imports")
+                        .contentType("application/x-ndjson")
+                        .content("{\"type\":\"user\",\"name\":\"Upload\",\"email\":\"import-upload@email.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(1))
+                .andExpect(jsonPath("$.users").value(1))
+                .andExpect(jsonPath("$.errors").isEmpty());
+    }
+
+    private ImportServiceImpl service(int chunkSize, int maxErrors) {
+        return new ImportServiceImpl(importRepository, itemSummaries, bookingListCache, bookingExpiry,
+                collectionVersions, outboxPublisher, objectMapper, transactionManager, chunkSize, maxErrors);
+    }
+
+    private static Set<Long> ids(JsonNode array) {
+        Set<Long> ids = new HashSet<>();
+        array.forEach(id -> ids.add(id.asLong()));
+        return ids;
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
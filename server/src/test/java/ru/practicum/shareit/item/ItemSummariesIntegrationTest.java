@@ -0,0 +1,247 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.config.ReplicaLagMonitor;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the summary projection against committed and rolled back writes, so it runs without a
+ * test transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemSummariesIntegrationTest {
+
+    @Autowired
+    private ItemSummaries itemSummaries;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "summary-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "summary-booker@email.com"));
+        item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void approvalAndCommentPatchCachedSummary() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+        assertNull(itemService.getById(owner.getId(), item.getId()).getNextBooking());
+
+        bookingService.approve(owner.getId(), next.getId(), true);
+        CommentDto comment = new CommentDto();
+        comment.setText("Worked fine");
+        itemService.addComment(booker.getId(), item.getId(), comment);
+
+        ItemDto dto = itemService.getById(owner.getId(), item.getId());
+        assertEquals(past.getId(), dto.getLastBooking().getId());
+        assertEquals(next.getId(), dto.getNextBooking().getId());
+        assertEquals(1, dto.getComments().size());
+        assertEquals("Booker", dto.getComments().get(0).getAuthorName());
+    }
+
+    @Test
+    void rollbackEvictsPatchedSummary() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking waiting = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+        itemService.getById(owner.getId(), item.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingService.approve(owner.getId(), waiting.getId(), true);
+            assertEquals(waiting.getId(), itemService.getById(owner.getId(), item.getId()).getNextBooking().getId());
+            status.setRollbackOnly();
+        });
+
+        assertNull(itemSummaries.getAll(List.of(item.getId()), LocalDateTime.now()).get(item.getId()).nextBooking());
+        assertNull(itemService.getById(owner.getId(), item.getId()).getNextBooking());
+    }
+
+    @Test
+    void approvalsOfOtherInstancesArriveThroughOutbox() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+        assertNull(itemService.getById(owner.getId(), item.getId()).getNextBooking());
+
+        next.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(next);
+        assertNull(itemService.getById(owner.getId(), item.getId()).getNextBooking());
+        itemSummaries.onEvents(List.of(new OutboxEvent(1L, "booking", next.getId(), DomainEventType.BOOKING_APPROVED,
+                "{\"item\":{\"id\":" + item.getId() + "}}", now)));
+
+        assertEquals(next.getId(), itemService.getById(owner.getId(), item.getId()).getNextBooking().getId());
+    }
+
+    @Test
+    void userDeletionsOfOtherInstancesArriveThroughOutbox() {
+        LocalDateTime now = LocalDateTime.now();
+        commentRepository.save(new Comment(null, "Worked fine", item, booker, now));
+        assertEquals(1, itemService.getById(owner.getId(), item.getId()).getComments().size());
+
+        commentRepository.deleteAll();
+        userRepository.deleteById(booker.getId());
+        assertEquals(1, itemService.getById(owner.getId(), item.getId()).getComments().size());
+        itemSummaries.onEvents(List.of(new OutboxEvent(1L, "user", booker.getId(), DomainEventType.USER_DELETED,
+                "{\"userIds\":[" + booker.getId() + "],\"itemIds\":[" + item.getId() + "]}", now)));
+
+        assertEquals(0, itemService.getById(owner.getId(), item.getId()).getComments().size());
+    }
+
+    @Test
+    void readsOfUnknownItemsAreNotCached() {
+        long unknownId = item.getId() + 1000;
+        assertThrows(NotFoundException.class, () -> itemService.getById(owner.getId(), unknownId));
+        itemService.getById(owner.getId(), item.getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(itemSummaries.lookup(unknownId, now).stamp() >= 0);
+        assertTrue(itemSummaries.lookup(item.getId(), now).stamp() < 0);
+    }
+
+    @Test
+    void missesInReplicaTransactionsLoadFromPrimary() {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(dataSource, "SELECT 0", 5000);
+        lagMonitor.refresh();
+        List<Boolean> readOnly = new CopyOnWriteArrayList<>();
+        BookingRepository recording = (BookingRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BookingRepository.class}, (proxy, method, args) -> {
+                    readOnly.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                    try {
+                        return method.invoke(bookingRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ItemSummaries summaries = new ItemSummaries(recording, archivedBookingRepository, commentRepository,
+                objectMapper, new StaticListableBeanFactory(Map.of("lagMonitor", lagMonitor))
+                .getBeanProvider(ReplicaLagMonitor.class), transactionManager, new SimpleMeterRegistry(), 100,
+                Duration.ofSeconds(30), 50);
+        TransactionTemplate replicaTransaction = new TransactionTemplate(transactionManager);
+        replicaTransaction.setReadOnly(true);
+
+        replicaTransaction.executeWithoutResult(status -> summaries.getAll(List.of(item.getId()), LocalDateTime.now()));
+
+        assertEquals(List.of(false), readOnly);
+    }
+
+    @Test
+    void ownerWithHundredThousandItemsLoadsInBoundedChunks() {
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, 100_000)
+                        .mapToObj(i -> new Object[]{"Item " + i, "Bulk item", true, owner.getId()})
+                        .toList());
+        Long lastId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM items", Long.class);
+        Item last = itemRepository.findById(lastId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), last, booker,
+                BookingStatus.APPROVED));
+        commentRepository.save(new Comment(null, "Still works", last, booker, now));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        List<ItemDto> items = itemService.getOwnerItems(owner.getId());
+
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        assertEquals(100_001, items.size());
+        ItemDto lastDto = items.get(items.size() - 1);
+        assertEquals(lastId, lastDto.getId());
+        assertEquals(past.getId(), lastDto.getLastBooking().getId());
+        assertEquals("Still works", lastDto.getComments().get(0).getText());
+        // Bookings, archived bookings and comments in 98 chunks of at most 1024 ids each.
+        assertTrue(statements <= 2 + 3 * 98, "statements: " + statements);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingShortDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSummaryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final ItemSummary empty = new ItemSummary(null, null, null, 0, List.of());
+
+    @Test
+    void approvedBookingsResolveLastAndNextAndBoundary() {
+        ItemSummary summary = empty
+                .withApprovedBooking(booking(1L, NOW.minusDays(5), NOW.minusDays(4)), NOW)
+                .withApprovedBooking(booking(2L, NOW.minusDays(3), NOW.minusDays(2)), NOW)
+                .withApprovedBooking(booking(3L, NOW.minusHours(1), NOW.plusHours(1)), NOW)
+                .withApprovedBooking(booking(4L, NOW.plusDays(2), NOW.plusDays(3)), NOW)
+                .withApprovedBooking(booking(5L, NOW.plusDays(1), NOW.plusDays(2)), NOW);
+
+        assertEquals(2L, summary.lastBooking().getId());
+        assertEquals(5L, summary.nextBooking().getId());
+        assertEquals(NOW.plusHours(1), summary.validUntil());
+        assertTrue(summary.isCurrent(NOW.plusMinutes(59)));
+        assertFalse(summary.isCurrent(NOW.plusHours(1)));
+    }
+
+    @Test
+    void applyingSameBookingTwiceIsNoOp() {
+        BookingShortDto next = booking(1L, NOW.plusDays(1), NOW.plusDays(2));
+        ItemSummary once = empty.withApprovedBooking(next, NOW);
+
+        assertEquals(once, once.withApprovedBooking(next, NOW));
+        assertNull(once.lastBooking());
+    }
+
+    @Test
+    void commentsArePrependedAndCapped() {
+        ItemSummary summary = empty
+                .withComment(comment(1L), 2)
+                .withComment(comment(2L), 2)
+                .withComment(comment(3L), 2);
+
+        assertEquals(3, summary.commentCount());
+        assertEquals(List.of(3L, 2L), summary.latestComments().stream().map(CommentDto::getId).toList());
+        assertFalse(summary.hasAllComments());
+        assertSame(summary, summary.withComment(comment(3L), 2));
+    }
+
+    private static BookingShortDto booking(long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingShortDto(id, 10L, start, end);
+    }
+
+    private static CommentDto comment(long id) {
+        return new CommentDto(id, "Comment " + id, "Author", NOW);
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingCreateDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs without a test transaction: events must only become visible once the writing
+ * transaction commits. Each test drives its own dispatcher, so gaps left by rolled back writes
+ * of earlier tests stay behind its head.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    @Autowired
+    private OutboxPublisher publisher;
+
+    @Autowired
+    private OutboxEventRepository eventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository offsetRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final RecordingSubscriber recorder = new RecordingSubscriber();
+    private OutboxDispatcher dispatcher;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "outbox-owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "outbox-booker@email.com"));
+        // Rolled back writes of transactional tests leave ids above the last committed event;
+        // a fresh marker event puts the dispatcher's starting head past them.
+        transactionTemplate.executeWithoutResult(status -> publisher.publish(DomainEventType.ITEM_UPDATED, 0L, "marker"));
+        dispatcher = dispatcher(5000);
+        dispatcher.dispatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        offsetRepository.deleteById(RecordingSubscriber.NAME);
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void eventIsWrittenOnlyWithCommittedChange() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> publisher.publish(DomainEventType.ITEM_UPDATED, 1L, "{}"));
+
+        ItemDto item = itemService.create(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+        BookingCreateDto booking = new BookingCreateDto(item.getId(), LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2));
+        long before = eventRepository.count();
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingService.create(booker.getId(), booking);
+            status.setRollbackOnly();
+        });
+        assertEquals(before, eventRepository.count());
+
+        long bookingId = bookingService.create(booker.getId(), booking).getId();
+        assertEquals(before + 1, eventRepository.count());
+
+        OutboxEvent created = eventRepository.findAll().stream()
+                .max(Comparator.comparing(OutboxEvent::getId))
+                .orElseThrow();
+        assertEquals(DomainEventType.BOOKING_CREATED, created.getEventType());
+        assertEquals("booking", created.getAggregateType());
+        assertEquals(bookingId, created.getAggregateId());
+        assertTrue(created.getPayload().contains("\"status\":\"WAITING\""));
+    }
+
+    @Test
+    void deliversInOrderAtLeastOnceAndReplays() {
+        ItemDto first = itemService.create(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+        itemService.create(owner.getId(), new ItemDto(null, "Saw", "Circular saw", true, null));
+        itemService.update(owner.getId(), first.getId(), new ItemDto(null, "Drill 2", null, null, null));
+
+        recorder.failNext = true;
+        assertEquals(0, dispatcher.dispatch());
+        assertEquals(3, dispatcher.dispatch());
+        assertEquals(List.of(DomainEventType.ITEM_CREATED, DomainEventType.ITEM_CREATED, DomainEventType.ITEM_UPDATED),
+                recorder.events.stream().map(OutboxEvent::getEventType).toList());
+        long firstId = recorder.events.get(0).getId();
+        assertEquals(List.of(firstId, firstId + 1, firstId + 2), recorder.events.stream().map(OutboxEvent::getId).toList());
+        assertEquals(0, dispatcher.dispatch());
+
+        dispatcher.replay(RecordingSubscriber.NAME, firstId);
+        assertEquals(2, dispatcher.dispatch());
+        assertEquals(firstId + 2, offsetRepository.findById(RecordingSubscriber.NAME).orElseThrow().getLastEventId());
+    }
+
+    @Test
+    void waitsForLowerIdStillInFlight() throws Exception {
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread slow = Thread.ofVirtual().start(() -> transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(DomainEventType.ITEM_UPDATED, 1L, "slow");
+            published.countDown();
+            await(commit);
+        }));
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status -> publisher.publish(DomainEventType.ITEM_UPDATED, 2L, "fast"));
+
+        assertEquals(0, dispatcher.dispatch());
+
+        commit.countDown();
+        slow.join();
+        assertEquals(2, dispatcher.dispatch());
+        assertEquals(List.of(1L, 2L), recorder.events.stream().map(OutboxEvent::getAggregateId).toList());
+    }
+
+    @Test
+    void skipsGapOfRolledBackTransactionAfterTimeout() {
+        OutboxDispatcher impatient = dispatcher(0);
+        impatient.dispatch();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(DomainEventType.ITEM_UPDATED, 1L, "rolled back");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> publisher.publish(DomainEventType.ITEM_UPDATED, 2L, "kept"));
+
+        assertEquals(1, impatient.dispatch());
+        assertEquals(2L, recorder.events.get(0).getAggregateId());
+    }
+
+    @Test
+    void deliversEventCommittedAfterItsGapWasSkipped() throws Exception {
+        OutboxDispatcher impatient = dispatcher(0);
+        impatient.dispatch();
+
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread slow = Thread.ofVirtual().start(() -> transactionTemplate.executeWithoutResult(status -> {
+            publisher.publish(DomainEventType.ITEM_UPDATED, 1L, "slow");
+            published.countDown();
+            await(commit);
+        }));
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status -> publisher.publish(DomainEventType.ITEM_UPDATED, 2L, "fast"));
+
+        assertEquals(1, impatient.dispatch());
+
+        commit.countDown();
+        slow.join();
+        assertEquals(1, impatient.dispatch());
+        assertEquals(0, impatient.dispatch());
+        assertEquals(List.of(2L, 1L), recorder.events.stream().map(OutboxEvent::getAggregateId).toList());
+    }
+
+    private OutboxDispatcher dispatcher(long gapTimeoutMillis) {
+        return new OutboxDispatcher(eventRepository, offsetRepository,
+                new StaticListableBeanFactory(Map.of("recorder", recorder)).getBeanProvider(OutboxSubscriber.class),
+                new SimpleMeterRegistry(), 500, gapTimeoutMillis, Duration.ofMinutes(10), Duration.ofDays(7), false);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+
+        static final String NAME = "recorder";
+
+        private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean failNext;
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public void onEvents(List<OutboxEvent> batch) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            events.addAll(batch);
+        }
+    }
+}
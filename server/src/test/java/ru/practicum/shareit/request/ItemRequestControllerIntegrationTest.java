@@ -165,6 +165,29 @@ class ItemRequestControllerIntegrationTest {
                 .andExpect(jsonPath("$.items[0].name", is("Drill")));
     }
 
+    @Test
+    void getAllRequests_LoadsItemsOfWholePageInOneQuery() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String response = mockMvc.perform(post("/requests")
+                    .header(USER_HEADER, requestorId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new ItemRequestDto(null, "Need tool " + i, null, null))))
+                    .andReturn().getResponse().getContentAsString();
+            Long requestId = objectMapper.readValue(response, ItemRequestDto.class).getId();
+            mockMvc.perform(post("/items")
+                    .header(USER_HEADER, ownerId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new ItemDto(null, "Tool " + i, "Answer", true, requestId))));
+        }
+
+        // The declared statement budget fails this request in tests if items are loaded per request
+        mockMvc.perform(get("/requests/all")
+                        .header(USER_HEADER, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[*].items[*]", hasSize(5)));
+    }
+
     @Test
     void getRequestById_NotFound_Returns404() throws Exception {
         mockMvc.perform(get("/requests/999")
@@ -9,6 +9,9 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.outbox.DomainEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
 
 import java.util.List;
 
@@ -25,6 +28,9 @@ class UserServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -132,6 +138,20 @@ class UserServiceTest {
         assertThrows(NotFoundException.class, () -> userService.getById(created.getId()));
     }
 
+    @Test
+    void delete_PublishesUserDeleted() {
+        UserDto created = userService.create(new UserDto(null, "Test User", "test@email.com"));
+
+        userService.delete(created.getId());
+
+        OutboxEvent event = outboxEventRepository.findAll().stream()
+                .filter(e -> e.getEventType() == DomainEventType.USER_DELETED)
+                .filter(e -> e.getAggregateId().equals(created.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("{\"userIds\":[" + created.getId() + "],\"itemIds\":[]}", event.getPayload());
+    }
+
     @Test
     void delete_NotFound_ThrowsNotFound() {
         assertThrows(NotFoundException.class, () -> userService.delete(999L));